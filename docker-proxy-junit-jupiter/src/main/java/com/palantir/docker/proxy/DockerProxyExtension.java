@@ -37,10 +37,26 @@ public final class DockerProxyExtension extends DockerProxyManager<DockerCompose
      */
     DockerProxyExtension(
             Function<DockerExecutable, DockerContainerInfo> dockerContainerInfoCreator, Class<?> classToLogFor) {
+        this(dockerContainerInfoCreator, classToLogFor, DockerProxySettings.defaults());
+    }
+
+    /**
+     * Creates a {@link DockerProxyExtension} which will create a proxy and DNS so that tests can interface with docker
+     * containers directly.
+     *
+     * @param dockerContainerInfoCreator A {@link Function} that creates the DockerContainerInfo to use
+     * @param classToLogFor The class using {@link DockerProxyExtension}
+     * @param settings How the proxy behaves
+     */
+    DockerProxyExtension(
+            Function<DockerExecutable, DockerContainerInfo> dockerContainerInfoCreator,
+            Class<?> classToLogFor,
+            DockerProxySettings settings) {
         super(
                 customizer -> customizer.apply(DockerComposeExtension.builder()).build(),
                 dockerContainerInfoCreator,
-                classToLogFor);
+                classToLogFor,
+                settings);
     }
 
     /**
@@ -54,6 +70,21 @@ public final class DockerProxyExtension extends DockerProxyManager<DockerCompose
                 docker -> new ProjectBasedDockerContainerInfo(docker, projectName), classToLogFor);
     }
 
+    /**
+     * Creates a {@link DockerProxyExtension} using a {@link ProjectBasedDockerContainerInfo}.
+     *
+     * @param projectName The docker-compose-rule ProjectName to use to find the containers
+     * @param classToLogFor The class using {@link DockerProxyExtension}
+     * @param settings How the proxy behaves
+     */
+    public static DockerProxyExtension fromProjectName(
+            ProjectName projectName, Class<?> classToLogFor, DockerProxySettings settings) {
+        return new DockerProxyExtension(
+                docker -> new ProjectBasedDockerContainerInfo(docker, projectName, settings.getHostnameUniverse()),
+                classToLogFor,
+                settings);
+    }
+
     /**
      * Creates a {@link DockerProxyExtension} using a {@link ProjectBasedDockerContainerInfo}.
      *
@@ -96,6 +127,19 @@ public final class DockerProxyExtension extends DockerProxyManager<DockerCompose
                 docker -> new NetworkBasedDockerContainerInfo(docker, networkName), classToLogFor);
     }
 
+    /**
+     * Creates a {@link DockerProxyExtension} using a {@link NetworkBasedDockerContainerInfo}.
+     *
+     * @param networkName The network name to use to find the containers
+     * @param classToLogFor The class using {@link DockerProxyExtension}
+     * @param settings How the proxy behaves
+     */
+    public static DockerProxyExtension fromNetworkName(
+            String networkName, Class<?> classToLogFor, DockerProxySettings settings) {
+        return new DockerProxyExtension(
+                docker -> new NetworkBasedDockerContainerInfo(docker, networkName), classToLogFor, settings);
+    }
+
     /**
      * Creates a {@link DockerProxyExtension} using a {@link NetworkBasedDockerContainerInfo}.
      *
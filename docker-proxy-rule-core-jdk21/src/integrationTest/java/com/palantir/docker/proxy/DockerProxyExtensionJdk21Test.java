@@ -16,14 +16,20 @@
 
 package com.palantir.docker.proxy;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 import com.palantir.docker.compose.DockerComposeExtension;
 import com.palantir.docker.compose.connection.Container;
 import com.palantir.docker.compose.logging.LogDirectory;
 import java.io.IOException;
+import java.net.ProxySelector;
+import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
@@ -113,6 +119,24 @@ class DockerProxyExtensionJdk21Test {
         }
     }
 
+    @Test
+    void canReachDockerContainerWithHttpClientThroughTheHttpProxy() throws IOException, InterruptedException {
+        DockerProxyExtension dockerProxyExtension = DockerProxyExtension.fromProjectName(
+                DOCKER_COMPOSE_EXTENSION.projectName(),
+                DockerProxyExtensionJdk21Test.class,
+                DockerProxySettings.builder().httpProxyEnabled(true).build());
+        try {
+            dockerProxyExtension.before();
+            HttpClient client = HttpClient.newBuilder().proxy(ProxySelector.getDefault()).build();
+            HttpResponse<Void> response = client.send(
+                    HttpRequest.newBuilder(URI.create("http://webserver")).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            assertThat(response.statusCode()).isEqualTo(200);
+        } finally {
+            dockerProxyExtension.after();
+        }
+    }
+
     @Test
     void otherHostnamesStillResolve() throws IOException, InterruptedException {
         DockerProxyExtension dockerProxyExtension = DockerProxyExtension.fromProjectName(
@@ -19,6 +19,7 @@ package com.palantir.docker.proxy;
 import com.google.auto.service.AutoService;
 import java.net.spi.InetAddressResolver;
 import java.net.spi.InetAddressResolverProvider;
+import java.util.Optional;
 
 @AutoService(InetAddressResolverProvider.class)
 public final class DockerProxyInetAddressResolverProvider extends InetAddressResolverProvider {
@@ -28,7 +29,8 @@ public final class DockerProxyInetAddressResolverProvider extends InetAddressRes
         return new ForwardingInetAddressResolver(
                 new DockerProxyInetAddressResolver(DockerProxyManager::getDockerNameService),
                 configuration.builtinResolver(),
-                () -> DockerProxyManager.getDockerNameService() != null);
+                () -> Optional.ofNullable(DockerProxyManager.getDockerNameService())
+                        .map(DockerNameService::getRoutingPolicy));
     }
 
     @Override
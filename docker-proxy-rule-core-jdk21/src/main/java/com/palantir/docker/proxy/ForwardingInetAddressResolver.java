@@ -19,50 +19,65 @@ package com.palantir.docker.proxy;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.net.spi.InetAddressResolver;
-import java.util.function.BooleanSupplier;
+import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
+/**
+ * ForwardingInetAddressResolver looks hostnames up from docker and the system resolver in the order the active
+ * {@link HostRoutingPolicy} asks for, deciding before any docker work is done. While no proxy is running everything
+ * goes to the system resolver.
+ */
 class ForwardingInetAddressResolver implements InetAddressResolver {
     private final InetAddressResolver delegate;
     private final InetAddressResolver fallback;
-    private final BooleanSupplier delegateEnabled;
+    private final Supplier<Optional<HostRoutingPolicy>> routingPolicy;
 
     ForwardingInetAddressResolver(
-            InetAddressResolver delegate, InetAddressResolver fallback, BooleanSupplier delegateEnabled) {
+            InetAddressResolver delegate,
+            InetAddressResolver fallback,
+            Supplier<Optional<HostRoutingPolicy>> routingPolicy) {
         this.delegate = delegate;
         this.fallback = fallback;
-        this.delegateEnabled = delegateEnabled;
+        this.routingPolicy = routingPolicy;
     }
 
     @Override
     public Stream<InetAddress> lookupByName(String host, LookupPolicy lookupPolicy) throws UnknownHostException {
-        if (!delegateEnabled.getAsBoolean()) {
+        Optional<HostRoutingPolicy> policy = routingPolicy.get();
+        if (!policy.isPresent()) {
             return fallback.lookupByName(host, lookupPolicy);
         }
 
-        try {
-            return delegate.lookupByName(host, lookupPolicy);
-        } catch (UnknownHostException e) {
-            if (fallback != null) {
+        switch (policy.get().route(host)) {
+            case SYSTEM_ONLY:
                 return fallback.lookupByName(host, lookupPolicy);
-            }
-            throw e;
+            case SYSTEM_FIRST:
+                try {
+                    return fallback.lookupByName(host, lookupPolicy);
+                } catch (UnknownHostException e) {
+                    return delegate.lookupByName(host, lookupPolicy);
+                }
+            case DOCKER_FIRST:
+            default:
+                try {
+                    return delegate.lookupByName(host, lookupPolicy);
+                } catch (UnknownHostException e) {
+                    return fallback.lookupByName(host, lookupPolicy);
+                }
         }
     }
 
     @Override
     public String lookupByAddress(byte[] addr) throws UnknownHostException {
-        if (!delegateEnabled.getAsBoolean()) {
+        if (!routingPolicy.get().isPresent()) {
             return fallback.lookupByAddress(addr);
         }
 
         try {
             return delegate.lookupByAddress(addr);
         } catch (UnknownHostException e) {
-            if (fallback != null) {
-                return fallback.lookupByAddress(addr);
-            }
-            throw e;
+            return fallback.lookupByAddress(addr);
         }
     }
 }
@@ -0,0 +1,719 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import com.palantir.docker.compose.connection.DockerMachine;
+import com.palantir.docker.compose.execution.DockerExecutable;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.URLDecoder;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * An in-process stand-in for the subset of the Docker Engine API that docker-proxy-rule relies on, served over a unix
+ * domain socket. Pointing the docker CLI at it (see {@link #dockerExecutable()}) lets container discovery, caching and
+ * event handling be exercised and benchmarked at arbitrary scale without a docker daemon.
+ *
+ * <p>Only what the CLI needs for {@code ps}, {@code inspect}, {@code network inspect}, {@code info} and
+ * {@code events} is emulated. Every container is attached to a single network and belongs to a single compose
+ * project. Latency is added to every request and containers can be restarted, added or removed either explicitly or
+ * by the churn scheduler, which changes their IPs and start times and publishes the matching events.
+ */
+final class FakeDockerEngine implements Closeable {
+    static final String API_VERSION = "1.41";
+
+    private static final Pattern VERSION_PREFIX = Pattern.compile("^/v[0-9.]+");
+    private static final Pattern FILTER_SECTION = Pattern.compile("\"([a-z]+)\"\\s*:\\s*\\{([^}]*)}");
+    private static final Pattern FILTER_VALUE = Pattern.compile("\"((?:[^\"\\\\]|\\\\.)*)\"\\s*:\\s*true");
+    private static final String EVENT_STREAM_END = "";
+
+    private final Path socketPath;
+    private final String networkName;
+    private final String networkId;
+    private final String projectName;
+    private final String daemonId;
+    private final Duration latency;
+    private final Random random;
+    private final ServerSocketChannel server;
+    private final ExecutorService connectionExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService churnExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "fake-docker-engine-churn");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ConcurrentMap<String, FakeContainer> containers = new ConcurrentSkipListMap<>();
+    private final List<BlockingQueue<String>> eventSubscribers = new CopyOnWriteArrayList<>();
+    private final ConcurrentMap<String, LongAdder> requestCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger addressCounter = new AtomicInteger(2);
+    private final AtomicInteger serviceCounter = new AtomicInteger();
+
+    private volatile boolean closed = false;
+
+    private FakeDockerEngine(Builder builder) throws IOException {
+        this.socketPath = builder.socketPath.orElseGet(FakeDockerEngine::temporarySocketPath);
+        this.networkName = builder.networkName;
+        this.projectName = builder.projectName;
+        this.latency = builder.latency;
+        this.random = new Random(builder.seed);
+        this.networkId = randomId();
+        this.daemonId = randomId();
+        for (int i = 0; i < builder.containers; i++) {
+            FakeContainer container = newContainer();
+            containers.put(container.id(), container);
+        }
+
+        Files.deleteIfExists(socketPath);
+        this.server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socketPath));
+        connectionExecutor.execute(this::acceptConnections);
+
+        if (!builder.churnInterval.isZero()) {
+            long churnNanos = builder.churnInterval.toNanos();
+            churnExecutor.scheduleAtFixedRate(this::churn, churnNanos, churnNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    Path socketPath() {
+        return socketPath;
+    }
+
+    String dockerHost() {
+        return "unix://" + socketPath;
+    }
+
+    String networkName() {
+        return networkName;
+    }
+
+    String projectName() {
+        return projectName;
+    }
+
+    String daemonId() {
+        return daemonId;
+    }
+
+    /**
+     * Returns a {@link DockerExecutable} whose docker CLI talks to this engine instead of the local daemon.
+     */
+    DockerExecutable dockerExecutable() {
+        return DockerExecutable.builder()
+                .dockerConfiguration(DockerMachine.localMachine()
+                        .withAdditionalEnvironmentVariable("DOCKER_HOST", dockerHost())
+                        .build())
+                .build();
+    }
+
+    List<FakeContainer> containers() {
+        return List.copyOf(containers.values());
+    }
+
+    Optional<FakeContainer> container(String idOrName) {
+        return Optional.ofNullable(findContainer(idOrName));
+    }
+
+    /**
+     * Returns how many requests have been served for an endpoint, e.g. {@code containers/inspect}.
+     */
+    long requestCount(String endpoint) {
+        LongAdder count = requestCounts.get(endpoint);
+        return count == null ? 0 : count.sum();
+    }
+
+    int eventSubscriberCount() {
+        return eventSubscribers.size();
+    }
+
+    long totalRequestCount() {
+        return requestCounts.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    FakeContainer addContainer() {
+        FakeContainer container = newContainer();
+        containers.put(container.id(), container);
+        publishContainerEvent("create", container);
+        publishContainerEvent("start", container);
+        publishNetworkEvent("connect", container);
+        return container;
+    }
+
+    FakeContainer restartContainer(String id) {
+        FakeContainer restarted =
+                containers.computeIfPresent(id, (_id, container) -> container.restarted(nextAddress(), randomId()));
+        if (restarted == null) {
+            throw new IllegalArgumentException("No such container: " + id);
+        }
+        publishNetworkEvent("disconnect", restarted);
+        publishContainerEvent("die", restarted);
+        publishContainerEvent("start", restarted);
+        publishNetworkEvent("connect", restarted);
+        return restarted;
+    }
+
+    void removeContainer(String id) {
+        FakeContainer removed = containers.remove(id);
+        if (removed == null) {
+            throw new IllegalArgumentException("No such container: " + id);
+        }
+        publishNetworkEvent("disconnect", removed);
+        publishContainerEvent("die", removed);
+        publishContainerEvent("destroy", removed);
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        churnExecutor.shutdownNow();
+        eventSubscribers.forEach(subscriber -> subscriber.add(EVENT_STREAM_END));
+        server.close();
+        connectionExecutor.shutdownNow();
+        Files.deleteIfExists(socketPath);
+    }
+
+    private synchronized void churn() {
+        List<String> ids = new ArrayList<>(containers.keySet());
+        if (ids.isEmpty()) {
+            addContainer();
+            return;
+        }
+        String victim = ids.get(random.nextInt(ids.size()));
+        int action = random.nextInt(10);
+        if (action < 8) {
+            restartContainer(victim);
+        } else if (action < 9) {
+            removeContainer(victim);
+        } else {
+            addContainer();
+        }
+    }
+
+    private void acceptConnections() {
+        while (!closed) {
+            try {
+                SocketChannel channel = server.accept();
+                connectionExecutor.execute(() -> serve(channel));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                if (!closed) {
+                    throw new IllegalStateException("Fake docker engine failed to accept a connection", e);
+                }
+            }
+        }
+    }
+
+    private void serve(SocketChannel channel) {
+        try (channel;
+                InputStream in = Channels.newInputStream(channel);
+                OutputStream out = Channels.newOutputStream(channel)) {
+            Optional<Request> request;
+            while ((request = Request.read(in)).isPresent()) {
+                if (!handle(request.get(), out)) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // Client went away, nothing to do
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean handle(Request request, OutputStream out) throws IOException, InterruptedException {
+        if (!latency.isZero()) {
+            Thread.sleep(latency);
+        }
+
+        String path = VERSION_PREFIX.matcher(request.path()).replaceFirst("");
+        if (path.equals("/_ping")) {
+            count("ping");
+            respond(out, request, 200, "text/plain", "OK");
+        } else if (path.equals("/version")) {
+            count("version");
+            respond(out, request, 200, "application/json", versionJson());
+        } else if (path.equals("/info")) {
+            count("info");
+            respond(out, request, 200, "application/json", infoJson());
+        } else if (path.equals("/containers/json")) {
+            count("containers/list");
+            respond(out, request, 200, "application/json", containerListJson(request.query("filters")));
+        } else if (path.startsWith("/containers/") && path.endsWith("/json")) {
+            count("containers/inspect");
+            String idOrName = path.substring("/containers/".length(), path.length() - "/json".length());
+            FakeContainer container = findContainer(idOrName);
+            if (container == null) {
+                respond(out, request, 404, "application/json", errorJson("No such container: " + idOrName));
+            } else {
+                respond(out, request, 200, "application/json", containerInspectJson(container));
+            }
+        } else if (path.startsWith("/networks/")) {
+            count("networks/inspect");
+            String idOrName = path.substring("/networks/".length());
+            if (idOrName.equals(networkName) || idOrName.equals(networkId)) {
+                respond(out, request, 200, "application/json", networkInspectJson());
+            } else {
+                respond(out, request, 404, "application/json", errorJson("network " + idOrName + " not found"));
+            }
+        } else if (path.equals("/events")) {
+            count("events");
+            streamEvents(out, request.query("until").isPresent());
+            return false;
+        } else {
+            count("unknown");
+            respond(out, request, 404, "application/json", errorJson("page not found"));
+        }
+        return true;
+    }
+
+    private void count(String endpoint) {
+        requestCounts.computeIfAbsent(endpoint, _endpoint -> new LongAdder()).increment();
+    }
+
+    private void streamEvents(OutputStream out, boolean bounded) throws IOException, InterruptedException {
+        writeHead(out, 200, "application/json", Map.of("Transfer-Encoding", "chunked"));
+        out.flush();
+        if (bounded) {
+            out.write("0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            return;
+        }
+
+        BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        eventSubscribers.add(events);
+        try {
+            String event;
+            while (!closed && !(event = events.take()).equals(EVENT_STREAM_END)) {
+                byte[] chunk = (event + "\n").getBytes(StandardCharsets.UTF_8);
+                out.write((Integer.toHexString(chunk.length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                out.write(chunk);
+                out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+            }
+        } finally {
+            eventSubscribers.remove(events);
+        }
+    }
+
+    private static void respond(OutputStream out, Request request, int status, String contentType, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        writeHead(out, status, contentType, Map.of("Content-Length", Integer.toString(bytes.length)));
+        if (!request.method().equals("HEAD")) {
+            out.write(bytes);
+        }
+        out.flush();
+    }
+
+    private static void writeHead(OutputStream out, int status, String contentType, Map<String, String> headers)
+            throws IOException {
+        StringBuilder head = new StringBuilder()
+                .append("HTTP/1.1 ")
+                .append(status)
+                .append(status == 200 ? " OK" : " Not Found")
+                .append("\r\n");
+        head.append("Api-Version: ").append(API_VERSION).append("\r\n");
+        head.append("Docker-Experimental: false\r\n");
+        head.append("Ostype: linux\r\n");
+        head.append("Content-Type: ").append(contentType).append("\r\n");
+        headers.forEach((name, value) ->
+                head.append(name).append(": ").append(value).append("\r\n"));
+        head.append("\r\n");
+        out.write(head.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void publishContainerEvent(String action, FakeContainer container) {
+        Map<String, String> attributes = new HashMap<>(container.labels());
+        attributes.put("name", container.name());
+        attributes.put("image", FakeContainer.IMAGE);
+        publishEvent("container", action, container.id(), attributes);
+    }
+
+    private void publishNetworkEvent(String action, FakeContainer container) {
+        publishEvent(
+                "network",
+                action,
+                networkId,
+                Map.of("container", container.id(), "name", networkName, "type", "bridge"));
+    }
+
+    private void publishEvent(String type, String action, String actorId, Map<String, String> attributes) {
+        Instant now = Instant.now();
+        long timeNano = TimeUnit.SECONDS.toNanos(now.getEpochSecond()) + now.getNano();
+        String event = "{\"Type\":" + quote(type)
+                + ",\"Action\":" + quote(action)
+                + ",\"Actor\":{\"ID\":" + quote(actorId) + ",\"Attributes\":" + stringMapJson(attributes) + "}"
+                + ",\"scope\":\"local\""
+                + ",\"time\":" + now.getEpochSecond()
+                + ",\"timeNano\":" + timeNano
+                + "}";
+        eventSubscribers.forEach(subscriber -> subscriber.add(event));
+    }
+
+    private String versionJson() {
+        return "{\"Version\":\"20.10.0\",\"ApiVersion\":" + quote(API_VERSION)
+                + ",\"MinAPIVersion\":\"1.12\",\"Os\":\"linux\",\"Arch\":\"amd64\",\"KernelVersion\":\"fake\"}";
+    }
+
+    private String infoJson() {
+        return "{\"ID\":" + quote(daemonId)
+                + ",\"Name\":\"fake-docker-engine\""
+                + ",\"Containers\":" + containers.size()
+                + ",\"ContainersRunning\":" + containers.size()
+                + ",\"ServerVersion\":\"20.10.0\",\"OSType\":\"linux\",\"Architecture\":\"x86_64\"}";
+    }
+
+    private String containerListJson(Optional<String> filters) {
+        Map<String, List<String>> parsedFilters = filters.map(FakeDockerEngine::parseFilters).orElseGet(Map::of);
+        return containers.values().stream()
+                .filter(container -> container.matches(parsedFilters, networkName))
+                .map(this::containerSummaryJson)
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private String containerSummaryJson(FakeContainer container) {
+        return "{\"Id\":" + quote(container.id())
+                + ",\"Names\":[" + quote("/" + container.name()) + "]"
+                + ",\"Image\":" + quote(FakeContainer.IMAGE)
+                + ",\"Command\":\"sleep infinity\""
+                + ",\"Created\":" + container.startedAt().getEpochSecond()
+                + ",\"Ports\":[]"
+                + ",\"Labels\":" + stringMapJson(container.labels())
+                + ",\"State\":\"running\",\"Status\":\"Up\""
+                + ",\"NetworkSettings\":{\"Networks\":{" + quote(networkName) + ":" + endpointJson(container) + "}}"
+                + "}";
+    }
+
+    private String containerInspectJson(FakeContainer container) {
+        return "{\"Id\":" + quote(container.id())
+                + ",\"Name\":" + quote("/" + container.name())
+                + ",\"Created\":" + quote(container.startedAt().toString())
+                + ",\"Image\":" + quote(FakeContainer.IMAGE)
+                + ",\"State\":{\"Status\":\"running\",\"Running\":true,\"Pid\":1,\"StartedAt\":"
+                + quote(container.startedAt().toString()) + "}"
+                + ",\"Config\":{\"Hostname\":" + quote(container.hostname())
+                + ",\"Domainname\":\"\",\"Image\":" + quote(FakeContainer.IMAGE)
+                + ",\"Labels\":" + stringMapJson(container.labels()) + "}"
+                + ",\"NetworkSettings\":{\"Ports\":{},\"Networks\":{" + quote(networkName) + ":"
+                + endpointJson(container) + "}}"
+                + "}";
+    }
+
+    private String endpointJson(FakeContainer container) {
+        return "{\"NetworkID\":" + quote(networkId)
+                + ",\"Aliases\":[" + quote(container.service()) + "," + quote(container.id().substring(0, 12)) + "]"
+                + ",\"EndpointID\":" + quote(container.endpointId())
+                + ",\"IPAddress\":" + quote(container.ip())
+                + ",\"IPPrefixLen\":16,\"Gateway\":\"172.28.0.1\"}";
+    }
+
+    private String networkInspectJson() {
+        String attached = containers.values().stream()
+                .map(container -> quote(container.id()) + ":{\"Name\":" + quote(container.name())
+                        + ",\"EndpointID\":" + quote(container.endpointId())
+                        + ",\"IPv4Address\":" + quote(container.ip() + "/16") + ",\"IPv6Address\":\"\"}")
+                .collect(Collectors.joining(",", "{", "}"));
+        return "{\"Name\":" + quote(networkName)
+                + ",\"Id\":" + quote(networkId)
+                + ",\"Scope\":\"local\",\"Driver\":\"bridge\""
+                + ",\"IPAM\":{\"Config\":[{\"Subnet\":\"172.28.0.0/16\",\"Gateway\":\"172.28.0.1\"}]}"
+                + ",\"Containers\":" + attached
+                + ",\"Labels\":{}}";
+    }
+
+    private static String errorJson(String message) {
+        return "{\"message\":" + quote(message) + "}";
+    }
+
+    private static String stringMapJson(Map<String, String> map) {
+        return map.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> quote(entry.getKey()) + ":" + quote(entry.getValue()))
+                .collect(Collectors.joining(",", "{", "}"));
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (char character : value.toCharArray()) {
+            switch (character) {
+                case '"':
+                    quoted.append("\\\"");
+                    break;
+                case '\\':
+                    quoted.append("\\\\");
+                    break;
+                case '\n':
+                    quoted.append("\\n");
+                    break;
+                default:
+                    if (character < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) character));
+                    } else {
+                        quoted.append(character);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * Parses the {@code filters} query parameter, e.g. {@code {"label":{"com.docker.compose.project=foo":true}}}.
+     */
+    private static Map<String, List<String>> parseFilters(String filters) {
+        Map<String, List<String>> parsed = new HashMap<>();
+        Matcher section = FILTER_SECTION.matcher(filters);
+        while (section.find()) {
+            List<String> values = new ArrayList<>();
+            Matcher value = FILTER_VALUE.matcher(section.group(2));
+            while (value.find()) {
+                values.add(value.group(1).replace("\\\"", "\"").replace("\\\\", "\\"));
+            }
+            parsed.put(section.group(1), values);
+        }
+        return parsed;
+    }
+
+    private FakeContainer findContainer(String idOrName) {
+        FakeContainer exact = containers.get(idOrName);
+        if (exact != null) {
+            return exact;
+        }
+        return containers.values().stream()
+                .filter(container -> container.id().startsWith(idOrName) || container.name().equals(idOrName))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private synchronized FakeContainer newContainer() {
+        String service = "service-" + serviceCounter.getAndIncrement();
+        return new FakeContainer(
+                randomId(),
+                projectName + "-" + service + "-1",
+                service,
+                projectName,
+                nextAddress(),
+                randomId(),
+                Instant.now());
+    }
+
+    private String nextAddress() {
+        int address = addressCounter.getAndIncrement();
+        return "172.28." + (address / 254) + "." + (address % 254 + 1);
+    }
+
+    private synchronized String randomId() {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    private static Path temporarySocketPath() {
+        try {
+            // Unix socket paths are limited to ~100 bytes, so keep it short and in the system temp directory
+            Path directory = Files.createTempDirectory("fde");
+            directory.toFile().deleteOnExit();
+            return directory.resolve("docker.sock");
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to create a directory for the fake docker socket", e);
+        }
+    }
+
+    record FakeContainer(
+            String id, String name, String service, String project, String ip, String endpointId, Instant startedAt) {
+        static final String IMAGE = "fake/container:latest";
+
+        String hostname() {
+            return service;
+        }
+
+        Map<String, String> labels() {
+            return Map.of(
+                    "com.docker.compose.project", project,
+                    "com.docker.compose.service", service,
+                    "com.docker.compose.container-number", "1");
+        }
+
+        FakeContainer restarted(String newIp, String newEndpointId) {
+            return new FakeContainer(id, name, service, project, newIp, newEndpointId, Instant.now());
+        }
+
+        boolean matches(Map<String, List<String>> filters, String networkName) {
+            for (String label : filters.getOrDefault("label", List.of())) {
+                int equals = label.indexOf('=');
+                boolean matches = equals < 0
+                        ? labels().containsKey(label)
+                        : label.substring(equals + 1).equals(labels().get(label.substring(0, equals)));
+                if (!matches) {
+                    return false;
+                }
+            }
+            List<String> networks = filters.getOrDefault("network", List.of());
+            if (!networks.isEmpty() && !networks.contains(networkName)) {
+                return false;
+            }
+            List<String> ids = filters.getOrDefault("id", List.of());
+            return ids.isEmpty() || ids.stream().anyMatch(id::startsWith);
+        }
+    }
+
+    private record Request(String method, String path, Map<String, String> queryParameters) {
+        Optional<String> query(String name) {
+            return Optional.ofNullable(queryParameters.get(name));
+        }
+
+        static Optional<Request> read(InputStream in) throws IOException {
+            String requestLine = readLine(in);
+            if (requestLine == null || requestLine.isEmpty()) {
+                return Optional.empty();
+            }
+
+            int contentLength = 0;
+            String header;
+            while ((header = readLine(in)) != null && !header.isEmpty()) {
+                int colon = header.indexOf(':');
+                if (colon > 0 && header.substring(0, colon).trim().equalsIgnoreCase("Content-Length")) {
+                    contentLength = Integer.parseInt(header.substring(colon + 1).trim());
+                }
+            }
+            in.skipNBytes(contentLength);
+
+            String[] parts = requestLine.split(" ");
+            String target = parts[1];
+            int queryStart = target.indexOf('?');
+            Map<String, String> query = new HashMap<>();
+            if (queryStart >= 0) {
+                for (String parameter : target.substring(queryStart + 1).split("&")) {
+                    int equals = parameter.indexOf('=');
+                    if (equals > 0) {
+                        query.put(
+                                parameter.substring(0, equals),
+                                URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8));
+                    }
+                }
+                target = target.substring(0, queryStart);
+            }
+            return Optional.of(new Request(parts[0], target, query));
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int next;
+            while ((next = in.read()) != -1) {
+                if (next == '\n') {
+                    return line.toString(StandardCharsets.US_ASCII).stripTrailing();
+                }
+                line.write(next);
+            }
+            return line.size() == 0 ? null : line.toString(StandardCharsets.US_ASCII);
+        }
+    }
+
+    static final class Builder {
+        private int containers = 10;
+        private String networkName = "fake_default";
+        private String projectName = "fake";
+        private Duration latency = Duration.ZERO;
+        private Duration churnInterval = Duration.ZERO;
+        private long seed = 0;
+        private Optional<Path> socketPath = Optional.empty();
+
+        private Builder() {}
+
+        Builder containers(int count) {
+            this.containers = count;
+            return this;
+        }
+
+        Builder networkName(String name) {
+            this.networkName = name;
+            return this;
+        }
+
+        Builder projectName(String name) {
+            this.projectName = name;
+            return this;
+        }
+
+        /**
+         * Delay added to every request, to model a loaded daemon.
+         */
+        Builder latency(Duration requestLatency) {
+            this.latency = requestLatency;
+            return this;
+        }
+
+        /**
+         * How often a random container is restarted, removed or added. Zero disables churn.
+         */
+        Builder churnInterval(Duration interval) {
+            this.churnInterval = interval;
+            return this;
+        }
+
+        Builder seed(long randomSeed) {
+            this.seed = randomSeed;
+            return this;
+        }
+
+        Builder socketPath(Path path) {
+            this.socketPath = Optional.of(path);
+            return this;
+        }
+
+        FakeDockerEngine start() throws IOException {
+            return new FakeDockerEngine(this);
+        }
+    }
+}
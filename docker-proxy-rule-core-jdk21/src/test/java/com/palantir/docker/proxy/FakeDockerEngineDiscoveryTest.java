@@ -0,0 +1,149 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.docker.compose.configuration.ProjectName;
+import com.palantir.docker.proxy.FakeDockerEngine.FakeContainer;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+
+/**
+ * Runs container discovery, incremental refreshes and event-driven refreshes through the real docker CLI against a
+ * {@link FakeDockerEngine} with 1,000 containers. Skipped where the docker CLI isn't installed.
+ */
+class FakeDockerEngineDiscoveryTest {
+    private static final int CONTAINERS = 1000;
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    private FakeDockerEngine engine;
+    private NetworkBasedDockerContainerInfo containerInfo;
+
+    @BeforeAll
+    static void dockerCliIsInstalled() {
+        Assumptions.assumeTrue(isDockerCliInstalled(), "The docker CLI is not installed");
+    }
+
+    @BeforeEach
+    void before(TestInfo testInfo) throws IOException {
+        // shared indices are keyed by network name, so every test gets its own network
+        engine = FakeDockerEngine.builder()
+                .containers(CONTAINERS)
+                .networkName("fake_" + testInfo.getTestMethod().get().getName())
+                .start();
+        containerInfo = new NetworkBasedDockerContainerInfo(engine.dockerExecutable(), engine.networkName());
+    }
+
+    @AfterEach
+    void after() throws IOException {
+        engine.close();
+    }
+
+    @Test
+    void indexesEveryContainerOnTheNetwork() {
+        ContainerIndex index = containerInfo.refreshIndex();
+
+        assertThat(index.getContainers()).hasSize(CONTAINERS);
+        for (FakeContainer container : engine.containers()) {
+            assertThat(index.getIpForHost(container.service())).hasValue(container.ip());
+            assertThat(index.getIpForHost(container.name())).hasValue(container.ip());
+        }
+    }
+
+    @Test
+    void refreshesOnlyInspectRestartedContainers() {
+        containerInfo.refreshIndex();
+        FakeContainer restarted = engine.restartContainer(engine.containers().get(0).id());
+        long inspectsBefore = engine.requestCount("containers/inspect");
+        long listingsBefore = engine.requestCount("networks/inspect");
+
+        ContainerIndex index = containerInfo.refreshIndex();
+
+        assertThat(engine.requestCount("networks/inspect") - listingsBefore).isEqualTo(1);
+        assertThat(engine.requestCount("containers/inspect") - inspectsBefore).isEqualTo(1);
+        assertThat(index.getIpForHost(restarted.service())).hasValue(restarted.ip());
+        assertThat(index.getContainers()).hasSize(CONTAINERS);
+    }
+
+    @Test
+    void refreshesOfAComposeProjectOnlyInspectRestartedContainers() {
+        ProjectBasedDockerContainerInfo projectInfo = new ProjectBasedDockerContainerInfo(
+                engine.dockerExecutable(), ProjectName.fromString(engine.projectName()));
+        projectInfo.refreshIndex();
+        FakeContainer restarted = engine.restartContainer(engine.containers().get(0).id());
+        long inspectsBefore = engine.requestCount("containers/inspect");
+
+        ContainerIndex index = projectInfo.refreshIndex();
+
+        assertThat(engine.requestCount("containers/inspect") - inspectsBefore).isEqualTo(1);
+        assertThat(index.getIpForHost(restarted.service())).hasValue(restarted.ip());
+        assertThat(index.getContainers()).hasSize(CONTAINERS);
+    }
+
+    @Test
+    void eventsRefreshTheSharedIndex() throws InterruptedException {
+        CachePolicy policy = CachePolicy.builder()
+                .refreshInterval(Duration.ofHours(1))
+                .mode(CachePolicy.Mode.EVENTS)
+                .build();
+        SharedContainerIndex shared = SharedContainerIndex.acquire(containerInfo, policy);
+        try {
+            shared.current();
+            awaitEventSubscriber();
+            FakeContainer restarted = engine.restartContainer(engine.containers().get(0).id());
+
+            long deadlineNanos = System.nanoTime() + TIMEOUT.toNanos();
+            while (!shared.current().getIpForHost(restarted.service()).equals(Optional.of(restarted.ip()))
+                    && System.nanoTime() - deadlineNanos < 0) {
+                shared.awaitUpdate(shared.updateCount(), TimeUnit.SECONDS.toNanos(1));
+            }
+
+            assertThat(shared.current().getIpForHost(restarted.service())).hasValue(restarted.ip());
+        } finally {
+            shared.release();
+        }
+    }
+
+    private void awaitEventSubscriber() throws InterruptedException {
+        long deadlineNanos = System.nanoTime() + TIMEOUT.toNanos();
+        while (engine.eventSubscriberCount() == 0 && System.nanoTime() - deadlineNanos < 0) {
+            Thread.sleep(10);
+        }
+        assertThat(engine.eventSubscriberCount()).isPositive();
+    }
+
+    private static boolean isDockerCliInstalled() {
+        try {
+            Process process = new ProcessBuilder("docker", "--version").start();
+            return process.waitFor(10, TimeUnit.SECONDS) && process.exitValue() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.docker.proxy.FakeDockerEngine.FakeContainer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URLEncoder;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FakeDockerEngineTest {
+    private FakeDockerEngine engine;
+
+    @BeforeEach
+    void before() throws IOException {
+        engine = FakeDockerEngine.builder()
+                .containers(1000)
+                .projectName("perf")
+                .networkName("perf_default")
+                .start();
+    }
+
+    @AfterEach
+    void after() throws IOException {
+        engine.close();
+    }
+
+    @Test
+    void answersPing() throws IOException {
+        assertThat(get("/_ping")).startsWith("HTTP/1.1 200").endsWith("OK");
+    }
+
+    @Test
+    void listsAllContainersInTheProject() throws IOException {
+        String filters = URLEncoder.encode(
+                "{\"label\":{\"com.docker.compose.project=perf\":true}}", StandardCharsets.UTF_8);
+
+        String response = get("/v1.41/containers/json?filters=" + filters);
+
+        assertThat(response).startsWith("HTTP/1.1 200");
+        assertThat(response.split("\"Id\":", -1)).hasSize(1001);
+    }
+
+    @Test
+    void filtersOutOtherProjects() throws IOException {
+        String filters = URLEncoder.encode(
+                "{\"label\":{\"com.docker.compose.project=other\":true}}", StandardCharsets.UTF_8);
+
+        assertThat(get("/v1.41/containers/json?filters=" + filters)).endsWith("[]");
+    }
+
+    @Test
+    void inspectsContainersByIdPrefix() throws IOException {
+        FakeContainer container = engine.containers().get(0);
+
+        String response = get("/v1.41/containers/" + container.id().substring(0, 12) + "/json");
+
+        assertThat(response)
+                .startsWith("HTTP/1.1 200")
+                .contains("\"Name\":\"/" + container.name() + "\"")
+                .contains("\"IPAddress\":\"" + container.ip() + "\"");
+        assertThat(engine.requestCount("containers/inspect")).isEqualTo(1);
+    }
+
+    @Test
+    void unknownContainersAreNotFound() throws IOException {
+        assertThat(get("/v1.41/containers/doesnotexist/json")).startsWith("HTTP/1.1 404");
+    }
+
+    @Test
+    void networkInspectListsEveryContainer() throws IOException {
+        String response = get("/v1.41/networks/perf_default");
+
+        assertThat(response.split("\"IPv4Address\":", -1)).hasSize(1001);
+    }
+
+    @Test
+    void restartingAContainerChangesItsIpAndPublishesEvents() throws Exception {
+        FakeContainer container = engine.containers().get(0);
+
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(engine.socketPath()))) {
+            channel.write(ByteBuffer.wrap((request("/v1.41/events") + "\r\n").getBytes(StandardCharsets.US_ASCII)));
+            BufferedReader reader =
+                    new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+            CompletableFuture<String> startEvent = CompletableFuture.supplyAsync(() -> reader.lines()
+                    .filter(line -> line.contains("\"Action\":\"start\""))
+                    .findFirst()
+                    .orElseThrow());
+            waitForEventSubscriber();
+
+            FakeContainer restarted = engine.restartContainer(container.id());
+
+            assertThat(restarted.ip()).isNotEqualTo(container.ip());
+            assertThat(startEvent.get(10, TimeUnit.SECONDS)).contains(container.id());
+        }
+    }
+
+    @Test
+    void addsLatencyToEveryRequest() throws IOException {
+        try (FakeDockerEngine slowEngine =
+                FakeDockerEngine.builder().latency(Duration.ofMillis(200)).start()) {
+            long start = System.nanoTime();
+            get(slowEngine, "/_ping");
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(200));
+        }
+    }
+
+    private void waitForEventSubscriber() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (engine.eventSubscriberCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private String get(String path) throws IOException {
+        return get(engine, path);
+    }
+
+    private static String get(FakeDockerEngine target, String path) throws IOException {
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(target.socketPath()));
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8))) {
+            channel.write(ByteBuffer.wrap((request(path) + "Connection: close\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII)));
+            channel.shutdownOutput();
+            return reader.lines().collect(Collectors.joining("\n"));
+        }
+    }
+
+    private static String request(String path) {
+        return "GET " + path + " HTTP/1.1\r\nHost: docker\r\n";
+    }
+}
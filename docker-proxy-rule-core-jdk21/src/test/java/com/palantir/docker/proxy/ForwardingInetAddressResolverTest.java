@@ -0,0 +1,121 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.net.spi.InetAddressResolver;
+import java.net.spi.InetAddressResolver.LookupPolicy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class ForwardingInetAddressResolverTest {
+    private static final LookupPolicy LOOKUP_POLICY = LookupPolicy.of(LookupPolicy.IPV4);
+    private static final InetAddress DOCKER_ADDRESS = address(172, 17, 0, 2);
+    private static final InetAddress SYSTEM_ADDRESS = address(10, 0, 0, 1);
+
+    private final List<String> lookups = new ArrayList<>();
+    private final RecordingResolver docker =
+            new RecordingResolver("docker", Map.of("db", DOCKER_ADDRESS, "db.corp.example", DOCKER_ADDRESS));
+    private final RecordingResolver system = new RecordingResolver(
+            "system", Map.of("localhost", SYSTEM_ADDRESS, "example.com", SYSTEM_ADDRESS, "db", SYSTEM_ADDRESS));
+
+    @Test
+    void onlyUsesTheSystemResolverWhileNoProxyIsRunning() throws UnknownHostException {
+        ForwardingInetAddressResolver resolver = new ForwardingInetAddressResolver(docker, system, Optional::empty);
+
+        assertThat(resolver.lookupByName("db", LOOKUP_POLICY)).containsExactly(SYSTEM_ADDRESS);
+        assertThat(lookups).containsExactly("system:db");
+    }
+
+    @Test
+    void looksUpDockerFirstByDefault() throws UnknownHostException {
+        ForwardingInetAddressResolver resolver = resolver(HostRoutingPolicy.defaults());
+
+        assertThat(resolver.lookupByName("db", LOOKUP_POLICY)).containsExactly(DOCKER_ADDRESS);
+        assertThat(resolver.lookupByName("example.com", LOOKUP_POLICY)).containsExactly(SYSTEM_ADDRESS);
+        assertThat(lookups).containsExactly("docker:db", "docker:example.com", "system:example.com");
+    }
+
+    @Test
+    void neverAsksDockerAboutSystemOnlyHosts() throws UnknownHostException {
+        ForwardingInetAddressResolver resolver = resolver(HostRoutingPolicy.defaults());
+
+        assertThat(resolver.lookupByName("localhost", LOOKUP_POLICY)).containsExactly(SYSTEM_ADDRESS);
+        assertThatThrownBy(() -> resolver.lookupByName("other.localhost", LOOKUP_POLICY))
+                .isInstanceOf(UnknownHostException.class);
+        assertThat(lookups).containsExactly("system:localhost", "system:other.localhost");
+    }
+
+    @Test
+    void looksUpDottedNamesFromTheSystemFirstWhenAsked() throws UnknownHostException {
+        ForwardingInetAddressResolver resolver =
+                resolver(HostRoutingPolicy.builder().dottedNamesSystemFirst(true).build());
+
+        assertThat(resolver.lookupByName("example.com", LOOKUP_POLICY)).containsExactly(SYSTEM_ADDRESS);
+        assertThat(resolver.lookupByName("db.corp.example", LOOKUP_POLICY)).containsExactly(DOCKER_ADDRESS);
+        assertThat(lookups).containsExactly("system:example.com", "system:db.corp.example", "docker:db.corp.example");
+    }
+
+    private ForwardingInetAddressResolver resolver(HostRoutingPolicy policy) {
+        return new ForwardingInetAddressResolver(docker, system, () -> Optional.of(policy));
+    }
+
+    private static InetAddress address(int... octets) {
+        byte[] bytes = new byte[octets.length];
+        for (int i = 0; i < octets.length; i++) {
+            bytes[i] = (byte) octets[i];
+        }
+        try {
+            return InetAddress.getByAddress(bytes);
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private final class RecordingResolver implements InetAddressResolver {
+        private final String name;
+        private final Map<String, InetAddress> addresses;
+
+        RecordingResolver(String name, Map<String, InetAddress> addresses) {
+            this.name = name;
+            this.addresses = addresses;
+        }
+
+        @Override
+        public Stream<InetAddress> lookupByName(String host, LookupPolicy _lookupPolicy) throws UnknownHostException {
+            lookups.add(name + ":" + host);
+            InetAddress address = addresses.get(host);
+            if (address == null) {
+                throw new UnknownHostException(host);
+            }
+            return Stream.of(address);
+        }
+
+        @Override
+        public String lookupByAddress(byte[] _addr) throws UnknownHostException {
+            throw new UnknownHostException();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The services benchmark traffic is sent to: an echo port for latency and a port that streams however many bytes are
+ * asked for, as an eight byte length, for throughput.
+ */
+final class BenchmarkTarget implements AutoCloseable {
+    private final ServerSocket echoSocket;
+    private final ServerSocket sourceSocket;
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "benchmark-target");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    BenchmarkTarget() throws IOException {
+        this.echoSocket = new ServerSocket(0, 1024, InetAddress.getLoopbackAddress());
+        this.sourceSocket = new ServerSocket(0, 1024, InetAddress.getLoopbackAddress());
+        executor.execute(() -> accept(echoSocket, BenchmarkTarget::echo));
+        executor.execute(() -> accept(sourceSocket, BenchmarkTarget::source));
+    }
+
+    int echoPort() {
+        return echoSocket.getLocalPort();
+    }
+
+    int sourcePort() {
+        return sourceSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        echoSocket.close();
+        sourceSocket.close();
+        executor.shutdownNow();
+    }
+
+    private void accept(ServerSocket serverSocket, Handler handler) {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                executor.execute(() -> {
+                    try (Socket connection = socket) {
+                        connection.setTcpNoDelay(true);
+                        handler.handle(connection.getInputStream(), connection.getOutputStream());
+                    } catch (IOException e) {
+                        // the client went away
+                    }
+                });
+            } catch (IOException e) {
+                // closed
+            }
+        }
+    }
+
+    private static void echo(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+    }
+
+    private static void source(InputStream in, OutputStream out) throws IOException {
+        long remaining = new DataInputStream(in).readLong();
+        byte[] buffer = new byte[64 * 1024];
+        while (remaining > 0) {
+            int length = (int) Math.min(buffer.length, remaining);
+            out.write(buffer, 0, length);
+            remaining -= length;
+        }
+    }
+
+    private interface Handler {
+        void handle(InputStream in, OutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Measures what the proxy hop costs: connect latency, request latency percentiles and bulk throughput when connecting
+ * directly, through the SOCKS proxy chosen by {@link DockerProxySelector}, through the HTTP proxy and through the
+ * {@link SocketChannelConnector}, at increasing concurrency. The proxy and target are local stand-ins, so the numbers
+ * show the overhead of the routing and the extra hop rather than of docker's networking.
+ *
+ * <p>Run with {@code ./gradlew :docker-proxy-rule-core:benchmark}, optionally passing
+ * {@code -PbenchmarkConcurrency=1,16,256}. The highest default concurrency opens a few thousand sockets at once, so
+ * may need a raised open file limit.
+ */
+public class ProxyBenchmark {
+    private static final String TARGET_HOST = "benchmark-target";
+    private static final List<Integer> CONCURRENCY = Splitter.on(',')
+            .trimResults()
+            .splitToList(System.getProperty("benchmark.concurrency", "1,8,64,512"))
+            .stream()
+            .map(Integer::valueOf)
+            .collect(Collectors.toList());
+    private static final Duration TIMEOUT = Duration.ofMinutes(1);
+    private static final int CONNECTS = 500;
+    private static final int ROUND_TRIPS = 20_000;
+    private static final int MIN_ROUND_TRIPS_PER_CONNECTION = 50;
+    private static final int WARM_UP_ROUND_TRIPS = 20;
+    private static final int MESSAGE_SIZE = 64;
+    private static final long BULK_BYTES = 256L * 1024 * 1024;
+    private static final long MIN_BULK_BYTES_PER_CONNECTION = 1024 * 1024;
+
+    private static BenchmarkTarget target;
+    private static StandInProxyServer proxy;
+    private static SocketChannelConnector connector;
+    private static List<Route> routes;
+
+    @BeforeClass
+    public static void beforeClass() throws IOException {
+        target = new BenchmarkTarget();
+        proxy = new StandInProxyServer();
+        DockerContainerInfo containerInfo = new TargetContainerInfo();
+        DockerProxySelector selector = new DockerProxySelector(
+                proxy.address(), Optional.of(proxy.address()), containerInfo, ProxySelector.getDefault(), false);
+        connector = new SocketChannelConnector(proxy.address(), containerInfo, DockerProxySettings.defaults());
+        routes = ImmutableList.of(
+                new Route("direct", false, port -> connect(Proxy.NO_PROXY, port)),
+                new Route("socks", true, port -> connect(select(selector, "socket", port), port)),
+                new Route("http-connect", true, port -> connect(select(selector, "http", port), port)),
+                new Route("nio-connector", true, ProxyBenchmark::connectChannel));
+    }
+
+    @AfterClass
+    public static void afterClass() throws IOException {
+        connector.close();
+        proxy.close();
+        target.close();
+    }
+
+    @Test
+    public void routesShouldOnlyUseTheProxyWhenExpected() throws Exception {
+        for (Route route : routes) {
+            long before = proxy.connections();
+            try (Socket socket = route.open(target.echoPort())) {
+                roundTrip(socket.getInputStream(), socket.getOutputStream(), new byte[MESSAGE_SIZE]);
+            }
+            assertThat(proxy.connections() - before).as(route.name).isEqualTo(route.proxied ? 1 : 0);
+        }
+    }
+
+    @Test
+    public void connectLatency() throws Exception {
+        printHeader("connect latency (us)", "p50", "p90", "p99", "connects/s");
+        for (Route route : routes) {
+            for (int concurrency : CONCURRENCY) {
+                int connectsPerThread = Math.max(2, CONNECTS / concurrency);
+                Result result = run(concurrency, () -> {
+                    long[] samples = new long[connectsPerThread];
+                    for (int i = 0; i < connectsPerThread; i++) {
+                        long start = System.nanoTime();
+                        Socket socket = route.open(target.echoPort());
+                        samples[i] = System.nanoTime() - start;
+                        socket.close();
+                    }
+                    return samples;
+                });
+                printRow(route, concurrency, result, result.samples.length / result.seconds());
+            }
+        }
+    }
+
+    @Test
+    public void requestLatency() throws Exception {
+        printHeader("request latency (us)", "p50", "p90", "p99", "requests/s");
+        for (Route route : routes) {
+            for (int concurrency : CONCURRENCY) {
+                int roundTripsPerThread = Math.max(MIN_ROUND_TRIPS_PER_CONNECTION, ROUND_TRIPS / concurrency);
+                Result result = run(concurrency, () -> {
+                    long[] samples = new long[roundTripsPerThread];
+                    byte[] message = new byte[MESSAGE_SIZE];
+                    try (Socket socket = route.open(target.echoPort())) {
+                        InputStream in = socket.getInputStream();
+                        OutputStream out = socket.getOutputStream();
+                        for (int i = 0; i < WARM_UP_ROUND_TRIPS; i++) {
+                            roundTrip(in, out, message);
+                        }
+                        for (int i = 0; i < roundTripsPerThread; i++) {
+                            long start = System.nanoTime();
+                            roundTrip(in, out, message);
+                            samples[i] = System.nanoTime() - start;
+                        }
+                    }
+                    return samples;
+                });
+                printRow(route, concurrency, result, result.samples.length / result.seconds());
+            }
+        }
+    }
+
+    @Test
+    public void bulkThroughput() throws Exception {
+        printHeader("bulk transfer (ms)", "p50", "p90", "p99", "MiB/s");
+        for (Route route : routes) {
+            for (int concurrency : CONCURRENCY) {
+                long bytesPerThread = Math.max(MIN_BULK_BYTES_PER_CONNECTION, BULK_BYTES / concurrency);
+                Result result = run(concurrency, () -> {
+                    long start = System.nanoTime();
+                    try (Socket socket = route.open(target.sourcePort())) {
+                        new DataOutputStream(socket.getOutputStream()).writeLong(bytesPerThread);
+                        byte[] buffer = new byte[64 * 1024];
+                        long received = 0;
+                        int read;
+                        while ((read = socket.getInputStream().read(buffer)) >= 0) {
+                            received += read;
+                        }
+                        assertThat(received).isEqualTo(bytesPerThread);
+                    }
+                    return new long[] {(System.nanoTime() - start) / 1000};
+                });
+                double mebibytes = (double) bytesPerThread * concurrency / (1024 * 1024);
+                printRow(route, concurrency, result, mebibytes / result.seconds());
+            }
+        }
+    }
+
+    private static Result run(int concurrency, Sampler sampler) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return sampler.sample();
+                }));
+            }
+            long startNanos = System.nanoTime();
+            start.countDown();
+            List<long[]> samples = new ArrayList<>();
+            for (Future<long[]> future : futures) {
+                samples.add(future.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+            }
+            return new Result(samples, System.nanoTime() - startNanos);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void roundTrip(InputStream in, OutputStream out, byte[] message) throws IOException {
+        out.write(message);
+        int received = 0;
+        while (received < message.length) {
+            int read = in.read(message, received, message.length - received);
+            if (read < 0) {
+                throw new IOException("Connection closed after " + received + " bytes");
+            }
+            received += read;
+        }
+    }
+
+    private static Proxy select(ProxySelector selector, String scheme, int port) {
+        return selector.select(URI.create(scheme + "://" + TargetContainerInfo.IP + ":" + port)).get(0);
+    }
+
+    private static Socket connect(Proxy route, int port) throws IOException {
+        Socket socket = new Socket(route);
+        socket.setTcpNoDelay(true);
+        socket.connect(new InetSocketAddress(InetAddress.getByName(TargetContainerInfo.IP), port));
+        return socket;
+    }
+
+    private static Socket connectChannel(int port) throws Exception {
+        SocketChannel channel = connector
+                .connect(InetSocketAddress.createUnresolved(TARGET_HOST, port), TIMEOUT)
+                .get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        channel.configureBlocking(true);
+        channel.socket().setTcpNoDelay(true);
+        return channel.socket();
+    }
+
+    private static void printHeader(String title, String... columns) {
+        System.out.printf("%n%-24s %11s", title, "concurrency");
+        Arrays.stream(columns).forEach(column -> System.out.printf(" %10s", column));
+        System.out.println();
+    }
+
+    private static void printRow(Route route, int concurrency, Result result, double rate) {
+        System.out.printf(
+                "%-24s %11d %10.1f %10.1f %10.1f %10.0f%n",
+                route.name,
+                concurrency,
+                result.percentile(0.5),
+                result.percentile(0.9),
+                result.percentile(0.99),
+                rate);
+    }
+
+    private interface Sampler {
+        long[] sample() throws Exception;
+    }
+
+    private interface Connector {
+        Socket open(int port) throws Exception;
+    }
+
+    private static final class Route {
+        private final String name;
+        private final boolean proxied;
+        private final Connector connector;
+
+        Route(String name, boolean proxied, Connector connector) {
+            this.name = name;
+            this.proxied = proxied;
+            this.connector = connector;
+        }
+
+        Socket open(int port) throws Exception {
+            return connector.open(port);
+        }
+    }
+
+    private static final class Result {
+        private final long[] samples;
+        private final long elapsedNanos;
+
+        Result(List<long[]> samples, long elapsedNanos) {
+            this.samples = samples.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        double seconds() {
+            return elapsedNanos / 1e9;
+        }
+
+        /**
+         * Returns the percentile in thousandths of the sample unit, microseconds for nanosecond samples.
+         */
+        double percentile(double percentile) {
+            int index = (int) Math.ceil(percentile * samples.length) - 1;
+            return samples[Math.max(0, index)] / 1000.0;
+        }
+    }
+
+    /**
+     * Pretends that the target is a container, so that the proxied routes send it through the stand-in proxy.
+     */
+    private static final class TargetContainerInfo implements DockerContainerInfo {
+        private static final String IP = "127.0.0.1";
+
+        @Override
+        public Optional<String> getIpForHost(String hostname) {
+            return hostname.equals(TARGET_HOST) ? Optional.of(IP) : Optional.empty();
+        }
+
+        @Override
+        public Optional<String> getHostForIp(String ip) {
+            return ip.equals(IP) ? Optional.of(TARGET_HOST) : Optional.empty();
+        }
+
+        @Override
+        public String getNetworkName() {
+            return "benchmark";
+        }
+
+        @Override
+        public Optional<String> getImageNameOverride() {
+            return Optional.empty();
+        }
+    }
+}
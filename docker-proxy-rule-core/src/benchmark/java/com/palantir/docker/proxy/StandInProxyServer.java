@@ -0,0 +1,173 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A stand-in for the proxy containers that speaks just enough SOCKS5 and HTTP CONNECT to relay benchmark traffic,
+ * with one thread per direction of every connection like dante's worker processes.
+ */
+final class StandInProxyServer implements AutoCloseable {
+    private static final int SOCKS_VERSION = 5;
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "stand-in-proxy");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong connections = new AtomicLong();
+
+    StandInProxyServer() throws IOException {
+        this.serverSocket = new ServerSocket(0, 1024, InetAddress.getLoopbackAddress());
+        executor.execute(this::accept);
+    }
+
+    InetSocketAddress address() {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+    }
+
+    /**
+     * The number of connections relayed so far, through either protocol.
+     */
+    long connections() {
+        return connections.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                executor.execute(() -> handle(client));
+            } catch (IOException e) {
+                // closed
+            }
+        }
+    }
+
+    private void handle(Socket client) {
+        try (Socket clientSocket = client) {
+            clientSocket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(clientSocket.getInputStream());
+            OutputStream out = clientSocket.getOutputStream();
+            int first = in.readUnsignedByte();
+            InetSocketAddress destination = first == SOCKS_VERSION ? socksHandshake(in, out) : httpConnect(first, in);
+            try (Socket upstream = new Socket()) {
+                upstream.setTcpNoDelay(true);
+                upstream.connect(destination);
+                if (first == SOCKS_VERSION) {
+                    out.write(new byte[] {SOCKS_VERSION, 0, 0, 1, 0, 0, 0, 0, 0, 0});
+                } else {
+                    out.write("HTTP/1.1 200 Connection established\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                }
+                connections.incrementAndGet();
+                relay(clientSocket, upstream);
+            }
+        } catch (IOException e) {
+            // the client or target went away
+        }
+    }
+
+    private static InetSocketAddress socksHandshake(DataInputStream in, OutputStream out) throws IOException {
+        in.readFully(new byte[in.readUnsignedByte()]);
+        out.write(new byte[] {SOCKS_VERSION, 0});
+
+        byte[] request = new byte[4];
+        in.readFully(request);
+        switch (request[3]) {
+            case 1:
+            case 4:
+                byte[] address = new byte[request[3] == 1 ? 4 : 16];
+                in.readFully(address);
+                return new InetSocketAddress(InetAddress.getByAddress(address), in.readUnsignedShort());
+            case 3:
+                byte[] host = new byte[in.readUnsignedByte()];
+                in.readFully(host);
+                return new InetSocketAddress(new String(host, StandardCharsets.US_ASCII), in.readUnsignedShort());
+            default:
+                throw new IOException("Unknown address type " + request[3]);
+        }
+    }
+
+    private static InetSocketAddress httpConnect(int first, InputStream in) throws IOException {
+        String requestLine = Character.toString((char) first) + readLine(in);
+        while (!readLine(in).isEmpty()) {
+            // skip the headers
+        }
+        String[] parts = requestLine.split(" ");
+        if (parts.length < 2 || !parts[0].equals("CONNECT")) {
+            throw new IOException("Only CONNECT is supported: " + requestLine);
+        }
+        int separator = parts[1].lastIndexOf(':');
+        return new InetSocketAddress(
+                parts[1].substring(0, separator), Integer.parseInt(parts[1].substring(separator + 1)));
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        // byte at a time so that nothing after the headers is consumed
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int next;
+        while ((next = in.read()) != '\n') {
+            if (next < 0) {
+                throw new IOException("Connection closed during CONNECT");
+            }
+            if (next != '\r') {
+                line.write(next);
+            }
+        }
+        return new String(line.toByteArray(), StandardCharsets.US_ASCII);
+    }
+
+    private void relay(Socket client, Socket upstream) throws IOException {
+        executor.execute(() -> copy(client, upstream));
+        copy(upstream, client);
+    }
+
+    private static void copy(Socket from, Socket to) {
+        byte[] buffer = new byte[64 * 1024];
+        try {
+            InputStream in = from.getInputStream();
+            OutputStream out = to.getOutputStream();
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+            }
+            to.shutdownOutput();
+        } catch (IOException e) {
+            // the other direction closes both sockets
+        }
+    }
+}
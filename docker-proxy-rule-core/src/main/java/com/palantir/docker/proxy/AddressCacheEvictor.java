@@ -0,0 +1,126 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.lang.reflect.Field;
+import java.net.InetAddress;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * AddressCacheEvictor removes container names whose IP changed from the cache {@link InetAddress} keeps of lookups.
+ * Otherwise the JDK keeps handing out a restarted container's previous IP for {@code networkaddress.cache.ttl}, and
+ * keeps failing lookups for a container that has only just started for {@code networkaddress.cache.negative.ttl}.
+ *
+ * <p>The cache is private to {@link InetAddress}, so like the name service on Java 9 to 20 this needs
+ * {@code java.base/java.net} to be opened, and does nothing if it isn't.
+ */
+final class AddressCacheEvictor implements Consumer<ContainerIndex> {
+    private static final Optional<Map<String, ?>> JDK_CACHE = findJdkCache();
+    private static final Optional<Set<?>> JDK_EXPIRY_SET = findJdkExpirySet();
+
+    private final Consumer<Set<String>> evict;
+
+    @GuardedBy("this")
+    private ContainerIndex previous = ContainerIndex.EMPTY;
+
+    AddressCacheEvictor() {
+        this(AddressCacheEvictor::evictFromJdkCache);
+    }
+
+    @VisibleForTesting
+    AddressCacheEvictor(Consumer<Set<String>> evict) {
+        this.evict = evict;
+    }
+
+    /**
+     * Returns whether the JDK's cache could be found, which depends on {@code java.base/java.net} being opened.
+     */
+    static boolean isSupported() {
+        return JDK_CACHE.isPresent();
+    }
+
+    /**
+     * Evicts every name that was added, removed or moved to another IP since the previous index. The first index
+     * evicts all of its names, since they may have been looked up before the containers started.
+     */
+    @Override
+    public synchronized void accept(ContainerIndex index) {
+        Set<String> changed = ContainerIndex.changedNames(previous, index);
+        previous = index;
+        if (!changed.isEmpty()) {
+            evict.accept(changed);
+        }
+    }
+
+    private static void evictFromJdkCache(Set<String> hostnames) {
+        JDK_CACHE.ifPresent(cache -> evict(cache, JDK_EXPIRY_SET, hostnames));
+    }
+
+    /**
+     * Removes the hostnames from the cache, and the removed entries from the set the JDK keeps them in ordered by
+     * expiry. Left there, evicted entries would only be dropped once they expire, which with
+     * {@code networkaddress.cache.ttl=-1} is never.
+     */
+    @VisibleForTesting
+    static void evict(Map<String, ?> cache, Optional<Set<?>> expirySet, Set<String> hostnames) {
+        // compared by identity, since lookups still in flight are cached too and can't be compared with the others
+        Set<Object> evicted = Collections.newSetFromMap(new IdentityHashMap<>());
+        // the JDK caches lookups by the hostname exactly as it was asked for
+        cache.entrySet().removeIf(entry -> {
+            if (!hostnames.contains(Hostnames.normalize(entry.getKey()))) {
+                return false;
+            }
+            evicted.add(entry.getValue());
+            return true;
+        });
+        // only the removed entries, a new lookup of the same name may have been cached since
+        if (!evicted.isEmpty()) {
+            expirySet.ifPresent(set -> set.removeIf(evicted::contains));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Optional<Map<String, ?>> findJdkCache() {
+        try {
+            // a ConcurrentMap keyed by hostname from Java 9 onwards, Java 8 has a differently shaped cache
+            Field cache = InetAddress.class.getDeclaredField("cache");
+            cache.setAccessible(true);
+            Object value = cache.get(null);
+            return value instanceof Map ? Optional.of((Map<String, ?>) value) : Optional.empty();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<Set<?>> findJdkExpirySet() {
+        try {
+            Field expirySet = InetAddress.class.getDeclaredField("expirySet");
+            expirySet.setAccessible(true);
+            Object value = expirySet.get(null);
+            return value instanceof Set ? Optional.of((Set<?>) value) : Optional.empty();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import java.time.Duration;
+
+/**
+ * Exponential backoff between attempts to check whether containers are ready, starting fast so that containers that
+ * are nearly ready are noticed quickly without hammering docker for ones that take a while.
+ */
+final class Backoff {
+    private static final Duration INITIAL_DELAY = Duration.ofMillis(50);
+    private static final Duration MAX_DELAY = Duration.ofSeconds(1);
+
+    private long nextDelayNanos = INITIAL_DELAY.toNanos();
+
+    /**
+     * Returns how long to wait before the next attempt.
+     */
+    long nextDelayNanos() {
+        long delayNanos = nextDelayNanos;
+        nextDelayNanos = Math.min(2 * nextDelayNanos, MAX_DELAY.toNanos());
+        return delayNanos;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import com.palantir.logsafe.Preconditions;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * CachePolicy controls how fresh the container information used to resolve hostnames is kept, trading freshness
+ * against load on docker.
+ *
+ * <p>The defaults match what docker-proxy-rule has always done: refresh every 53 seconds, consider information older
+ * than four refresh intervals unusable, and never remember that a lookup missed. Connections failing to a container
+ * refresh what is known about it at most once a second.
+ */
+public final class CachePolicy {
+    // It takes up to 1s to query docker so we set this to be under a multiple of 5, 10, and 15 by at least 2s
+    private static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofSeconds(53);
+    private static final CachePolicy DEFAULT = builder().build();
+
+    private final Duration refreshInterval;
+    private final Duration maxStaleness;
+    private final Duration negativeTtl;
+    private final long maxEntries;
+    private final Mode mode;
+    private final Duration connectFailureRefreshInterval;
+
+    private CachePolicy(
+            Duration refreshInterval,
+            Duration maxStaleness,
+            Duration negativeTtl,
+            long maxEntries,
+            Mode mode,
+            Duration connectFailureRefreshInterval) {
+        this.refreshInterval = refreshInterval;
+        this.maxStaleness = maxStaleness;
+        this.negativeTtl = negativeTtl;
+        this.maxEntries = maxEntries;
+        this.mode = mode;
+        this.connectFailureRefreshInterval = connectFailureRefreshInterval;
+    }
+
+    public static CachePolicy defaults() {
+        return DEFAULT;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * How often container information is refreshed in the background.
+     */
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    /**
+     * How old container information may get, for example while docker is failing to answer, before it is reloaded
+     * before use.
+     */
+    public Duration getMaxStaleness() {
+        return maxStaleness;
+    }
+
+    /**
+     * How long a lookup that found nothing is remembered. Until then the same lookup is answered without querying
+     * docker again, so this should be zero for suites that look up containers as soon as they start.
+     */
+    public Duration getNegativeTtl() {
+        return negativeTtl;
+    }
+
+    /**
+     * The maximum number of lookups remembered by each cache.
+     */
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * How often connections failing to the same container may refresh what is known about it, since a failed
+     * connection usually means the container restarted with a new IP. Zero never refreshes on connection failures.
+     */
+    public Duration getConnectFailureRefreshInterval() {
+        return connectFailureRefreshInterval;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        CachePolicy that = (CachePolicy) other;
+        return maxEntries == that.maxEntries
+                && refreshInterval.equals(that.refreshInterval)
+                && maxStaleness.equals(that.maxStaleness)
+                && negativeTtl.equals(that.negativeTtl)
+                && mode == that.mode
+                && connectFailureRefreshInterval.equals(that.connectFailureRefreshInterval);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+                refreshInterval, maxStaleness, negativeTtl, maxEntries, mode, connectFailureRefreshInterval);
+    }
+
+    @Override
+    public String toString() {
+        return "CachePolicy{refreshInterval=" + refreshInterval
+                + ", maxStaleness=" + maxStaleness
+                + ", negativeTtl=" + negativeTtl
+                + ", maxEntries=" + maxEntries
+                + ", mode=" + mode
+                + ", connectFailureRefreshInterval=" + connectFailureRefreshInterval
+                + '}';
+    }
+
+    public enum Mode {
+        /**
+         * Container information is refreshed every refresh interval, and whenever a lookup misses.
+         */
+        POLLING,
+        /**
+         * Container information is additionally refreshed as soon as docker reports that a container has started,
+         * stopped or moved between networks. The refresh interval acts as a backstop in case events are missed.
+         *
+         * <p>Only supported when looking up containers by project or network name, custom
+         * {@link DockerContainerInfo} implementations fall back to polling.
+         */
+        EVENTS
+    }
+
+    public static final class Builder {
+        private Duration refreshInterval = DEFAULT_REFRESH_INTERVAL;
+        private Optional<Duration> maxStaleness = Optional.empty();
+        private Duration negativeTtl = Duration.ZERO;
+        private long maxEntries = Long.MAX_VALUE;
+        private Mode mode = Mode.POLLING;
+        private Duration connectFailureRefreshInterval = Duration.ofSeconds(1);
+
+        private Builder() {}
+
+        public Builder refreshInterval(Duration value) {
+            this.refreshInterval = Preconditions.checkNotNull(value, "refreshInterval");
+            return this;
+        }
+
+        /**
+         * Defaults to four refresh intervals.
+         */
+        public Builder maxStaleness(Duration value) {
+            this.maxStaleness = Optional.of(Preconditions.checkNotNull(value, "maxStaleness"));
+            return this;
+        }
+
+        public Builder negativeTtl(Duration value) {
+            this.negativeTtl = Preconditions.checkNotNull(value, "negativeTtl");
+            return this;
+        }
+
+        public Builder maxEntries(long value) {
+            this.maxEntries = value;
+            return this;
+        }
+
+        public Builder mode(Mode value) {
+            this.mode = Preconditions.checkNotNull(value, "mode");
+            return this;
+        }
+
+        public Builder connectFailureRefreshInterval(Duration value) {
+            this.connectFailureRefreshInterval = Preconditions.checkNotNull(value, "connectFailureRefreshInterval");
+            return this;
+        }
+
+        public CachePolicy build() {
+            Duration staleness = maxStaleness.orElseGet(() -> refreshInterval.multipliedBy(4));
+            Preconditions.checkArgument(
+                    !refreshInterval.isNegative() && !refreshInterval.isZero(), "refreshInterval must be positive");
+            Preconditions.checkArgument(
+                    staleness.compareTo(refreshInterval) >= 0, "maxStaleness must be at least the refreshInterval");
+            Preconditions.checkArgument(!negativeTtl.isNegative(), "negativeTtl must not be negative");
+            Preconditions.checkArgument(maxEntries > 0, "maxEntries must be positive");
+            Preconditions.checkArgument(
+                    !connectFailureRefreshInterval.isNegative(), "connectFailureRefreshInterval must not be negative");
+            return new CachePolicy(
+                    refreshInterval, staleness, negativeTtl, maxEntries, mode, connectFailureRefreshInterval);
+        }
+    }
+}
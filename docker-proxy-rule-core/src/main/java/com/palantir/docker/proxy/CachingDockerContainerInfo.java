@@ -16,7 +16,7 @@
 
 package com.palantir.docker.proxy;
 
-import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -24,50 +24,73 @@ import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 /**
- * CachingDockerContainerInfo will cache and refresh container info. If the refresh
- * fails four times in a row, the entry will be removed and the next call will return
- * the exception to you if it happens again.
+ * CachingDockerContainerInfo will cache and refresh container info according to a {@link CachePolicy}. If the
+ * refresh keeps failing until the entry is older than the policy's maximum staleness, the entry will be removed and
+ * the next call will return the exception to you if it happens again.
  */
 @SuppressWarnings("checkstyle:BanGuavaCaches")
 public final class CachingDockerContainerInfo implements DockerContainerInfo {
     private final DockerContainerInfo delegate;
     private final LoadingCache<String, Optional<String>> ipForHostCache;
     private final LoadingCache<String, Optional<String>> hostForIpCache;
+    private final Cache<String, Boolean> missedHosts;
+    private final Cache<String, Boolean> missedIps;
+    private final Cache<String, Boolean> connectFailures;
+    private final boolean refreshOnConnectFailure;
 
     public CachingDockerContainerInfo(DockerContainerInfo delegate) {
-        // It takes up to 1s to query docker so we set this to be under a multiple of 5, 10, and 15 by at least 2s
-        this(delegate, 53, TimeUnit.SECONDS);
+        this(delegate, CachePolicy.defaults());
     }
 
-    @VisibleForTesting
-    CachingDockerContainerInfo(DockerContainerInfo delegate, long refreshDuration, TimeUnit refreshUnit) {
+    public CachingDockerContainerInfo(DockerContainerInfo delegate, CachePolicy policy) {
+        long refreshNanos = policy.getRefreshInterval().toNanos();
+        long expireNanos = policy.getMaxStaleness().toNanos();
         this.delegate = delegate;
         this.ipForHostCache = CacheBuilder.newBuilder()
-                .expireAfterWrite(4 * refreshDuration, refreshUnit)
-                .refreshAfterWrite(refreshDuration, refreshUnit)
+                .maximumSize(policy.getMaxEntries())
+                .expireAfterWrite(expireNanos, TimeUnit.NANOSECONDS)
+                .refreshAfterWrite(refreshNanos, TimeUnit.NANOSECONDS)
                 .build(CacheLoader.from(delegate::getIpForHost));
         this.hostForIpCache = CacheBuilder.newBuilder()
-                .expireAfterWrite(4 * refreshDuration, refreshUnit)
-                .refreshAfterWrite(refreshDuration / 4, refreshUnit)
+                .maximumSize(policy.getMaxEntries())
+                .expireAfterWrite(expireNanos, TimeUnit.NANOSECONDS)
+                .refreshAfterWrite(Math.max(1, refreshNanos / 4), TimeUnit.NANOSECONDS)
                 .build(CacheLoader.from(delegate::getHostForIp));
+        this.missedHosts = missCache(policy);
+        this.missedIps = missCache(policy);
+        this.connectFailures = CacheBuilder.newBuilder()
+                .maximumSize(policy.getMaxEntries())
+                .expireAfterWrite(policy.getConnectFailureRefreshInterval().toNanos(), TimeUnit.NANOSECONDS)
+                .build();
+        this.refreshOnConnectFailure = !policy.getConnectFailureRefreshInterval().isZero();
     }
 
     @Override
     public Optional<String> getIpForHost(String hostname) {
-        Optional<String> ip = ipForHostCache.getUnchecked(hostname);
-        if (!ip.isPresent()) {
-            ipForHostCache.invalidate(hostname);
-        }
-        return ip;
+        return lookup(ipForHostCache, missedHosts, hostname);
     }
 
     @Override
     public Optional<String> getHostForIp(String ip) {
-        Optional<String> host = hostForIpCache.getUnchecked(ip);
-        if (!host.isPresent()) {
-            hostForIpCache.invalidate(ip);
+        return lookup(hostForIpCache, missedIps, ip);
+    }
+
+    @Override
+    public Optional<Integer> getPublishedPort(String hostOrIp, int port) {
+        return delegate.getPublishedPort(hostOrIp, port);
+    }
+
+    /**
+     * Reloads the IP of the hostname before returning, unless it was reloaded because of a failure within the policy's
+     * connect failure refresh interval.
+     */
+    @Override
+    public void connectFailed(String hostOrIp) {
+        if (refreshOnConnectFailure
+                && ipForHostCache.getIfPresent(hostOrIp) != null
+                && connectFailures.asMap().putIfAbsent(hostOrIp, true) == null) {
+            ipForHostCache.refresh(hostOrIp);
         }
-        return host;
     }
 
     @Override
@@ -79,4 +102,25 @@ public final class CachingDockerContainerInfo implements DockerContainerInfo {
     public Optional<String> getImageNameOverride() {
         return delegate.getImageNameOverride();
     }
+
+    private static Optional<String> lookup(
+            LoadingCache<String, Optional<String>> cache, Cache<String, Boolean> misses, String key) {
+        if (misses.getIfPresent(key) != null) {
+            return Optional.empty();
+        }
+        Optional<String> value = cache.getUnchecked(key);
+        if (!value.isPresent()) {
+            cache.invalidate(key);
+            misses.put(key, true);
+        }
+        return value;
+    }
+
+    private static Cache<String, Boolean> missCache(CachePolicy policy) {
+        // a zero negative TTL keeps nothing, so every miss goes back to docker
+        return CacheBuilder.newBuilder()
+                .maximumSize(policy.getNegativeTtl().isZero() ? 0 : policy.getMaxEntries())
+                .expireAfterWrite(policy.getNegativeTtl().toNanos(), TimeUnit.NANOSECONDS)
+                .build();
+    }
 }
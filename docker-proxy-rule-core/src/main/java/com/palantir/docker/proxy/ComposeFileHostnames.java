@@ -0,0 +1,224 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import com.google.common.collect.ImmutableSet;
+import java.io.StringReader;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.SequenceNode;
+import org.yaml.snakeyaml.nodes.Tag;
+
+/**
+ * ComposeFileHostnames scans a docker compose file for every name its containers can be looked up by: service names,
+ * container names, {@code hostname}s and {@code domainname}s, {@code hostname} labels and network aliases.
+ *
+ * <p>The file is parsed into a YAML node graph, which resolves anchors and aliases, but isn't interpreted the way
+ * compose does. Anything that could add names that aren't written out, such as {@code extends}, merge keys or variable
+ * interpolation, or any value that isn't shaped the way compose expects, makes it give up rather than return an
+ * incomplete set.
+ */
+final class ComposeFileHostnames {
+    private final ImmutableSet<String> names;
+    private final ImmutableSet<String> domainnames;
+
+    private ComposeFileHostnames(Set<String> names, Set<String> domainnames) {
+        this.names = ImmutableSet.copyOf(names);
+        this.domainnames = ImmutableSet.copyOf(domainnames);
+    }
+
+    /**
+     * Returns the names declared in the compose file, or empty if the file can't be parsed or uses anything that could
+     * hide names.
+     */
+    static Optional<ComposeFileHostnames> scan(String contents) {
+        try {
+            Node root = new Yaml().compose(new StringReader(contents));
+            return Optional.of(new Scanner().scan(root));
+        } catch (YAMLException | UnsupportedSyntaxException e) {
+            return Optional.empty();
+        }
+    }
+
+    ImmutableSet<String> getNames() {
+        return names;
+    }
+
+    /**
+     * The {@code domainname}s of services, which containers without a {@code hostname} are also known by, appended to
+     * their generated hostname.
+     */
+    ImmutableSet<String> getDomainnames() {
+        return domainnames;
+    }
+
+    private static final class Scanner {
+        private final Set<String> names = new LinkedHashSet<>();
+        private final Set<String> domainnames = new LinkedHashSet<>();
+
+        @Nullable
+        private String serviceHostname;
+
+        @Nullable
+        private String serviceDomainname;
+
+        ComposeFileHostnames scan(@Nullable Node root) throws UnsupportedSyntaxException {
+            if (root != null && !isNull(root)) {
+                forEachEntry(root, (key, value) -> {
+                    if (key.equals("services")) {
+                        forEachEntry(value, this::scanService);
+                    }
+                });
+            }
+            return new ComposeFileHostnames(names, domainnames);
+        }
+
+        private void scanService(String service, Node properties) throws UnsupportedSyntaxException {
+            names.add(name(service));
+            serviceHostname = null;
+            serviceDomainname = null;
+            forEachEntry(properties, this::scanServiceProperty);
+            if (serviceHostname != null && serviceDomainname != null) {
+                names.add(serviceHostname + "." + serviceDomainname);
+            }
+        }
+
+        private void scanServiceProperty(String property, Node value) throws UnsupportedSyntaxException {
+            switch (property) {
+                case "extends":
+                    throw new UnsupportedSyntaxException();
+                case "container_name":
+                    names.add(scalar(value));
+                    return;
+                case "hostname":
+                    serviceHostname = scalar(value);
+                    names.add(serviceHostname);
+                    return;
+                case "domainname":
+                    serviceDomainname = scalar(value);
+                    domainnames.add(serviceDomainname);
+                    return;
+                case "labels":
+                    forEachLabel(value);
+                    return;
+                case "networks":
+                    // networks given as a sequence have no aliases
+                    if (!(value instanceof SequenceNode)) {
+                        forEachEntry(value, (_network, config) -> forEachEntry(config, this::scanNetworkProperty));
+                    }
+                    return;
+                default:
+                    // nothing else names the container
+            }
+        }
+
+        private void scanNetworkProperty(String property, Node value) throws UnsupportedSyntaxException {
+            if (property.equals("aliases")) {
+                for (Node alias : sequence(value)) {
+                    names.add(scalar(alias));
+                }
+            }
+        }
+
+        /**
+         * Labels are either a mapping or a sequence of {@code key=value} strings.
+         */
+        private void forEachLabel(Node labels) throws UnsupportedSyntaxException {
+            if (labels instanceof SequenceNode) {
+                for (Node label : ((SequenceNode) labels).getValue()) {
+                    String keyValue = scalar(label);
+                    if (keyValue.startsWith("hostname=")) {
+                        names.add(name(keyValue.substring("hostname=".length())));
+                    }
+                }
+                return;
+            }
+            forEachEntry(labels, (key, value) -> {
+                if (key.equals("hostname")) {
+                    names.add(scalar(value));
+                }
+            });
+        }
+
+        /**
+         * Visits the entries of a mapping, where an empty value counts as an empty mapping.
+         */
+        private static void forEachEntry(Node node, EntryVisitor visitor) throws UnsupportedSyntaxException {
+            if (isNull(node)) {
+                return;
+            }
+            if (!(node instanceof MappingNode)) {
+                throw new UnsupportedSyntaxException();
+            }
+            for (NodeTuple entry : ((MappingNode) node).getValue()) {
+                // merge keys would pull in entries compose resolves but this doesn't
+                if (entry.getKeyNode().getTag().equals(Tag.MERGE)) {
+                    throw new UnsupportedSyntaxException();
+                }
+                visitor.visit(rawScalar(entry.getKeyNode()), entry.getValueNode());
+            }
+        }
+
+        private static Iterable<Node> sequence(Node node) throws UnsupportedSyntaxException {
+            if (!(node instanceof SequenceNode)) {
+                throw new UnsupportedSyntaxException();
+            }
+            return ((SequenceNode) node).getValue();
+        }
+
+        private static String scalar(Node node) throws UnsupportedSyntaxException {
+            return name(rawScalar(node));
+        }
+
+        private static String rawScalar(Node node) throws UnsupportedSyntaxException {
+            if (!(node instanceof ScalarNode) || isNull(node)) {
+                throw new UnsupportedSyntaxException();
+            }
+            return ((ScalarNode) node).getValue();
+        }
+
+        private static String name(String value) throws UnsupportedSyntaxException {
+            // compose interpolates variables anywhere, so the name isn't known until it runs
+            if (value.isEmpty() || value.indexOf('$') >= 0) {
+                throw new UnsupportedSyntaxException();
+            }
+            return value;
+        }
+
+        private static boolean isNull(Node node) {
+            return node.getTag().equals(Tag.NULL);
+        }
+    }
+
+    private interface EntryVisitor {
+        void visit(String key, Node value) throws UnsupportedSyntaxException;
+    }
+
+    private static final class UnsupportedSyntaxException extends Exception {
+        UnsupportedSyntaxException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * ContainerChangeDispatcher compares each {@link ContainerIndex} with the one before it and tells every
+ * {@link ContainerChangeListener} about the hostnames whose IP changed. The first index is only remembered, since
+ * nothing can have been connected to before it.
+ */
+final class ContainerChangeDispatcher implements Consumer<ContainerIndex> {
+    private final Collection<ContainerChangeListener> listeners;
+
+    @Nullable
+    @GuardedBy("this")
+    private ContainerIndex previous;
+
+    /**
+     * The listeners are read on every update, so they may be added and removed later if the collection is concurrent.
+     */
+    ContainerChangeDispatcher(Collection<ContainerChangeListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    @Override
+    public synchronized void accept(ContainerIndex index) {
+        ContainerIndex before = previous;
+        previous = index;
+        if (before == null || listeners.isEmpty()) {
+            return;
+        }
+        for (String hostname : ContainerIndex.changedNames(before, index)) {
+            Optional<String> oldIp = Optional.ofNullable(before.getIpsByName().get(hostname));
+            Optional<String> newIp = Optional.ofNullable(index.getIpsByName().get(hostname));
+            for (ContainerChangeListener listener : listeners) {
+                try {
+                    listener.onContainerChanged(hostname, oldIp, newIp);
+                } catch (RuntimeException e) {
+                    // one failing listener must not keep the others from hearing about the change
+                }
+            }
+        }
+    }
+}
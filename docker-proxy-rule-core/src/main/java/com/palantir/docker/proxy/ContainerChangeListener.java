@@ -0,0 +1,38 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import java.util.Optional;
+
+/**
+ * Notified when the IP a container hostname resolves to changes, for example so that connection pools can drop
+ * connections to a container that has restarted rather than waiting for them to time out.
+ *
+ * <p>Changes are reported as the container index is refreshed, after lookups already return the new IP, on the thread
+ * that refreshed it. Listeners should return quickly and must not wait for other lookups.
+ */
+@FunctionalInterface
+public interface ContainerChangeListener {
+    /**
+     * Called once for every hostname whose IP changed.
+     *
+     * @param hostname the hostname, lowercased and without a trailing dot
+     * @param oldIp the IP the hostname used to resolve to, or empty if no running container had it
+     * @param newIp the IP the hostname now resolves to, or empty if no running container has it anymore
+     */
+    void onContainerChanged(String hostname, Optional<String> oldIp, Optional<String> newIp);
+}
@@ -0,0 +1,116 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * ContainerEventWatcher follows a {@link ContainerIndexSource}'s {@code docker events} stream on a daemon thread and
+ * runs a callback for every event. If the stream ends it is restarted after a short delay until the watcher is
+ * closed.
+ */
+final class ContainerEventWatcher implements AutoCloseable {
+    private static final Duration RESTART_DELAY = Duration.ofSeconds(1);
+
+    private final ContainerIndexSource source;
+    private final Runnable onEvent;
+    private final Thread thread;
+
+    @GuardedBy("this")
+    private boolean closed = false;
+
+    @Nullable
+    @GuardedBy("this")
+    private Process process;
+
+    private ContainerEventWatcher(ContainerIndexSource source, Runnable onEvent) {
+        this.source = source;
+        this.onEvent = onEvent;
+        this.thread = new Thread(this::watch, "docker-proxy-events-" + source.getIndexKey());
+        this.thread.setDaemon(true);
+    }
+
+    static ContainerEventWatcher start(ContainerIndexSource source, Runnable onEvent) {
+        ContainerEventWatcher watcher = new ContainerEventWatcher(source, onEvent);
+        watcher.thread.start();
+        return watcher;
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            if (process != null) {
+                process.destroy();
+            }
+        }
+        thread.interrupt();
+    }
+
+    private void watch() {
+        while (!isClosed()) {
+            try {
+                Optional<Process> started = startProcess();
+                if (!started.isPresent()) {
+                    return;
+                }
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(started.get().getInputStream(), StandardCharsets.UTF_8))) {
+                    while (reader.readLine() != null) {
+                        onEvent.run();
+                    }
+                } finally {
+                    started.get().destroy();
+                }
+            } catch (IOException | RuntimeException e) {
+                // docker may be restarting, keep trying while the watcher is open
+            }
+            if (!sleepBeforeRestart()) {
+                return;
+            }
+        }
+    }
+
+    private synchronized Optional<Process> startProcess() throws IOException {
+        if (closed) {
+            return Optional.empty();
+        }
+        Optional<Process> started = source.watchEvents();
+        process = started.orElse(null);
+        return started;
+    }
+
+    private synchronized boolean isClosed() {
+        return closed;
+    }
+
+    private static boolean sleepBeforeRestart() {
+        try {
+            Thread.sleep(RESTART_DELAY.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * An immutable snapshot of the containers visible to a {@link DockerContainerInfo}, indexed by container ID, name and
+ * IP. Names are looked up ignoring case and a trailing dot.
+ */
+final class ContainerIndex {
+    static final ContainerIndex EMPTY = new ContainerIndex(ImmutableMap.of());
+
+    private final ImmutableMap<String, IndexedContainer> containersById;
+    private final ImmutableMap<String, String> ipsByName;
+    private final ImmutableMap<String, String> containerIdsByIp;
+
+    private ContainerIndex(ImmutableMap<String, IndexedContainer> containersById) {
+        Map<String, String> ips = new LinkedHashMap<>();
+        Map<String, String> containerIds = new LinkedHashMap<>();
+        containersById.values().forEach(container -> container.getIp().ifPresent(ip -> {
+            container.getNames().forEach(name -> ips.putIfAbsent(Hostnames.normalize(name), ip));
+            containerIds.putIfAbsent(ip, container.getContainerId());
+        }));
+        this.containersById = containersById;
+        this.ipsByName = ImmutableMap.copyOf(ips);
+        this.containerIdsByIp = ImmutableMap.copyOf(containerIds);
+    }
+
+    static ContainerIndex of(Collection<IndexedContainer> containers) {
+        ImmutableMap.Builder<String, IndexedContainer> containersById = ImmutableMap.builder();
+        containers.forEach(container -> containersById.put(container.getContainerId(), container));
+        return new ContainerIndex(containersById.build());
+    }
+
+    Optional<IndexedContainer> getContainer(String containerId) {
+        return Optional.ofNullable(containersById.get(containerId));
+    }
+
+    ImmutableMap<String, IndexedContainer> getContainers() {
+        return containersById;
+    }
+
+    Optional<String> getIpForHost(String hostname) {
+        return Optional.ofNullable(ipsByName.get(Hostnames.normalize(hostname)));
+    }
+
+    /**
+     * Returns the IP that every name of a running container resolves to, keyed by the name in the form
+     * {@link Hostnames#normalize} gives it.
+     */
+    ImmutableMap<String, String> getIpsByName() {
+        return ipsByName;
+    }
+
+    /**
+     * Returns the names whose IP differs between the two indices, including names only one of them has.
+     */
+    static Set<String> changedNames(ContainerIndex previous, ContainerIndex current) {
+        return Sets.union(previous.ipsByName.keySet(), current.ipsByName.keySet()).stream()
+                .filter(name -> !Objects.equals(previous.ipsByName.get(name), current.ipsByName.get(name)))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Returns the host port that the given TCP port of the container with the given name or IP is published on.
+     */
+    Optional<Integer> getPublishedPort(String hostOrIp, int port) {
+        String ip = getIpForHost(hostOrIp).orElse(hostOrIp);
+        return Optional.ofNullable(containerIdsByIp.get(ip))
+                .map(containersById::get)
+                .map(container -> container.getPublishedPorts().get(port));
+    }
+
+    /**
+     * Returns the ID of the container with the given IP, which is what docker-proxy-rule has always used as the
+     * reverse lookup for container IPs.
+     */
+    Optional<String> getHostForIp(String ip) {
+        return Optional.ofNullable(containerIdsByIp.get(ip));
+    }
+
+    @Override
+    public String toString() {
+        return "ContainerIndex{" + containersById.values() + '}';
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * A {@link DockerContainerInfo} that can produce a complete {@link ContainerIndex}, which allows the index to be
+ * cached and shared instead of looking up hosts one at a time.
+ */
+interface ContainerIndexSource {
+    /**
+     * Queries docker for the current containers.
+     */
+    ContainerIndex refreshIndex();
+
+    /**
+     * Returns an index that is at most {@code maxAge} old. Sources that can share indices between processes may be
+     * able to do so without querying docker.
+     */
+    default ContainerIndex loadIndex(Duration maxAge) {
+        return refreshIndex();
+    }
+
+    /**
+     * Starts a {@code docker events} process that prints a line whenever the indexed containers may have changed, if
+     * this source supports watching for changes.
+     */
+    default Optional<Process> watchEvents() throws IOException {
+        return Optional.empty();
+    }
+
+    /**
+     * Returns whether any of the indexed containers could ever be known by this hostname. Lookups for hostnames that
+     * can't miss without querying docker.
+     */
+    default boolean mightResolve(String _hostname) {
+        return true;
+    }
+
+    /**
+     * Identifies the set of containers this source indexes. Sources with the same key may share an index.
+     */
+    String getIndexKey();
+}
@@ -0,0 +1,85 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.palantir.docker.compose.execution.DockerExecutable;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Builds {@link ContainerIndex} snapshots incrementally. Each refresh makes a single listing of the running containers
+ * along with the network endpoints they are attached through. Docker creates new endpoints every time a container
+ * starts, so only containers that are new or whose endpoints have changed are inspected for their names, IP and
+ * published ports; everything else is carried over from the previous snapshot and containers that have gone away are
+ * dropped. A steady-state refresh therefore costs the listing alone, however many containers there are.
+ */
+final class ContainerIndexer {
+    private final DockerExecutable docker;
+    private final Supplier<Map<String, String>> containerEndpointsSupplier;
+
+    @GuardedBy("this")
+    private ContainerIndex index = ContainerIndex.EMPTY;
+
+    @GuardedBy("this")
+    private Map<String, String> endpoints = ImmutableMap.of();
+
+    /**
+     * @param containerEndpointsSupplier lists the running containers, mapped to the endpoints they are attached through
+     */
+    ContainerIndexer(DockerExecutable docker, Supplier<Map<String, String>> containerEndpointsSupplier) {
+        this.docker = docker;
+        this.containerEndpointsSupplier = containerEndpointsSupplier;
+    }
+
+    synchronized ContainerIndex refresh() {
+        Map<String, String> listed = containerEndpointsSupplier.get();
+
+        Set<String> changedContainerIds = new LinkedHashSet<>();
+        listed.forEach((containerId, containerEndpoints) -> {
+            boolean unchanged = index.getContainer(containerId).isPresent()
+                    && containerEndpoints.equals(endpoints.get(containerId));
+            if (!unchanged) {
+                changedContainerIds.add(containerId);
+            }
+        });
+        Map<String, IndexedContainer> inspected =
+                DockerContainerInfoUtils.inspectContainers(docker, ImmutableList.copyOf(changedContainerIds));
+
+        List<IndexedContainer> containers = new ArrayList<>();
+        ImmutableMap.Builder<String, String> indexedEndpoints = ImmutableMap.builder();
+        listed.forEach((containerId, containerEndpoints) -> {
+            Optional<IndexedContainer> container = changedContainerIds.contains(containerId)
+                    ? Optional.ofNullable(inspected.get(containerId))
+                    : index.getContainer(containerId);
+            container.ifPresent(present -> {
+                containers.add(present);
+                indexedEndpoints.put(containerId, containerEndpoints);
+            });
+        });
+        index = ContainerIndex.of(containers);
+        endpoints = indexedEndpoints.build();
+        return index;
+    }
+}
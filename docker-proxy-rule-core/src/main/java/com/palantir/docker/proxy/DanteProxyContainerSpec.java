@@ -0,0 +1,55 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import java.util.List;
+
+/**
+ * Runs dante with a {@code sockd.conf} generated from a {@link SocksProxyConfig}.
+ */
+final class DanteProxyContainerSpec implements ProxyContainerSpec {
+    private final SocksProxyConfig config;
+
+    DanteProxyContainerSpec(SocksProxyConfig config) {
+        this.config = config;
+    }
+
+    @Override
+    public String getImage() {
+        return "vimagick/dante:latest";
+    }
+
+    @Override
+    public int getPort() {
+        return SocksProxyConfig.PORT;
+    }
+
+    @Override
+    public String renderCommand() {
+        return config.composeCommand();
+    }
+
+    @Override
+    public List<String> renderServiceOptions() {
+        return config.composeResourceLimits();
+    }
+
+    @Override
+    public String toString() {
+        return "DanteProxyContainerSpec{config=" + config + '}';
+    }
+}
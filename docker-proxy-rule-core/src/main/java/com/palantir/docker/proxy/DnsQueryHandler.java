@@ -0,0 +1,282 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import com.google.common.base.Splitter;
+import com.google.common.primitives.Ints;
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * DnsQueryHandler answers DNS queries for container names from a {@link DockerNameService}: A and AAAA queries with
+ * the container's addresses and PTR queries for container IPs with the container's ID. Any other query about a
+ * container name gets an empty answer, while queries about other names are left for the caller to forward or refuse.
+ *
+ * <p>Only containers that are already known are answered for, since most queries are about other names and a miss
+ * must not send docker looking for them.
+ */
+final class DnsQueryHandler {
+    static final int HEADER_SIZE = 12;
+    static final int FORMERR = 1;
+    static final int SERVFAIL = 2;
+    static final int NOTIMP = 4;
+    static final int REFUSED = 5;
+
+    private static final int NOERROR = 0;
+    private static final int TYPE_A = 1;
+    private static final int TYPE_PTR = 12;
+    private static final int TYPE_AAAA = 28;
+    private static final int CLASS_IN = 1;
+    private static final int TTL_SECONDS = 1;
+    private static final int FLAG_RESPONSE = 0x8000;
+    private static final int FLAG_AUTHORITATIVE = 0x0400;
+    private static final int FLAG_TRUNCATED = 0x0200;
+    private static final int FLAG_RECURSION_DESIRED = 0x0100;
+    private static final int OPCODE_MASK = 0x7800;
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final int MAX_LABEL_LENGTH = 63;
+    private static final int CONTAINER_ID_LENGTH = 64;
+    private static final int SHORT_CONTAINER_ID_LENGTH = 12;
+    private static final String IPV4_REVERSE_DOMAIN = ".in-addr.arpa";
+    private static final String IPV6_REVERSE_DOMAIN = ".ip6.arpa";
+    private static final Splitter LABEL_SPLITTER = Splitter.on('.');
+
+    private final DockerNameService nameService;
+
+    DnsQueryHandler(DockerNameService nameService) {
+        this.nameService = nameService;
+    }
+
+    /**
+     * Returns the response to the query, or empty if it is about a name that isn't a container's.
+     */
+    Optional<byte[]> answer(byte[] query) {
+        Optional<Question> parsed = Question.parse(query);
+        if (!parsed.isPresent()) {
+            return Optional.of(error(query, FORMERR));
+        }
+        if ((flags(query) & OPCODE_MASK) != 0) {
+            return Optional.of(error(query, NOTIMP));
+        }
+        Question question = parsed.get();
+        if (question.qclass != CLASS_IN) {
+            return Optional.empty();
+        }
+        return question.type == TYPE_PTR ? answerPointer(query, question) : answerAddresses(query, question);
+    }
+
+    /**
+     * Returns a response carrying only the given error code.
+     */
+    static byte[] error(byte[] query, int rcode) {
+        Optional<Question> question = Question.parse(query);
+        int length = question.map(parsed -> parsed.end).orElse(HEADER_SIZE);
+        ByteBuffer response = ByteBuffer.allocate(length);
+        response.putShort(id(query));
+        response.putShort((short) (FLAG_RESPONSE | (flags(query) & (OPCODE_MASK | FLAG_RECURSION_DESIRED)) | rcode));
+        response.putShort((short) (question.isPresent() ? 1 : 0));
+        response.putShort((short) 0);
+        response.putShort((short) 0);
+        response.putShort((short) 0);
+        response.put(query, HEADER_SIZE, length - HEADER_SIZE);
+        return response.array();
+    }
+
+    /**
+     * Cuts a response down to its header and question and marks it truncated, so that the client retries over TCP.
+     */
+    static byte[] truncate(byte[] response) {
+        int length = Question.parse(response).map(parsed -> parsed.end).orElse(HEADER_SIZE);
+        ByteBuffer truncated = ByteBuffer.wrap(Arrays.copyOf(response, length));
+        truncated.putShort(2, (short) (flags(response) | FLAG_TRUNCATED));
+        for (int section = 6; section < HEADER_SIZE; section += 2) {
+            truncated.putShort(section, (short) 0);
+        }
+        return truncated.array();
+    }
+
+    private Optional<byte[]> answerAddresses(byte[] query, Question question) {
+        InetAddress[] addresses;
+        try {
+            addresses = nameService.lookupKnownHostAddr(question.name);
+        } catch (UnknownHostException e) {
+            return Optional.empty();
+        }
+        // other types of query about a container name have no answer rather than being forwarded
+        List<byte[]> records = Arrays.stream(addresses)
+                .filter(address -> (question.type == TYPE_A && address instanceof Inet4Address)
+                        || (question.type == TYPE_AAAA && address instanceof Inet6Address))
+                .map(InetAddress::getAddress)
+                .collect(Collectors.toList());
+        return Optional.of(response(query, question, records));
+    }
+
+    private Optional<byte[]> answerPointer(byte[] query, Question question) {
+        Optional<byte[]> address = reverseAddress(question.name);
+        if (!address.isPresent()) {
+            return Optional.empty();
+        }
+        String host;
+        try {
+            host = nameService.getKnownHostByAddr(address.get());
+        } catch (UnknownHostException e) {
+            return Optional.empty();
+        }
+        // container IDs are longer than a DNS label may be, and docker's short form names the container too
+        String name = host.length() == CONTAINER_ID_LENGTH && host.indexOf('.') < 0
+                ? host.substring(0, SHORT_CONTAINER_ID_LENGTH)
+                : host;
+        return encodeName(name).map(rdata -> response(query, question, Arrays.asList(rdata)));
+    }
+
+    private static byte[] response(byte[] query, Question question, List<byte[]> records) {
+        int length = question.end;
+        for (byte[] rdata : records) {
+            length += 12 + rdata.length;
+        }
+        ByteBuffer response = ByteBuffer.allocate(length);
+        response.putShort(id(query));
+        response.putShort(
+                (short) (FLAG_RESPONSE | FLAG_AUTHORITATIVE | (flags(query) & FLAG_RECURSION_DESIRED) | NOERROR));
+        response.putShort((short) 1);
+        response.putShort((short) records.size());
+        response.putShort((short) 0);
+        response.putShort((short) 0);
+        response.put(query, HEADER_SIZE, question.end - HEADER_SIZE);
+        for (byte[] rdata : records) {
+            // a pointer to the name in the question
+            response.putShort((short) (0xC000 | HEADER_SIZE));
+            response.putShort((short) question.type);
+            response.putShort((short) CLASS_IN);
+            response.putInt(TTL_SECONDS);
+            response.putShort((short) rdata.length);
+            response.put(rdata);
+        }
+        return response.array();
+    }
+
+    private static Optional<byte[]> reverseAddress(String name) {
+        String lowerCase = Hostnames.normalize(name);
+        if (lowerCase.endsWith(IPV4_REVERSE_DOMAIN)) {
+            List<String> octets = LABEL_SPLITTER.splitToList(
+                    lowerCase.substring(0, lowerCase.length() - IPV4_REVERSE_DOMAIN.length()));
+            return reverseLabels(octets, 4, 10, 255);
+        }
+        if (lowerCase.endsWith(IPV6_REVERSE_DOMAIN)) {
+            List<String> nibbles = LABEL_SPLITTER.splitToList(
+                    lowerCase.substring(0, lowerCase.length() - IPV6_REVERSE_DOMAIN.length()));
+            Optional<byte[]> reversed = reverseLabels(nibbles, 32, 16, 15);
+            return reversed.map(DnsQueryHandler::packNibbles);
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<byte[]> reverseLabels(List<String> labels, int count, int radix, int max) {
+        if (labels.size() != count) {
+            return Optional.empty();
+        }
+        byte[] values = new byte[count];
+        for (int i = 0; i < count; i++) {
+            String label = labels.get(count - 1 - i);
+            Integer value = label.length() > 3 || label.isEmpty() ? null : Ints.tryParse(label, radix);
+            if (value == null || value < 0 || value > max) {
+                return Optional.empty();
+            }
+            values[i] = (byte) value.intValue();
+        }
+        return Optional.of(values);
+    }
+
+    private static byte[] packNibbles(byte[] nibbles) {
+        byte[] bytes = new byte[nibbles.length / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) ((nibbles[2 * i] << 4) | nibbles[2 * i + 1]);
+        }
+        return bytes;
+    }
+
+    private static Optional<byte[]> encodeName(String name) {
+        ByteBuffer encoded = ByteBuffer.allocate(MAX_NAME_LENGTH);
+        for (String label : LABEL_SPLITTER.omitEmptyStrings().split(name)) {
+            byte[] bytes = label.getBytes(StandardCharsets.US_ASCII);
+            if (bytes.length > MAX_LABEL_LENGTH || encoded.remaining() < bytes.length + 2) {
+                return Optional.empty();
+            }
+            encoded.put((byte) bytes.length);
+            encoded.put(bytes);
+        }
+        encoded.put((byte) 0);
+        return Optional.of(Arrays.copyOf(encoded.array(), encoded.position()));
+    }
+
+    private static short id(byte[] message) {
+        return (short) (((message[0] & 0xFF) << 8) | (message[1] & 0xFF));
+    }
+
+    private static int flags(byte[] message) {
+        return ((message[2] & 0xFF) << 8) | (message[3] & 0xFF);
+    }
+
+    private static final class Question {
+        private final String name;
+        private final int type;
+        private final int qclass;
+        private final int end;
+
+        private Question(String name, int type, int qclass, int end) {
+            this.name = name;
+            this.type = type;
+            this.qclass = qclass;
+            this.end = end;
+        }
+
+        static Optional<Question> parse(byte[] message) {
+            if (message.length < HEADER_SIZE || ((message[4] & 0xFF) << 8 | (message[5] & 0xFF)) != 1) {
+                return Optional.empty();
+            }
+            StringBuilder name = new StringBuilder();
+            int offset = HEADER_SIZE;
+            while (offset < message.length && message[offset] != 0) {
+                int length = message[offset] & 0xFF;
+                // compression pointers and extended labels never appear in the question of a query
+                if (length > MAX_LABEL_LENGTH || offset + 1 + length > message.length) {
+                    return Optional.empty();
+                }
+                if (name.length() > 0) {
+                    name.append('.');
+                }
+                name.append(new String(message, offset + 1, length, StandardCharsets.US_ASCII));
+                offset += 1 + length;
+            }
+            int end = offset + 5;
+            if (end > message.length || name.length() > MAX_NAME_LENGTH) {
+                return Optional.empty();
+            }
+            int type = (message[offset + 1] & 0xFF) << 8 | (message[offset + 2] & 0xFF);
+            int qclass = (message[offset + 3] & 0xFF) << 8 | (message[offset + 4] & 0xFF);
+            return Optional.of(new Question(name.toString(), type, qclass, end));
+        }
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.BindException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DnsResponder serves container names over DNS on a loopback port, over both UDP and TCP, so that processes other
+ * than this JVM, such as forked JVMs, command line tools and browsers, can resolve containers from the same container
+ * index. Queries about other names are forwarded to an upstream DNS server if one is configured and refused otherwise.
+ *
+ * <p>Each query is answered on a pooled daemon thread, since forwarding it waits for the upstream server. Queries that
+ * arrive while the pool and its queue are full are dropped, and clients retry them as they would with a lost packet.
+ */
+final class DnsResponder implements Closeable {
+    private static final int MAX_UDP_RESPONSE_SIZE = 512;
+    private static final int MAX_MESSAGE_SIZE = 65535;
+    private static final int BIND_ATTEMPTS = 10;
+    private static final Duration UPSTREAM_TIMEOUT = Duration.ofSeconds(2);
+    private static final Duration TCP_IDLE_TIMEOUT = Duration.ofSeconds(10);
+    private static final int MAX_THREADS = 16;
+    private static final int MAX_QUEUED_QUERIES = 1024;
+
+    private final DnsQueryHandler handler;
+    private final Optional<InetSocketAddress> upstream;
+    private final DatagramSocket udpSocket;
+    private final ServerSocket tcpSocket;
+    private final ExecutorService executor;
+
+    private DnsResponder(
+            DnsQueryHandler handler,
+            Optional<InetSocketAddress> upstream,
+            DatagramSocket udpSocket,
+            ServerSocket tcpSocket) {
+        this.handler = handler;
+        this.upstream = upstream;
+        this.udpSocket = udpSocket;
+        this.tcpSocket = tcpSocket;
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                MAX_THREADS,
+                MAX_THREADS,
+                1,
+                TimeUnit.MINUTES,
+                new ArrayBlockingQueue<>(MAX_QUEUED_QUERIES),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("docker-proxy-dns-%d")
+                        .setDaemon(true)
+                        .build());
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+    }
+
+    /**
+     * Starts answering queries on the given loopback port, or on a free port if it is zero.
+     */
+    static DnsResponder start(DockerNameService nameService, int port, Optional<InetSocketAddress> upstream)
+            throws IOException {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        for (int attempt = 1; ; attempt++) {
+            DatagramSocket udpSocket = new DatagramSocket(new InetSocketAddress(loopback, port));
+            ServerSocket tcpSocket = new ServerSocket();
+            try {
+                // a free UDP port may be taken for TCP, in which case another free port is tried
+                tcpSocket.bind(new InetSocketAddress(loopback, udpSocket.getLocalPort()));
+            } catch (BindException e) {
+                udpSocket.close();
+                tcpSocket.close();
+                if (port != 0 || attempt == BIND_ATTEMPTS) {
+                    throw e;
+                }
+                continue;
+            }
+            DnsResponder responder =
+                    new DnsResponder(new DnsQueryHandler(nameService), upstream, udpSocket, tcpSocket);
+            responder.startThread("docker-proxy-dns-udp", responder::serveUdp);
+            responder.startThread("docker-proxy-dns-tcp", responder::serveTcp);
+            return responder;
+        }
+    }
+
+    InetSocketAddress getAddress() {
+        return new InetSocketAddress(udpSocket.getLocalAddress(), udpSocket.getLocalPort());
+    }
+
+    @Override
+    public void close() throws IOException {
+        udpSocket.close();
+        try {
+            tcpSocket.close();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void startThread(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void serveUdp() {
+        byte[] buffer = new byte[MAX_MESSAGE_SIZE];
+        while (!udpSocket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                udpSocket.receive(packet);
+            } catch (IOException e) {
+                // the socket has been closed, or the packet was unreadable
+                continue;
+            }
+            byte[] query = Arrays.copyOf(packet.getData(), packet.getLength());
+            SocketAddress client = packet.getSocketAddress();
+            // a query that doesn't fit in the queue is dropped, as if the packet had been lost
+            if (!submit(() -> respondOverUdp(query, client)) && executor.isShutdown()) {
+                return;
+            }
+        }
+    }
+
+    private void serveTcp() {
+        while (!tcpSocket.isClosed()) {
+            Socket client;
+            try {
+                client = tcpSocket.accept();
+            } catch (IOException e) {
+                continue;
+            }
+            if (!submit(() -> respondOverTcp(client))) {
+                closeQuietly(client);
+                if (executor.isShutdown()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean submit(Runnable task) {
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private void respondOverUdp(byte[] query, SocketAddress client) {
+        Optional<byte[]> response = respond(query, false);
+        if (!response.isPresent()) {
+            return;
+        }
+        byte[] datagram = response.get().length > MAX_UDP_RESPONSE_SIZE
+                ? DnsQueryHandler.truncate(response.get())
+                : response.get();
+        try {
+            udpSocket.send(new DatagramPacket(datagram, datagram.length, client));
+        } catch (IOException e) {
+            // the client will retry
+        }
+    }
+
+    private void respondOverTcp(Socket client) {
+        try (Socket socket = client;
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream())) {
+            socket.setSoTimeout((int) TCP_IDLE_TIMEOUT.toMillis());
+            while (true) {
+                byte[] query = new byte[in.readUnsignedShort()];
+                in.readFully(query);
+                Optional<byte[]> response = respond(query, true);
+                if (response.isPresent()) {
+                    out.writeShort(response.get().length);
+                    out.write(response.get());
+                    out.flush();
+                }
+            }
+        } catch (EOFException | SocketTimeoutException e) {
+            // the client is done with the connection
+        } catch (IOException e) {
+            // the client went away
+        }
+    }
+
+    private Optional<byte[]> respond(byte[] query, boolean overTcp) {
+        if (query.length < DnsQueryHandler.HEADER_SIZE) {
+            return Optional.empty();
+        }
+        Optional<byte[]> answer = handler.answer(query);
+        if (answer.isPresent()) {
+            return answer;
+        }
+        if (!upstream.isPresent()) {
+            return Optional.of(DnsQueryHandler.error(query, DnsQueryHandler.REFUSED));
+        }
+        try {
+            return Optional.of(overTcp ? forwardOverTcp(query, upstream.get()) : forwardOverUdp(query, upstream.get()));
+        } catch (IOException e) {
+            return Optional.of(DnsQueryHandler.error(query, DnsQueryHandler.SERVFAIL));
+        }
+    }
+
+    private static byte[] forwardOverUdp(byte[] query, InetSocketAddress server) throws IOException {
+        try (DatagramSocket socket = new DatagramSocket()) {
+            socket.setSoTimeout((int) UPSTREAM_TIMEOUT.toMillis());
+            socket.send(new DatagramPacket(query, query.length, server));
+            byte[] buffer = new byte[MAX_MESSAGE_SIZE];
+            while (true) {
+                DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                socket.receive(packet);
+                // ignore stray datagrams that don't answer this query
+                if (packet.getLength() >= 2 && buffer[0] == query[0] && buffer[1] == query[1]) {
+                    return Arrays.copyOf(buffer, packet.getLength());
+                }
+            }
+        }
+    }
+
+    private static byte[] forwardOverTcp(byte[] query, InetSocketAddress server) throws IOException {
+        // the upstream server is reached directly, whatever the default ProxySelector says
+        try (Socket socket = new Socket(Proxy.NO_PROXY)) {
+            socket.connect(server, (int) UPSTREAM_TIMEOUT.toMillis());
+            socket.setSoTimeout((int) UPSTREAM_TIMEOUT.toMillis());
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeShort(query.length);
+            out.write(query);
+            out.flush();
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            byte[] response = new byte[in.readUnsignedShort()];
+            in.readFully(response);
+            return response;
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // nothing left to do
+        }
+    }
+}
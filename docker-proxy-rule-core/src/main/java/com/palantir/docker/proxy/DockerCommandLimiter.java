@@ -0,0 +1,192 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DockerCommandLimiter bounds how many docker CLI processes run at once. Callers beyond the limit queue up fairly
+ * and give up once their deadline passes, so a burst of cache misses degrades into a queue instead of hundreds of
+ * concurrent processes that all time out together.
+ *
+ * <p>The JVM-wide limit defaults to {@value #DEFAULT_MAX_CONCURRENT_COMMANDS} and can be changed with the
+ * {@value #MAX_CONCURRENT_COMMANDS_PROPERTY} system property.
+ */
+public final class DockerCommandLimiter {
+    public static final String MAX_CONCURRENT_COMMANDS_PROPERTY =
+            "com.palantir.docker.proxy.maxConcurrentDockerCommands";
+    public static final int DEFAULT_MAX_CONCURRENT_COMMANDS = 8;
+
+    private static final DockerCommandLimiter GLOBAL = new DockerCommandLimiter(
+            Integer.getInteger(MAX_CONCURRENT_COMMANDS_PROPERTY, DEFAULT_MAX_CONCURRENT_COMMANDS));
+
+    private final int maxConcurrentCommands;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    @VisibleForTesting
+    DockerCommandLimiter(int maxConcurrentCommands) {
+        if (maxConcurrentCommands < 1) {
+            throw new IllegalArgumentException("maxConcurrentCommands must be positive: " + maxConcurrentCommands);
+        }
+        this.maxConcurrentCommands = maxConcurrentCommands;
+        this.permits = new Semaphore(maxConcurrentCommands, true);
+    }
+
+    /**
+     * Returns the limiter shared by every docker command run by docker-proxy-rule in this JVM.
+     */
+    public static DockerCommandLimiter global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Runs the command once a slot is free. The deadline covers both the time spent queueing and the time the
+     * command is given to run.
+     */
+    <T> T run(Duration deadline, Command<T> command) throws IOException, InterruptedException {
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        long queuedAt = System.nanoTime();
+        queued.incrementAndGet();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(deadline.toNanos(), TimeUnit.NANOSECONDS);
+        } finally {
+            queued.decrementAndGet();
+        }
+        long waitNanos = System.nanoTime() - queuedAt;
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+
+        if (!acquired) {
+            timedOut.increment();
+            throw new IllegalStateException("Timed out after " + deadline + " waiting to run a docker command, "
+                    + maxConcurrentCommands + " already running");
+        }
+        try {
+            return command.run(Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime())));
+        } finally {
+            permits.release();
+            completed.increment();
+        }
+    }
+
+    public Metrics metrics() {
+        return new Metrics(
+                maxConcurrentCommands,
+                maxConcurrentCommands - permits.availablePermits(),
+                queued.get(),
+                completed.sum(),
+                timedOut.sum(),
+                Duration.ofNanos(totalWaitNanos.sum()),
+                Duration.ofNanos(maxWaitNanos.get()));
+    }
+
+    interface Command<T> {
+        T run(Duration remaining) throws IOException, InterruptedException;
+    }
+
+    /**
+     * A point in time view of a {@link DockerCommandLimiter}.
+     */
+    public static final class Metrics {
+        private final int maxConcurrentCommands;
+        private final int runningCommands;
+        private final int queueDepth;
+        private final long completedCommands;
+        private final long timedOutCommands;
+        private final Duration totalWaitTime;
+        private final Duration maxWaitTime;
+
+        Metrics(
+                int maxConcurrentCommands,
+                int runningCommands,
+                int queueDepth,
+                long completedCommands,
+                long timedOutCommands,
+                Duration totalWaitTime,
+                Duration maxWaitTime) {
+            this.maxConcurrentCommands = maxConcurrentCommands;
+            this.runningCommands = runningCommands;
+            this.queueDepth = queueDepth;
+            this.completedCommands = completedCommands;
+            this.timedOutCommands = timedOutCommands;
+            this.totalWaitTime = totalWaitTime;
+            this.maxWaitTime = maxWaitTime;
+        }
+
+        public int getMaxConcurrentCommands() {
+            return maxConcurrentCommands;
+        }
+
+        public int getRunningCommands() {
+            return runningCommands;
+        }
+
+        /**
+         * Returns the number of callers currently waiting for a slot.
+         */
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        public long getCompletedCommands() {
+            return completedCommands;
+        }
+
+        /**
+         * Returns the number of callers that gave up because their deadline passed before a slot was free.
+         */
+        public long getTimedOutCommands() {
+            return timedOutCommands;
+        }
+
+        /**
+         * Returns the time all callers have spent waiting for a slot.
+         */
+        public Duration getTotalWaitTime() {
+            return totalWaitTime;
+        }
+
+        public Duration getMaxWaitTime() {
+            return maxWaitTime;
+        }
+
+        @Override
+        public String toString() {
+            return "Metrics{maxConcurrentCommands=" + maxConcurrentCommands
+                    + ", runningCommands=" + runningCommands
+                    + ", queueDepth=" + queueDepth
+                    + ", completedCommands=" + completedCommands
+                    + ", timedOutCommands=" + timedOutCommands
+                    + ", totalWaitTime=" + totalWaitTime
+                    + ", maxWaitTime=" + maxWaitTime
+                    + '}';
+        }
+    }
+}
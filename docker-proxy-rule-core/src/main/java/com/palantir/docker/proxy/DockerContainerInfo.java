@@ -35,6 +35,25 @@ public interface DockerContainerInfo {
      */
     Optional<String> getHostForIp(String ip);
 
+    /**
+     * Converts a docker hostname to a docker IP if it is already known, without asking docker again when it isn't. For
+     * callers that mostly look up names that aren't containers', where a miss is the usual answer.
+     *
+     * @param hostname The docker hostname to lookup
+     */
+    default Optional<String> getKnownIpForHost(String hostname) {
+        return getIpForHost(hostname);
+    }
+
+    /**
+     * Converts a docker IP to a docker hostname if it is already known, without asking docker again when it isn't.
+     *
+     * @param ip The docker ip to lookup
+     */
+    default Optional<String> getKnownHostForIp(String ip) {
+        return getHostForIp(ip);
+    }
+
     /**
      * Returns the network name the proxy will connect to.
      *
@@ -47,4 +66,22 @@ public interface DockerContainerInfo {
      * otherwise `vimagick/dante:latest` will get used.
      */
     Optional<String> getImageNameOverride();
+
+    /**
+     * Returns the port on the docker host that a container's TCP port is published on, if it is published.
+     *
+     * @param hostOrIp The docker hostname or IP of the container
+     * @param port The port inside the container
+     */
+    default Optional<Integer> getPublishedPort(String hostOrIp, int port) {
+        return Optional.empty();
+    }
+
+    /**
+     * Reports that connecting to a container failed, which usually means it restarted with a new IP. Implementations
+     * that cache should refresh what they know about the container so that the next lookup finds its current IP.
+     *
+     * @param hostOrIp The docker hostname or IP of the container
+     */
+    default void connectFailed(String hostOrIp) {}
 }
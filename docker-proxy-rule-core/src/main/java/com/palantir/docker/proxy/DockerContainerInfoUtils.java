@@ -22,65 +22,213 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.io.CharStreams;
 import com.google.common.net.InetAddresses;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.palantir.docker.compose.configuration.ProjectName;
 import com.palantir.docker.compose.execution.DockerExecutable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 import one.util.streamex.StreamEx;
 
 public final class DockerContainerInfoUtils {
     private static final ImmutableList<String> DOCKER_NAME_TAGS = ImmutableList.of(
-            "{{ .Name }}", "{{ .Config.Hostname }}", "{{ .Config.Hostname }}.{{ .Config.Domainname }}");
+            "{{ .Name }}",
+            "{{ .Config.Hostname }}",
+            "{{ .Config.Hostname }}.{{ .Config.Domainname }}",
+            "{{ range .NetworkSettings.Networks }}{{ range .Aliases }}{{ . }},{{ end }}{{ end }}");
     private static final ImmutableList<String> DOCKER_NAME_LABELS =
             ImmutableList.of("com.docker.compose.service", "hostname");
 
+    private static final Duration DOCKER_COMMAND_TIMEOUT = Duration.ofSeconds(15);
+    private static final ExecutorService OUTPUT_READERS = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("docker-proxy-output-%d")
+            .setDaemon(true)
+            .build());
+
     @VisibleForTesting
     static final String IP_FORMAT_STRING = "{{ range .NetworkSettings.Networks }}{{ .IPAddress }}{{ end }}";
 
+    private static final String NAMES_FORMAT_STRING = StreamEx.of(DOCKER_NAME_LABELS)
+            .map(label -> String.format("{{ index .Config.Labels \"%s\" }}", label))
+            .append(DOCKER_NAME_TAGS)
+            .collect(Collectors.joining(","));
+    private static final String PORTS_FORMAT_STRING = "{{ range $port, $bindings := .NetworkSettings.Ports }}"
+            + "{{ range $bindings }}{{ $port }}={{ .HostPort }},{{ end }}{{ end }}";
+    private static final String STATE_FORMAT_STRING =
+            "{{ .State.StartedAt }} " + IP_FORMAT_STRING + " " + PORTS_FORMAT_STRING;
+    private static final String ENDPOINTS_FORMAT_STRING =
+            "{{ range $container, $endpoint := .Containers }}{{ $container }}={{ $endpoint.EndpointID }},{{ end }}";
+    private static final Splitter PORT_SPLITTER = Splitter.on(',').omitEmptyStrings();
+    private static final int INSPECT_BATCH_SIZE = 100;
+
     private DockerContainerInfoUtils() {
         // Utility class
     }
 
     public static List<String> getAllNamesForContainerId(DockerExecutable docker, String containerId) {
         try {
-            String labelsFormat = StreamEx.of(DOCKER_NAME_LABELS)
-                    .map(label -> String.format("{{ index .Config.Labels \"%s\" }}", label))
-                    .append(DOCKER_NAME_TAGS)
-                    .collect(Collectors.joining(","));
             String labelsString = Iterables.getOnlyElement(
-                    runDockerProcess(docker, "inspect", "--format", labelsFormat, containerId));
-            return Splitter.on(CharMatcher.anyOf(",/")).omitEmptyStrings().splitToList(labelsString);
+                    runDockerProcess(docker, "inspect", "--format", NAMES_FORMAT_STRING, containerId));
+            return parseNames(labelsString);
         } catch (IOException | InterruptedException e) {
             throw Throwables.propagate(e);
         }
     }
 
+    /**
+     * Batched version of {@link #getAllNamesForContainerId}. Containers that disappear while being inspected are left
+     * out of the result.
+     */
+    static Map<String, List<String>> getAllNamesForContainerIds(DockerExecutable docker, List<String> containerIds) {
+        return ImmutableMap.copyOf(Maps.transformValues(
+                inspectEach(docker, NAMES_FORMAT_STRING, containerIds), DockerContainerInfoUtils::parseNames));
+    }
+
     public static Optional<String> getContainerIpFromId(DockerExecutable docker, String containerId) {
         try {
             String ip = Iterables.getOnlyElement(
                     runDockerProcess(docker, "inspect", "--format", IP_FORMAT_STRING, containerId));
+            return parseIp(ip);
+        } catch (InterruptedException | IOException | RuntimeException e) {
+            throw new IllegalStateException("Couldn't get IP for container ID " + containerId, e);
+        }
+    }
 
-            // stopped containers don't return IPs
-            if (ip.trim().isEmpty()) {
-                return Optional.empty();
+    /**
+     * Returns when each container last started along with its current IP and published ports, using as few docker
+     * invocations as possible. Containers that disappear while being inspected are left out of the result.
+     */
+    static Map<String, ContainerState> getContainerStates(DockerExecutable docker, List<String> containerIds) {
+        Map<String, ContainerState> states = new LinkedHashMap<>();
+        inspectEach(docker, STATE_FORMAT_STRING, containerIds).forEach((containerId, state) -> {
+            List<String> fields = Splitter.on(' ').limit(3).splitToList(state);
+            try {
+                states.put(
+                        containerId,
+                        new ContainerState(
+                                fields.get(0),
+                                parseIp(fields.get(1)),
+                                fields.size() > 2 ? parsePublishedPorts(fields.get(2)) : ImmutableMap.of()));
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("Couldn't get IP for container ID " + containerId, e);
             }
+        });
+        return states;
+    }
+
+    /**
+     * Inspects the given containers in bulk, fetching everything a {@link ContainerIndex} needs to know about each.
+     * Containers that disappear while being inspected are left out of the result.
+     */
+    static Map<String, IndexedContainer> inspectContainers(DockerExecutable docker, List<String> containerIds) {
+        Map<String, IndexedContainer> containers = new LinkedHashMap<>();
+        inspectEach(docker, STATE_FORMAT_STRING + " " + NAMES_FORMAT_STRING, containerIds)
+                .forEach((containerId, details) -> {
+                    List<String> fields = Splitter.on(' ').limit(4).splitToList(details);
+                    try {
+                        Preconditions.checkState(fields.size() == 4, "Unexpected docker inspect output: %s", details);
+                        containers.put(
+                                containerId,
+                                new IndexedContainer(
+                                        containerId,
+                                        fields.get(0),
+                                        parseNames(fields.get(3)),
+                                        parseIp(fields.get(1)),
+                                        parsePublishedPorts(fields.get(2))));
+                    } catch (RuntimeException e) {
+                        throw new IllegalStateException("Couldn't inspect container ID " + containerId, e);
+                    }
+                });
+        return containers;
+    }
 
-            Preconditions.checkState(InetAddresses.isInetAddress(ip), "IP address is not valid: %s", ip);
-            return Optional.of(ip);
+    /**
+     * Returns the running containers attached to any of the given networks, mapped to the IDs of the endpoints they
+     * are attached through, in one docker invocation. Docker creates new endpoints every time a container starts, so a
+     * container whose endpoints have changed has restarted.
+     */
+    static Map<String, String> getContainerEndpointsOnNetworks(
+            DockerExecutable docker, Collection<String> networkNames) {
+        if (networkNames.isEmpty()) {
+            return ImmutableMap.of();
+        }
+        try {
+            Map<String, String> endpoints = new LinkedHashMap<>();
+            List<String> lines = runDockerProcess(
+                    docker,
+                    StreamEx.of("network", "inspect", "--format", ENDPOINTS_FORMAT_STRING)
+                            .append(networkNames)
+                            .toArray(String[]::new));
+            for (String line : lines) {
+                for (String container : Splitter.on(',').omitEmptyStrings().split(line)) {
+                    int separator = container.indexOf('=');
+                    endpoints.merge(
+                            container.substring(0, separator),
+                            container.substring(separator + 1),
+                            (first, second) -> first + "," + second);
+                }
+            }
+            return endpoints;
         } catch (InterruptedException | IOException | RuntimeException e) {
-            throw new IllegalStateException("Couldn't get IP for container ID " + containerId, e);
+            throw new IllegalStateException("Unable to list the containers on the networks " + networkNames, e);
         }
     }
 
+    /**
+     * Returns the running containers in the docker compose project, mapped to the IDs of the endpoints they are
+     * attached through, in two docker invocations however many containers there are. Containers that are not attached
+     * to any network are mapped to an empty string.
+     */
+    static Map<String, String> getContainerEndpointsInDockerComposeProject(
+            DockerExecutable docker, ProjectName projectName) {
+        Map<String, String> endpoints = new LinkedHashMap<>();
+        Set<String> networkNames = new TreeSet<>();
+        try {
+            for (String line : runDockerProcess(
+                    docker,
+                    "ps",
+                    "--no-trunc",
+                    "--filter",
+                    "label=com.docker.compose.project=" + projectName.asString(),
+                    "--format",
+                    "{{ .ID }} {{ .Networks }}")) {
+                List<String> fields = Splitter.on(' ').limit(2).splitToList(line);
+                endpoints.put(fields.get(0), "");
+                if (fields.size() > 1) {
+                    networkNames.addAll(Splitter.on(',').omitEmptyStrings().splitToList(fields.get(1)));
+                }
+            }
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            throw new IllegalStateException(
+                    "Unable to list the containers in the docker compose project " + projectName.asString(), e);
+        }
+        getContainerEndpointsOnNetworks(docker, networkNames).forEach(endpoints::replace);
+        return endpoints;
+    }
+
     public static List<String> getContainerIdsOnNetwork(DockerExecutable docker, String networkName) {
         try {
             String containersOnNetworkString = Iterables.getOnlyElement(DockerContainerInfoUtils.runDockerProcess(
@@ -112,13 +260,164 @@ public final class DockerContainerInfoUtils {
         }
     }
 
+    /**
+     * Starts {@code docker events} with the given filters, printing the ID of the object each event is about. The
+     * process runs until it is destroyed, so it is not subject to the {@link DockerCommandLimiter}.
+     */
+    static Process watchEvents(DockerExecutable docker, List<String> filters) throws IOException {
+        List<String> args = new ArrayList<>();
+        args.add("events");
+        filters.forEach(filter -> {
+            args.add("--filter");
+            args.add(filter);
+        });
+        args.add("--format");
+        args.add("{{ .Actor.ID }}");
+        return docker.execute(args.toArray(new String[0]));
+    }
+
+    /**
+     * Returns the ID of the container compose started for the given service of the given project. Compose labels
+     * identify it whether or not it is running, unlike the ports it publishes.
+     */
+    static String getComposeServiceContainerId(DockerExecutable docker, ProjectName projectName, String service) {
+        try {
+            return Iterables.getOnlyElement(runDockerProcess(
+                    docker,
+                    "ps",
+                    "--all",
+                    "--filter",
+                    "label=com.docker.compose.project=" + projectName.asString(),
+                    "--filter",
+                    "label=com.docker.compose.service=" + service,
+                    "--format",
+                    "{{ .ID }}"));
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            throw new IllegalStateException(
+                    "Unable to find the container for service " + service + " in the docker compose project "
+                            + projectName.asString(),
+                    e);
+        }
+    }
+
+    /**
+     * Restarts the container, killing it if it doesn't stop within a second.
+     */
+    static void restartContainer(DockerExecutable docker, String containerId) {
+        try {
+            runDockerProcess(docker, "restart", "--time", "1", containerId);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            throw new IllegalStateException("Unable to restart container " + containerId, e);
+        }
+    }
+
+    static String getDockerDaemonId(DockerExecutable docker) {
+        try {
+            return Iterables.getOnlyElement(runDockerProcess(docker, "info", "--format", "{{ .ID }}"));
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            throw new IllegalStateException("Unable to get the docker daemon ID", e);
+        }
+    }
+
+    private static Map<String, String> inspectEach(DockerExecutable docker, String format, List<String> containerIds) {
+        Map<String, String> results = new LinkedHashMap<>();
+        for (List<String> batch : Lists.partition(containerIds, INSPECT_BATCH_SIZE)) {
+            try {
+                List<String> lines = runDockerProcess(docker, StreamEx.of("inspect", "--format", format)
+                        .append(batch)
+                        .toArray(String[]::new));
+                Preconditions.checkState(lines.size() == batch.size(), "Unexpected docker inspect output: %s", lines);
+                for (int i = 0; i < batch.size(); i++) {
+                    results.put(batch.get(i), lines.get(i));
+                }
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                // docker inspect fails the whole batch if any container has gone away, so retry them one at a time
+                results.putAll(inspectIndividually(docker, format, batch, e));
+            }
+        }
+        return results;
+    }
+
+    private static Map<String, String> inspectIndividually(
+            DockerExecutable docker, String format, List<String> containerIds, Exception batchFailure) {
+        Map<String, String> results = new LinkedHashMap<>();
+        for (String containerId : containerIds) {
+            try {
+                results.put(
+                        containerId,
+                        Iterables.getOnlyElement(runDockerProcess(docker, "inspect", "--format", format, containerId)));
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                batchFailure.addSuppressed(e);
+            }
+        }
+        if (results.isEmpty() && !containerIds.isEmpty()) {
+            throw new IllegalStateException("Unable to inspect containers " + containerIds, batchFailure);
+        }
+        return results;
+    }
+
+    private static List<String> parseNames(String labelsString) {
+        return Splitter.on(CharMatcher.anyOf(",/")).omitEmptyStrings().splitToList(labelsString);
+    }
+
+    /**
+     * Parses {@code 8080/tcp=32768,8080/tcp=32768,53/udp=32769,} into the host port of each published TCP port.
+     */
+    @VisibleForTesting
+    static Map<Integer, Integer> parsePublishedPorts(String ports) {
+        Map<Integer, Integer> publishedPorts = new LinkedHashMap<>();
+        for (String binding : PORT_SPLITTER.split(ports.trim())) {
+            int separator = binding.indexOf('=');
+            String containerPort = binding.substring(0, separator);
+            String hostPort = binding.substring(separator + 1);
+            if (containerPort.endsWith("/tcp") && !hostPort.isEmpty()) {
+                publishedPorts.putIfAbsent(
+                        Integer.parseInt(containerPort.substring(0, containerPort.length() - "/tcp".length())),
+                        Integer.parseInt(hostPort));
+            }
+        }
+        return publishedPorts;
+    }
+
+    private static Optional<String> parseIp(String ip) {
+        // stopped containers don't return IPs
+        if (ip.trim().isEmpty()) {
+            return Optional.empty();
+        }
+
+        Preconditions.checkState(InetAddresses.isInetAddress(ip), "IP address is not valid: %s", ip);
+        return Optional.of(ip);
+    }
+
     private static List<String> runDockerProcess(DockerExecutable docker, String... args)
             throws IOException, InterruptedException {
-        Process process = docker.execute(args);
-        if (!process.waitFor(15, TimeUnit.SECONDS) || process.exitValue() != 0) {
-            throw new IllegalStateException("Unable to execute docker command: " + ImmutableList.copyOf(args));
-        }
-        return getLinesFromInputStream(process.getInputStream());
+        return DockerCommandLimiter.global().run(DOCKER_COMMAND_TIMEOUT, remaining -> {
+            long deadlineNanos = System.nanoTime() + remaining.toNanos();
+            Process process = docker.execute(args);
+            // the output has to be read while the command runs, a command that fills the pipe can't exit
+            Future<List<String>> output =
+                    OUTPUT_READERS.submit(() -> getLinesFromInputStream(process.getInputStream()));
+            if (!process.waitFor(remaining.toNanos(), TimeUnit.NANOSECONDS)) {
+                process.destroyForcibly();
+                output.cancel(true);
+                throw new IllegalStateException("Unable to execute docker command: " + ImmutableList.copyOf(args));
+            }
+            if (process.exitValue() != 0) {
+                output.cancel(true);
+                throw new IllegalStateException("Unable to execute docker command: " + ImmutableList.copyOf(args));
+            }
+            try {
+                return output.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                Throwables.throwIfInstanceOf(e.getCause(), IOException.class);
+                throw new IllegalStateException(
+                        "Unable to read docker command output: " + ImmutableList.copyOf(args), e);
+            } catch (TimeoutException e) {
+                output.cancel(true);
+                throw new IllegalStateException(
+                        "Unable to read docker command output: " + ImmutableList.copyOf(args), e);
+            }
+        });
     }
 
     private static List<String> getLinesFromInputStream(InputStream inputStream) throws IOException {
@@ -126,4 +425,28 @@ public final class DockerContainerInfoUtils {
             return CharStreams.readLines(inputStreamReader);
         }
     }
+
+    static final class ContainerState {
+        private final String startedAt;
+        private final Optional<String> ip;
+        private final Map<Integer, Integer> publishedPorts;
+
+        ContainerState(String startedAt, Optional<String> ip, Map<Integer, Integer> publishedPorts) {
+            this.startedAt = startedAt;
+            this.ip = ip;
+            this.publishedPorts = publishedPorts;
+        }
+
+        String getStartedAt() {
+            return startedAt;
+        }
+
+        Optional<String> getIp() {
+            return ip;
+        }
+
+        Map<Integer, Integer> getPublishedPorts() {
+            return publishedPorts;
+        }
+    }
 }
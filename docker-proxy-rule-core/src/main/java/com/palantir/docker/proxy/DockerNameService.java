@@ -20,16 +20,69 @@ import com.google.common.net.InetAddresses;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Optional;
+import java.util.function.Function;
 
 public final class DockerNameService {
     private final DockerContainerInfo containerInfo;
+    private final HostRoutingPolicy routingPolicy;
+    private final boolean remoteDnsEnabled;
 
     public DockerNameService(DockerContainerInfo containerInfo) {
+        this(containerInfo, HostRoutingPolicy.defaults());
+    }
+
+    public DockerNameService(DockerContainerInfo containerInfo, HostRoutingPolicy routingPolicy) {
+        this(containerInfo, routingPolicy, false);
+    }
+
+    /**
+     * With remote DNS, hostnames that {@link RemoteDns} leaves to the proxy are not looked up here, so that clients
+     * which resolve eagerly, such as {@link java.net.HttpURLConnection}, end up with an unresolved address and hand the
+     * name to the proxy.
+     */
+    DockerNameService(DockerContainerInfo containerInfo, HostRoutingPolicy routingPolicy, boolean remoteDnsEnabled) {
         this.containerInfo = containerInfo;
+        this.routingPolicy = routingPolicy;
+        this.remoteDnsEnabled = remoteDnsEnabled;
+    }
+
+    /**
+     * The policy deciding which hostnames are looked up from docker, for resolvers that can also consult the system
+     * resolver first.
+     */
+    public HostRoutingPolicy getRoutingPolicy() {
+        return routingPolicy;
     }
 
     public InetAddress[] lookupAllHostAddr(String hostname) throws UnknownHostException {
-        Optional<String> containerIp = containerInfo.getIpForHost(hostname);
+        if (remoteDnsEnabled && RemoteDns.isResolvedRemotely(hostname)) {
+            throw new UnknownHostException(hostname);
+        }
+        return lookup(hostname, containerInfo::getIpForHost);
+    }
+
+    public String getHostByAddr(byte[] bytes) throws UnknownHostException {
+        return reverseLookup(bytes, containerInfo::getHostForIp);
+    }
+
+    /**
+     * Looks the hostname up among the containers already known, even when the proxy would resolve it, for answering
+     * other processes that don't go through the proxy and mostly ask about other hosts.
+     */
+    InetAddress[] lookupKnownHostAddr(String hostname) throws UnknownHostException {
+        return lookup(hostname, containerInfo::getKnownIpForHost);
+    }
+
+    String getKnownHostByAddr(byte[] bytes) throws UnknownHostException {
+        return reverseLookup(bytes, containerInfo::getKnownHostForIp);
+    }
+
+    private InetAddress[] lookup(String hostname, Function<String, Optional<String>> query)
+            throws UnknownHostException {
+        if (routingPolicy.route(hostname) == HostRoutingPolicy.Route.SYSTEM_ONLY) {
+            throw new UnknownHostException(hostname);
+        }
+        Optional<String> containerIp = query.apply(hostname);
 
         if (containerIp.isPresent()) {
             return new InetAddress[] {InetAddresses.forString(containerIp.get())};
@@ -37,9 +90,10 @@ public final class DockerNameService {
         throw new UnknownHostException(hostname);
     }
 
-    public String getHostByAddr(byte[] bytes) throws UnknownHostException {
+    private static String reverseLookup(byte[] bytes, Function<String, Optional<String>> query)
+            throws UnknownHostException {
         String ipAddress = InetAddress.getByAddress(bytes).getHostAddress();
-        Optional<String> containerHost = containerInfo.getHostForIp(ipAddress);
+        Optional<String> containerHost = query.apply(ipAddress);
 
         if (containerHost.isPresent()) {
             return containerHost.get();
@@ -16,15 +16,21 @@
 
 package com.palantir.docker.proxy;
 
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Suppliers;
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.io.Files;
 import com.google.common.io.Resources;
+import com.google.common.net.InetAddresses;
 import com.palantir.docker.compose.DockerComposeManager;
 import com.palantir.docker.compose.connection.Container;
 import com.palantir.docker.compose.connection.DockerMachine;
 import com.palantir.docker.compose.execution.DockerExecutable;
 import com.palantir.docker.compose.execution.DockerExecutionException;
 import com.palantir.docker.compose.logging.LogDirectory;
+import com.palantir.logsafe.Preconditions;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Field;
@@ -33,21 +39,62 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.ProxySelector;
+import java.net.Socket;
 import java.net.UnknownHostException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import javax.annotation.Nullable;
 
 @SuppressWarnings("PreferSafeLoggableExceptions")
 abstract class DockerProxyManager<SelfT extends DockerComposeManager.BuilderExtensions<SelfT>> {
+    private final DockerProxySettings settings;
     private final DockerContainerInfo dockerContainerInfo;
+    private final Optional<IndexedDockerContainerInfo> indexedContainerInfo;
     private final DockerComposeManager dockerComposeRule;
+    private final DockerExecutable docker;
+    private final Set<ContainerChangeListener> containerChangeListeners = new CopyOnWriteArraySet<>();
 
+    @Nullable
     private ProxySelector originalProxySelector;
+
     private Object originalNameService;
+    private boolean nameServiceSet;
+    private boolean composeStarted;
+
+    // the first proxy's address, replaced for every run and updated in place when the proxy is restarted
+    @Nullable
+    private volatile AtomicReference<InetSocketAddress> proxyAddress;
+
+    private final List<ProxyHealthMonitor> proxyHealthMonitors = new ArrayList<>();
+
+    @Nullable
+    private SocketChannelConnector socketChannelConnector;
+
+    @Nullable
+    private DnsResponder dnsResponder;
+
+    @Nullable
+    private HostsFileExporter hostsFileExporter;
 
     @Nullable
     private static DockerNameService dockerNameService;
@@ -58,22 +105,64 @@ abstract class DockerProxyManager<SelfT extends DockerComposeManager.BuilderExte
      *
      * @param dockerContainerInfoCreator A {@link Function} that creates the DockerContainerInfo to use
      * @param classToLogFor The class using {@link DockerProxyManager}
+     * @param settings How the proxy behaves
      */
     DockerProxyManager(
             Customizer<SelfT> builderSupplier,
             Function<DockerExecutable, DockerContainerInfo> dockerContainerInfoCreator,
-            Class<?> classToLogFor) {
-        DockerContainerInfo builtDockerContainerInfo = dockerContainerInfoCreator.apply(DockerExecutable.builder()
+            Class<?> classToLogFor,
+            DockerProxySettings settings) {
+        this.settings = settings;
+        this.docker = DockerExecutable.builder()
                 .dockerConfiguration(DockerMachine.localMachine().build())
-                .build());
+                .build();
+        DockerContainerInfo builtDockerContainerInfo = dockerContainerInfoCreator.apply(docker);
         String logDirectory = DockerProxyManager.class.getSimpleName() + "-" + classToLogFor.getSimpleName();
-        this.dockerContainerInfo = new CachingDockerContainerInfo(builtDockerContainerInfo);
-        this.dockerComposeRule = builderSupplier.customize(builder -> builder.file(getDockerComposeFile(
-                                this.dockerContainerInfo.getNetworkName(),
-                                this.dockerContainerInfo.getImageNameOverride().orElse("vimagick/dante:latest"))
-                        .getPath())
-                .waitingForService("proxy", Container::areAllPortsOpen)
-                .saveLogsTo(LogDirectory.circleAwareLogDirectory(logDirectory)));
+        if (builtDockerContainerInfo instanceof ContainerIndexSource) {
+            IndexedDockerContainerInfo indexed = new IndexedDockerContainerInfo(
+                    builtDockerContainerInfo,
+                    persistentIfConfigured((ContainerIndexSource) builtDockerContainerInfo, docker),
+                    settings.getCachePolicy());
+            this.dockerContainerInfo = indexed;
+            this.indexedContainerInfo = Optional.of(indexed);
+        } else {
+            this.dockerContainerInfo =
+                    new CachingDockerContainerInfo(builtDockerContainerInfo, settings.getCachePolicy());
+            this.indexedContainerInfo = Optional.empty();
+        }
+        Preconditions.checkArgument(
+                !settings.getHostsFile().isPresent() || indexedContainerInfo.isPresent(),
+                "A hosts file can only be written when looking up containers by project or network name");
+        ProxyContainerSpec proxySpec = settings.getProxyContainerSpec();
+        this.dockerComposeRule = builderSupplier.customize(builder -> {
+            SelfT proxyBuilder = builder.file(getDockerComposeFile(
+                                    this.dockerContainerInfo.getNetworkName(),
+                                    this.dockerContainerInfo
+                                            .getImageNameOverride()
+                                            .orElseGet(proxySpec::getImage),
+                                    settings)
+                            .getPath())
+                    .saveLogsTo(LogDirectory.circleAwareLogDirectory(logDirectory));
+            for (int shard = 0; shard < settings.getProxyShards(); shard++) {
+                proxyBuilder =
+                        proxyBuilder.waitingForService(ProxyShards.containerName(shard), proxySpec.getReadinessProbe());
+            }
+            return settings.isHttpProxyEnabled()
+                    ? proxyBuilder.waitingForService(
+                            DockerProxySelector.HTTP_PROXY_CONTAINER_NAME, Container::areAllPortsOpen)
+                    : proxyBuilder;
+        });
+    }
+
+    private static ContainerIndexSource persistentIfConfigured(ContainerIndexSource source, DockerExecutable docker) {
+        String indexDirectory = System.getProperty(PersistentContainerIndexSource.DIRECTORY_PROPERTY);
+        if (indexDirectory == null) {
+            return source;
+        }
+        return new PersistentContainerIndexSource(
+                source,
+                Paths.get(indexDirectory),
+                Suppliers.memoize(() -> DockerContainerInfoUtils.getDockerDaemonId(docker)));
     }
 
     public interface Customizer<T> {
@@ -81,12 +170,63 @@ abstract class DockerProxyManager<SelfT extends DockerComposeManager.BuilderExte
     }
 
     public void before() throws IOException, InterruptedException {
+        try {
+            start();
+        } catch (Throwable t) {
+            // undo whatever started before the failure, rather than relying on after() being called
+            try {
+                after();
+            } catch (RuntimeException e) {
+                t.addSuppressed(e);
+            }
+            throw t;
+        }
+    }
+
+    private void start() throws IOException, InterruptedException {
         try {
             originalProxySelector = ProxySelector.getDefault();
+            indexedContainerInfo.ifPresent(IndexedDockerContainerInfo::open);
+            // load the index while the proxy starts so the first request doesn't wait for docker
+            Optional<CompletableFuture<ContainerIndex>> warmUp =
+                    indexedContainerInfo.map(IndexedDockerContainerInfo::warmUp);
+            // set first, so that a proxy which only partly started is still stopped
+            composeStarted = true;
             dockerComposeRule.before();
-            setNameService(new DockerNameService(dockerContainerInfo));
-            ProxySelector.setDefault(new DockerProxySelector(
-                    dockerComposeRule.containers(), dockerContainerInfo, originalProxySelector));
+            if (warmUp.isPresent()) {
+                awaitWarmUp(warmUp.get());
+            }
+            DockerNameService nameService = new DockerNameService(
+                    dockerContainerInfo, settings.getHostRoutingPolicy(), settings.isRemoteDnsEnabled());
+            setNameService(nameService);
+            if (settings.isAddressCacheEvictionEnabled() && indexedContainerInfo.isPresent()) {
+                // evict names looked up before the name service was installed too
+                indexedContainerInfo.get().addUpdateListener(new AddressCacheEvictor());
+            }
+            // added after the evictor, so that listeners reconnecting straight away don't find the cached IP
+            indexedContainerInfo.ifPresent(
+                    indexed -> indexed.addUpdateListener(new ContainerChangeDispatcher(containerChangeListeners)));
+            List<Supplier<InetSocketAddress>> proxyAddresses = new ArrayList<>();
+            for (int shard = 0; shard < settings.getProxyShards(); shard++) {
+                String service = ProxyShards.containerName(shard);
+                AtomicReference<InetSocketAddress> shardAddress = new AtomicReference<>(socksProxyAddress(service));
+                proxyAddresses.add(shardAddress::get);
+                if (shard == 0) {
+                    proxyAddress = shardAddress;
+                }
+                settings.getProxyHealthPolicy().ifPresent(policy -> monitorProxy(policy, service, shardAddress));
+            }
+            ProxyShards proxyShards = new ProxyShards(proxyAddresses, settings.getProxySharding());
+            ProxySelector.setDefault(createProxySelector(proxyShards));
+            socketChannelConnector = new SocketChannelConnector(proxyShards, dockerContainerInfo, settings);
+            if (settings.getDnsResponderPort().isPresent()) {
+                dnsResponder = DnsResponder.start(
+                        nameService, settings.getDnsResponderPort().getAsInt(), settings.getDnsUpstream());
+            }
+            if (settings.getHostsFile().isPresent()) {
+                hostsFileExporter = new HostsFileExporter(settings.getHostsFile().get());
+                indexedContainerInfo.get().addUpdateListener(hostsFileExporter);
+            }
         } catch (DockerExecutionException e) {
             if (e.getMessage().contains("declared as external")) {
                 throw new IllegalStateException(
@@ -97,19 +237,273 @@ abstract class DockerProxyManager<SelfT extends DockerComposeManager.BuilderExte
         }
     }
 
+    /**
+     * Returns a connector for non-blocking clients that open {@link java.nio.channels.SocketChannel}s themselves and
+     * so never consult the {@link ProxySelector}. Must be called while the proxy is running.
+     */
+    public SocketChannelConnector socketChannelConnector() {
+        Preconditions.checkState(socketChannelConnector != null, "The proxy is not running");
+        return socketChannelConnector;
+    }
+
+    /**
+     * Returns the loopback address of the DNS server answering for container names, for passing to other processes.
+     * Must be called while the proxy is running with {@link DockerProxySettings#getDnsResponderPort()} set.
+     */
+    public InetSocketAddress dnsResponderAddress() {
+        Preconditions.checkState(dnsResponder != null, "The DNS responder is not running");
+        return dnsResponder.getAddress();
+    }
+
+    /**
+     * Starts telling the listener whenever a container hostname starts resolving to a different IP, for example because
+     * the container restarted. Listeners may be added before or while the proxy is running, and are only told about
+     * changes while it runs.
+     *
+     * @throws IllegalStateException unless containers are looked up by project or network name, since other ways of
+     *     looking up containers can't tell when they change
+     */
+    public void addContainerChangeListener(ContainerChangeListener listener) {
+        Preconditions.checkState(
+                indexedContainerInfo.isPresent(),
+                "Container changes are only reported when looking up containers by project or network name");
+        containerChangeListeners.add(Preconditions.checkNotNull(listener, "listener"));
+    }
+
+    public void removeContainerChangeListener(ContainerChangeListener listener) {
+        containerChangeListeners.remove(listener);
+    }
+
+    /**
+     * Returns the JVM arguments that make a child JVM, such as a forked test worker or an application under test,
+     * connect to containers through the proxy. With {@link DockerProxySettings#getHostsFile()} set, they also make it
+     * resolve containers from the hosts file, caching lookups for only a second so that it sees containers change,
+     * otherwise the child has to resolve them some other way. Must be called while the proxy is running.
+     */
+    public List<String> childJvmArgs() {
+        InetSocketAddress address = currentProxyAddress();
+        ImmutableList.Builder<String> args = ImmutableList.<String>builder()
+                .add("-DsocksProxyHost=" + hostAddress(address))
+                .add("-DsocksProxyPort=" + address.getPort());
+        if (hostsFileExporter != null) {
+            args.add("-Djdk.net.hosts.file=" + hostsFileExporter.getFile())
+                    .add("-Dsun.net.inetaddr.ttl=1")
+                    .add("-Dsun.net.inetaddr.negative.ttl=0");
+        }
+        return args.build();
+    }
+
+    /**
+     * Returns the environment variables that make curl and most other non-JVM clients started as child processes
+     * connect to containers through the proxy, which resolves their names using docker's DNS. Must be called while
+     * the proxy is running.
+     */
+    public Map<String, String> childEnvironment() {
+        InetSocketAddress address = currentProxyAddress();
+        return ImmutableMap.of("ALL_PROXY", "socks5h://" + hostAddress(address) + ":" + address.getPort());
+    }
+
+    private InetSocketAddress currentProxyAddress() {
+        AtomicReference<InetSocketAddress> current = proxyAddress;
+        Preconditions.checkState(current != null, "The proxy is not running");
+        return current.get();
+    }
+
+    private static String hostAddress(InetSocketAddress address) {
+        return address.getAddress() != null ? InetAddresses.toUriString(address.getAddress()) : address.getHostString();
+    }
+
+    /**
+     * Waits until every one of the given container hostnames can be resolved. Must be called while the proxy is
+     * running, for example from a test.
+     *
+     * @throws TimeoutException if some hostnames are still not resolvable once the timeout passes
+     */
+    public void awaitResolvable(Duration timeout, String... hostnames) throws InterruptedException, TimeoutException {
+        List<String> hosts = ImmutableList.copyOf(hostnames);
+        Set<String> missing = indexedContainerInfo.isPresent()
+                ? indexedContainerInfo.get().awaitHosts(hosts, timeout)
+                : pollForHosts(hosts, timeout);
+        if (!missing.isEmpty()) {
+            throw new TimeoutException("Timed out after " + timeout + " waiting for " + missing + " to be resolvable");
+        }
+    }
+
+    /**
+     * Waits until a TCP connection to the given container port can be made through the proxy. Must be called while
+     * the proxy is running, for example from a test.
+     *
+     * @throws TimeoutException if no connection could be made once the timeout passes
+     */
+    public void awaitReachable(Duration timeout, String host, int port) throws InterruptedException, TimeoutException {
+        long deadlineNanos = System.nanoTime() + timeout.toNanos();
+        awaitResolvable(timeout, host);
+
+        Backoff backoff = new Backoff();
+        while (true) {
+            long remainingNanos = deadlineNanos - System.nanoTime();
+            // connecting uses the default ProxySelector, which routes container hosts through the proxy
+            try (Socket socket = new Socket()) {
+                socket.connect(
+                        new InetSocketAddress(host, port),
+                        (int) Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNanos)));
+                return;
+            } catch (IOException e) {
+                long delayNanos = backoff.nextDelayNanos();
+                if (deadlineNanos - System.nanoTime() - delayNanos <= 0) {
+                    TimeoutException timeoutException = new TimeoutException(
+                            "Timed out after " + timeout + " waiting for " + host + ":" + port + " to be reachable");
+                    timeoutException.initCause(e);
+                    throw timeoutException;
+                }
+                TimeUnit.NANOSECONDS.sleep(delayNanos);
+            }
+        }
+    }
+
+    private Set<String> pollForHosts(List<String> hostnames, Duration timeout) throws InterruptedException {
+        long deadlineNanos = System.nanoTime() + timeout.toNanos();
+        Backoff backoff = new Backoff();
+        while (true) {
+            Set<String> missing = hostnames.stream()
+                    .filter(hostname -> !dockerContainerInfo.getIpForHost(hostname).isPresent())
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            long remainingNanos = deadlineNanos - System.nanoTime();
+            if (missing.isEmpty() || remainingNanos <= 0) {
+                return missing;
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.min(remainingNanos, backoff.nextDelayNanos()));
+        }
+    }
+
+    private static void awaitWarmUp(CompletableFuture<ContainerIndex> warmUp) throws InterruptedException {
+        try {
+            warmUp.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unable to load the container index", e.getCause());
+        }
+    }
+
+    /**
+     * Stops everything {@link #before()} started. Only undoes what was actually set up, so may be called after
+     * {@link #before()} failed part way, and more than once.
+     */
     public void after() {
-        ProxySelector.setDefault(originalProxySelector);
+        if (originalProxySelector != null) {
+            ProxySelector.setDefault(originalProxySelector);
+            originalProxySelector = null;
+        }
         unsetNameService();
-        dockerComposeRule.after();
+        closeSocketChannelConnector();
+        closeDnsResponder();
+        closeProxyHealthMonitors();
+        proxyAddress = null;
+        try {
+            if (composeStarted) {
+                composeStarted = false;
+                dockerComposeRule.after();
+            }
+        } finally {
+            // closing the index also stops it updating the hosts file
+            indexedContainerInfo.ifPresent(IndexedDockerContainerInfo::close);
+            hostsFileExporter = null;
+        }
     }
 
-    private static File getDockerComposeFile(String networkName, String imageName) {
+    private void closeSocketChannelConnector() {
+        if (socketChannelConnector != null) {
+            try {
+                socketChannelConnector.close();
+            } catch (IOException e) {
+                // the selector thread stops either way
+            }
+            socketChannelConnector = null;
+        }
+    }
+
+    private void monitorProxy(ProxyHealthPolicy policy, String service, AtomicReference<InetSocketAddress> address) {
+        String containerId = DockerContainerInfoUtils.getComposeServiceContainerId(
+                docker, dockerComposeRule.projectName(), service);
+        proxyHealthMonitors.add(
+                ProxyHealthMonitor.start(policy, address, () -> restartProxy(containerId, address.get())));
+    }
+
+    private void closeProxyHealthMonitors() {
+        proxyHealthMonitors.forEach(ProxyHealthMonitor::close);
+        proxyHealthMonitors.clear();
+    }
+
+    private InetSocketAddress restartProxy(String containerId, InetSocketAddress previousAddress) {
+        DockerContainerInfoUtils.restartContainer(docker, containerId);
+        int proxyPort = settings.getProxyContainerSpec().getPort();
+        DockerContainerInfoUtils.ContainerState state = DockerContainerInfoUtils.getContainerStates(
+                        docker, ImmutableList.of(containerId))
+                .get(containerId);
+        Integer publishedPort = state != null ? state.getPublishedPorts().get(proxyPort) : null;
+        Preconditions.checkState(publishedPort != null, "The restarted proxy container doesn't publish its port");
+        return new InetSocketAddress(previousAddress.getAddress(), publishedPort);
+    }
+
+    private void closeDnsResponder() {
+        if (dnsResponder != null) {
+            try {
+                dnsResponder.close();
+            } catch (IOException e) {
+                // the serving threads stop either way
+            }
+            dnsResponder = null;
+        }
+    }
+
+    private DockerProxySelector createProxySelector(ProxyShards socksProxies) {
+        Optional<InetSocketAddress> httpProxyAddress = settings.isHttpProxyEnabled()
+                ? Optional.of(DockerProxySelector.proxyAddress(
+                        dockerComposeRule.containers(),
+                        DockerProxySelector.HTTP_PROXY_CONTAINER_NAME,
+                        DockerProxySelector.HTTP_PROXY_CONTAINER_PORT))
+                : Optional.empty();
+        return new DockerProxySelector(
+                socksProxies,
+                httpProxyAddress,
+                dockerContainerInfo,
+                originalProxySelector,
+                settings.isRemoteDnsEnabled());
+    }
+
+    private InetSocketAddress socksProxyAddress(String containerName) {
+        return DockerProxySelector.proxyAddress(
+                dockerComposeRule.containers(), containerName, settings.getProxyContainerSpec().getPort());
+    }
+
+    private static File getDockerComposeFile(String networkName, String imageName, DockerProxySettings settings) {
         try {
             File proxyFile = File.createTempFile("proxy", ".yml");
             String proxyConfig =
                     Resources.toString(Resources.getResource("docker-compose.proxy.yml"), StandardCharsets.UTF_8);
+            String additionalServices = settings.isHttpProxyEnabled()
+                    ? Resources.toString(
+                            Resources.getResource("docker-compose.http-proxy.yml"), StandardCharsets.UTF_8)
+                    : "";
+            String proxyServiceConfig = Resources.toString(
+                    Resources.getResource("docker-compose.proxy-service.yml"), StandardCharsets.UTF_8);
+            ProxyContainerSpec proxySpec = settings.getProxyContainerSpec();
+            String serviceOptions = proxySpec.renderServiceOptions().stream()
+                    .map(option -> "    " + option)
+                    .collect(Collectors.joining("\n"));
+            String proxyServices = IntStream.range(0, settings.getProxyShards())
+                    .mapToObj(shard -> proxyServiceConfig
+                            .replace("{{SERVICE_NAME}}", ProxyShards.containerName(shard))
+                            .replace("{{IMAGE_NAME}}", imageName)
+                            .replace("{{PROXY_PORT}}", Integer.toString(proxySpec.getPort()))
+                            .replace("{{PROXY_COMMAND}}", proxySpec.renderCommand())
+                            .replace("{{PROXY_SERVICE_OPTIONS}}", serviceOptions))
+                    .map(CharMatcher.whitespace()::trimTrailingFrom)
+                    .collect(Collectors.joining("\n"));
             Files.write(
-                    proxyConfig.replace("{{NETWORK_NAME}}", networkName).replace("{{IMAGE_NAME}}", imageName),
+                    proxyConfig
+                            .replace("{{NETWORK_NAME}}", networkName)
+                            .replace("{{PROXY_SERVICES}}", proxyServices)
+                            .replace("{{ADDITIONAL_SERVICES}}", additionalServices),
                     proxyFile,
                     StandardCharsets.UTF_8);
             return proxyFile;
@@ -128,9 +522,14 @@ abstract class DockerProxyManager<SelfT extends DockerComposeManager.BuilderExte
         } else {
             dockerNameService = nameService;
         }
+        nameServiceSet = true;
     }
 
     private void unsetNameService() {
+        if (!nameServiceSet) {
+            return;
+        }
+        nameServiceSet = false;
         int featureVersion = Runtime.version().feature();
         if (featureVersion < 9) {
             getJava8NameServices().remove(0);
@@ -178,7 +577,7 @@ abstract class DockerProxyManager<SelfT extends DockerComposeManager.BuilderExte
     }
 
     @SuppressWarnings("ProxyNonConstantType")
-    private static Object wrapNameService(String className, Object delegate, Object fallback) {
+    private static Object wrapNameService(String className, DockerNameService delegate, Object fallback) {
         try {
             Class<?> clazz = Class.forName(className);
             return Proxy.newProxyInstance(
@@ -190,18 +589,29 @@ abstract class DockerProxyManager<SelfT extends DockerComposeManager.BuilderExte
         }
     }
 
+    /**
+     * Looks hostnames up from docker and the JDK's own name service in the order the {@link HostRoutingPolicy} asks
+     * for, like the resolver installed from Java 21 onwards.
+     */
     @SuppressWarnings("checkstyle:IllegalThrows")
-    private static class ForwardingNameServiceHandler implements InvocationHandler {
-        private final Object delegate;
+    static class ForwardingNameServiceHandler implements InvocationHandler {
+        private final DockerNameService delegate;
         private final Object fallback;
 
-        ForwardingNameServiceHandler(Object delegate, Object fallback) {
+        ForwardingNameServiceHandler(DockerNameService delegate, Object fallback) {
             this.delegate = delegate;
             this.fallback = fallback;
         }
 
         @Override
         public Object invoke(Object _proxy, Method method, Object[] args) throws Throwable {
+            if (fallback != null && isSystemFirst(method, args)) {
+                try {
+                    return callAndUnwrap(fallback, method, args);
+                } catch (UnknownHostException e) {
+                    return callAndUnwrap(delegate, method, args);
+                }
+            }
             try {
                 return callAndUnwrap(delegate, method, args);
             } catch (UnknownHostException e) {
@@ -212,6 +622,12 @@ abstract class DockerProxyManager<SelfT extends DockerComposeManager.BuilderExte
             }
         }
 
+        private boolean isSystemFirst(Method method, Object[] args) {
+            return method.getName().equals("lookupAllHostAddr")
+                    && args[0] instanceof String
+                    && delegate.getRoutingPolicy().route((String) args[0]) == HostRoutingPolicy.Route.SYSTEM_FIRST;
+        }
+
         private static Object callAndUnwrap(Object obj, Method method, Object[] args) throws Throwable {
             try {
                 Method delegateMethod = obj.getClass().getMethod(method.getName(), method.getParameterTypes());
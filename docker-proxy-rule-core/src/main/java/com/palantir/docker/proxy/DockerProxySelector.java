@@ -25,44 +25,112 @@ import java.net.Proxy;
 import java.net.ProxySelector;
 import java.net.SocketAddress;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 public final class DockerProxySelector extends ProxySelector {
     public static final String PROXY_CONTAINER_NAME = "proxy";
     public static final short PROXY_CONTAINER_PORT = 1080;
+    public static final String HTTP_PROXY_CONTAINER_NAME = "http-proxy";
+    public static final short HTTP_PROXY_CONTAINER_PORT = 3128;
 
-    private final InetSocketAddress proxyAddress;
+    private final ProxyShards socksProxies;
+    private final Optional<Proxy> httpProxy;
     private final DockerContainerInfo containerInfo;
     private final ProxySelector delegate;
+    private final boolean remoteDnsEnabled;
 
-    @SuppressWarnings("DnsLookup")
     public DockerProxySelector(Cluster containers, DockerContainerInfo containerInfo, ProxySelector delegate) {
+        this(
+                proxyAddress(containers, PROXY_CONTAINER_NAME, PROXY_CONTAINER_PORT),
+                Optional.empty(),
+                containerInfo,
+                delegate,
+                false);
+    }
+
+    DockerProxySelector(
+            InetSocketAddress socksProxyAddress,
+            Optional<InetSocketAddress> httpProxyAddress,
+            DockerContainerInfo containerInfo,
+            ProxySelector delegate,
+            boolean remoteDnsEnabled) {
+        this(
+                ProxyShards.single(() -> socksProxyAddress),
+                httpProxyAddress,
+                containerInfo,
+                delegate,
+                remoteDnsEnabled);
+    }
+
+    /**
+     * Creates a {@link DockerProxySelector} that routes http and https URIs through the HTTP proxy if there is one,
+     * and everything else through the SOCKS proxy. With remote DNS, hostnames that {@link RemoteDns} leaves to the
+     * proxy to resolve are routed through it without being looked up. With several SOCKS proxies, every one of them is
+     * returned, in the order the {@link ProxyShards} picks for the host, so that clients can fail over between them.
+     */
+    DockerProxySelector(
+            ProxyShards socksProxies,
+            Optional<InetSocketAddress> httpProxyAddress,
+            DockerContainerInfo containerInfo,
+            ProxySelector delegate,
+            boolean remoteDnsEnabled) {
+        this.socksProxies = socksProxies;
+        this.httpProxy = httpProxyAddress.map(address -> new Proxy(Proxy.Type.HTTP, address));
+        this.containerInfo = containerInfo;
+        this.delegate = delegate;
+        this.remoteDnsEnabled = remoteDnsEnabled;
+    }
+
+    @SuppressWarnings("DnsLookup")
+    static InetSocketAddress proxyAddress(Cluster containers, String containerName, int containerPort) {
         // We can't call InetSocketAddress.createUnresolved here as some downstream libraries cannot deal with
         // getAddress returning null.
-        this.proxyAddress = new InetSocketAddress(
+        return new InetSocketAddress(
                 containers.ip(),
-                containers
-                        .container(PROXY_CONTAINER_NAME)
-                        .port(PROXY_CONTAINER_PORT)
-                        .getExternalPort());
-        this.containerInfo = containerInfo;
-        this.delegate = delegate;
+                containers.container(containerName).port(containerPort).getExternalPort());
     }
 
     @Override
     public List<Proxy> select(URI uri) {
         String host = uri.getHost();
-        if (containerInfo.getIpForHost(host).isPresent()
-                || containerInfo.getHostForIp(host).isPresent()) {
-            return ImmutableList.of(new Proxy(Proxy.Type.SOCKS, proxyAddress));
+        if (isContainer(host)) {
+            if (httpProxy.isPresent() && isHttp(uri)) {
+                return ImmutableList.of(httpProxy.get());
+            }
+            List<InetSocketAddress> addresses = socksProxies.select(host);
+            List<Proxy> proxies = new ArrayList<>(addresses.size());
+            for (InetSocketAddress address : addresses) {
+                proxies.add(new Proxy(Proxy.Type.SOCKS, address));
+            }
+            return proxies;
         } else {
             return delegate.select(uri);
         }
     }
 
+    /**
+     * Failing to connect to a container by name usually means it restarted with a new IP, so the container info is
+     * asked to refresh what it knows about it before the client retries.
+     */
     @Override
     public void connectFailed(URI uri, SocketAddress sa, IOException ioe) {
         Preconditions.checkArgument(uri != null && sa != null && ioe != null, "Invalid connectFailed call");
+        String host = uri.getHost();
+        if (host != null && containerInfo.getIpForHost(host).isPresent()) {
+            containerInfo.connectFailed(host);
+        }
         delegate.connectFailed(uri, sa, ioe);
     }
+
+    private boolean isContainer(String host) {
+        return (remoteDnsEnabled && RemoteDns.isResolvedRemotely(host))
+                || containerInfo.getIpForHost(host).isPresent()
+                || containerInfo.getHostForIp(host).isPresent();
+    }
+
+    private static boolean isHttp(URI uri) {
+        return "http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme());
+    }
 }
@@ -0,0 +1,320 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import com.palantir.logsafe.Preconditions;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * DockerProxySettings collects the optional behaviour of a {@link DockerProxyManager}, so that new options don't need
+ * new overloads of every factory method.
+ */
+public final class DockerProxySettings {
+    private static final DockerProxySettings DEFAULT = builder().build();
+
+    private final CachePolicy cachePolicy;
+    private final HostRoutingPolicy hostRoutingPolicy;
+    private final HostnameUniverse hostnameUniverse;
+    private final boolean httpProxyEnabled;
+    private final boolean publishedPortsEnabled;
+    private final boolean remoteDnsEnabled;
+    private final boolean addressCacheEvictionEnabled;
+    private final ProxyContainerSpec proxyContainerSpec;
+    private final OptionalInt dnsResponderPort;
+    private final Optional<InetSocketAddress> dnsUpstream;
+    private final Optional<Path> hostsFile;
+    private final Optional<ProxyHealthPolicy> proxyHealthPolicy;
+    private final int proxyShards;
+    private final ProxySharding proxySharding;
+
+    private DockerProxySettings(Builder builder) {
+        this.cachePolicy = builder.cachePolicy;
+        this.hostRoutingPolicy = builder.hostRoutingPolicy;
+        this.hostnameUniverse = builder.hostnameUniverse;
+        this.proxyContainerSpec = builder.proxyContainerSpec;
+        this.httpProxyEnabled = builder.httpProxyEnabled;
+        this.publishedPortsEnabled = builder.publishedPortsEnabled;
+        this.remoteDnsEnabled = builder.remoteDnsEnabled;
+        this.addressCacheEvictionEnabled = builder.addressCacheEvictionEnabled;
+        this.dnsResponderPort = builder.dnsResponderPort;
+        this.dnsUpstream = builder.dnsUpstream;
+        this.hostsFile = builder.hostsFile;
+        this.proxyHealthPolicy = builder.proxyHealthPolicy;
+        this.proxyShards = builder.proxyShards;
+        this.proxySharding = builder.proxySharding;
+    }
+
+    public static DockerProxySettings defaults() {
+        return DEFAULT;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public CachePolicy getCachePolicy() {
+        return cachePolicy;
+    }
+
+    /**
+     * Which hostnames are looked up from docker and which go to the system resolver, and in what order.
+     */
+    public HostRoutingPolicy getHostRoutingPolicy() {
+        return hostRoutingPolicy;
+    }
+
+    /**
+     * The hostnames the containers of a docker compose project can have, used when looking containers up by project
+     * name. Lookups for any other hostname miss without querying docker.
+     */
+    public HostnameUniverse getHostnameUniverse() {
+        return hostnameUniverse;
+    }
+
+    /**
+     * The container that runs the SOCKS proxy, dante by default.
+     */
+    public ProxyContainerSpec getProxyContainerSpec() {
+        return proxyContainerSpec;
+    }
+
+    /**
+     * Whether an HTTP proxy is run alongside the SOCKS proxy. When it is, http and https URIs for containers are
+     * routed through the HTTP proxy, which also works for clients that ignore SOCKS proxies such as
+     * {@code java.net.http.HttpClient}.
+     *
+     * <p>Unlike with SOCKS, hostnames are resolved by the HTTP proxy using docker's DNS, so containers are reachable by
+     * service name, container name and network alias but not by a configured {@code hostname} that is none of those.
+     */
+    public boolean isHttpProxyEnabled() {
+        return httpProxyEnabled;
+    }
+
+    /**
+     * Whether the {@link SocketChannelConnector} connects to container ports that are published on the docker host
+     * through the published port rather than through the SOCKS proxy, which saves a hop for bulk transfers. Ports that
+     * aren't published still go through the proxy.
+     *
+     * <p>A {@link java.net.ProxySelector} can only choose a proxy, not change the port being connected to, so clients
+     * using the default {@link java.net.ProxySelector} always go through the proxy.
+     */
+    public boolean isPublishedPortsEnabled() {
+        return publishedPortsEnabled;
+    }
+
+    /**
+     * Whether single-label hostnames such as service names are handed to the SOCKS proxy unresolved, for docker's
+     * embedded DNS to resolve inside the network, instead of being looked up from docker on this side. Such names no
+     * longer resolve through {@link java.net.InetAddress}, which takes docker out of the connect path of
+     * {@link java.net.HttpURLConnection}, the {@link SocketChannelConnector} and other clients that fall back to an
+     * unresolved address, but breaks clients that need the container's IP itself.
+     *
+     * <p>Docker's DNS only knows services, container names and network aliases, not configured hostnames.
+     */
+    public boolean isRemoteDnsEnabled() {
+        return remoteDnsEnabled;
+    }
+
+    /**
+     * Whether container names are evicted from the JDK's cache of {@link java.net.InetAddress} lookups as soon as the
+     * container index sees them change, so that clients reconnecting to a restarted container get its new IP rather
+     * than the cached one until {@code networkaddress.cache.ttl} runs out. Off by default, since it reaches into JDK
+     * internals. Needs {@code java.base/java.net} to be opened, and is only supported when looking up containers by
+     * project or network name.
+     *
+     * <p>Where eviction isn't possible, setting {@code networkaddress.cache.ttl} to a second or two makes the JDK ask
+     * again soon after a change, since lookups from the container index are cheap.
+     */
+    public boolean isAddressCacheEvictionEnabled() {
+        return addressCacheEvictionEnabled;
+    }
+
+    /**
+     * The loopback port a DNS server answering for container names listens on, over both UDP and TCP, so that other
+     * processes such as forked JVMs and command line tools can resolve containers too. Zero picks a free port, which
+     * {@link DockerProxyManager#dnsResponderAddress()} returns. When empty, no DNS server is started.
+     *
+     * <p>The server answers A, AAAA and PTR queries for containers. Queries about other names are forwarded to the
+     * {@link #getDnsUpstream() upstream DNS server}, or refused if there is none.
+     */
+    public OptionalInt getDnsResponderPort() {
+        return dnsResponderPort;
+    }
+
+    /**
+     * The DNS server that queries about names that aren't containers are forwarded to.
+     */
+    public Optional<InetSocketAddress> getDnsUpstream() {
+        return dnsUpstream;
+    }
+
+    /**
+     * Where to keep a hosts file listing every running container, for child JVMs started with the arguments from
+     * {@link DockerProxyManager#childJvmArgs()} to resolve containers from without asking docker. The file is replaced
+     * atomically whenever the containers change. When empty, no hosts file is written.
+     *
+     * <p>A JVM given a hosts file resolves nothing else, so this suits child processes that only talk to containers.
+     * Only supported when looking up containers by project or network name.
+     */
+    public Optional<Path> getHostsFile() {
+        return hostsFile;
+    }
+
+    /**
+     * How the proxy container is checked while it is running. A proxy that stops answering is restarted, and
+     * connections, {@link DockerProxyManager#childJvmArgs()} and {@link DockerProxyManager#childEnvironment()} move to
+     * wherever it is published afterwards. When empty, the proxy is not checked.
+     */
+    public Optional<ProxyHealthPolicy> getProxyHealthPolicy() {
+        return proxyHealthPolicy;
+    }
+
+    /**
+     * How many SOCKS proxy containers to start. A single proxy can limit suites that stream a lot of data to
+     * containers from many threads at once, and more of them let the proxies use more of the docker host's CPUs.
+     *
+     * <p>Child processes configured through {@link DockerProxyManager#childJvmArgs()} or
+     * {@link DockerProxyManager#childEnvironment()} can only be given one proxy, and always use the first.
+     */
+    public int getProxyShards() {
+        return proxyShards;
+    }
+
+    /**
+     * How connections are spread across the proxies when there is more than one.
+     */
+    public ProxySharding getProxySharding() {
+        return proxySharding;
+    }
+
+    @Override
+    public String toString() {
+        return "DockerProxySettings{cachePolicy=" + cachePolicy
+                + ", hostRoutingPolicy=" + hostRoutingPolicy
+                + ", hostnameUniverse=" + hostnameUniverse
+                + ", proxyContainerSpec=" + proxyContainerSpec
+                + ", httpProxyEnabled=" + httpProxyEnabled
+                + ", publishedPortsEnabled=" + publishedPortsEnabled
+                + ", remoteDnsEnabled=" + remoteDnsEnabled
+                + ", addressCacheEvictionEnabled=" + addressCacheEvictionEnabled
+                + ", dnsResponderPort=" + dnsResponderPort
+                + ", dnsUpstream=" + dnsUpstream
+                + ", hostsFile=" + hostsFile
+                + ", proxyHealthPolicy=" + proxyHealthPolicy
+                + ", proxyShards=" + proxyShards
+                + ", proxySharding=" + proxySharding
+                + '}';
+    }
+
+    public static final class Builder {
+        private CachePolicy cachePolicy = CachePolicy.defaults();
+        private HostRoutingPolicy hostRoutingPolicy = HostRoutingPolicy.defaults();
+        private HostnameUniverse hostnameUniverse = HostnameUniverse.unrestricted();
+        private ProxyContainerSpec proxyContainerSpec = ProxyContainerSpec.dante();
+        private boolean httpProxyEnabled = false;
+        private boolean publishedPortsEnabled = false;
+        private boolean remoteDnsEnabled = false;
+        private boolean addressCacheEvictionEnabled = false;
+        private OptionalInt dnsResponderPort = OptionalInt.empty();
+        private Optional<InetSocketAddress> dnsUpstream = Optional.empty();
+        private Optional<Path> hostsFile = Optional.empty();
+        private Optional<ProxyHealthPolicy> proxyHealthPolicy = Optional.empty();
+        private int proxyShards = 1;
+        private ProxySharding proxySharding = ProxySharding.DESTINATION_HASH;
+
+        private Builder() {}
+
+        public Builder cachePolicy(CachePolicy value) {
+            this.cachePolicy = Preconditions.checkNotNull(value, "cachePolicy");
+            return this;
+        }
+
+        public Builder hostRoutingPolicy(HostRoutingPolicy value) {
+            this.hostRoutingPolicy = Preconditions.checkNotNull(value, "hostRoutingPolicy");
+            return this;
+        }
+
+        public Builder hostnameUniverse(HostnameUniverse value) {
+            this.hostnameUniverse = Preconditions.checkNotNull(value, "hostnameUniverse");
+            return this;
+        }
+
+        public Builder proxyContainerSpec(ProxyContainerSpec value) {
+            this.proxyContainerSpec = Preconditions.checkNotNull(value, "proxyContainerSpec");
+            return this;
+        }
+
+        public Builder httpProxyEnabled(boolean value) {
+            this.httpProxyEnabled = value;
+            return this;
+        }
+
+        public Builder publishedPortsEnabled(boolean value) {
+            this.publishedPortsEnabled = value;
+            return this;
+        }
+
+        public Builder remoteDnsEnabled(boolean value) {
+            this.remoteDnsEnabled = value;
+            return this;
+        }
+
+        public Builder addressCacheEvictionEnabled(boolean value) {
+            this.addressCacheEvictionEnabled = value;
+            return this;
+        }
+
+        public Builder dnsResponderPort(int value) {
+            Preconditions.checkArgument(value >= 0 && value <= 65535, "dnsResponderPort must be a valid port");
+            this.dnsResponderPort = OptionalInt.of(value);
+            return this;
+        }
+
+        public Builder dnsUpstream(InetSocketAddress value) {
+            this.dnsUpstream = Optional.of(Preconditions.checkNotNull(value, "dnsUpstream"));
+            return this;
+        }
+
+        public Builder hostsFile(Path value) {
+            this.hostsFile = Optional.of(Preconditions.checkNotNull(value, "hostsFile"));
+            return this;
+        }
+
+        public Builder proxyHealthPolicy(ProxyHealthPolicy value) {
+            this.proxyHealthPolicy = Optional.of(Preconditions.checkNotNull(value, "proxyHealthPolicy"));
+            return this;
+        }
+
+        public Builder proxyShards(int value) {
+            Preconditions.checkArgument(value > 0, "proxyShards must be positive");
+            this.proxyShards = value;
+            return this;
+        }
+
+        public Builder proxySharding(ProxySharding value) {
+            this.proxySharding = Preconditions.checkNotNull(value, "proxySharding");
+            return this;
+        }
+
+        public DockerProxySettings build() {
+            return new DockerProxySettings(this);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+/**
+ * Runs gost, the same image as the HTTP proxy, as a SOCKS5 proxy.
+ */
+final class GostProxyContainerSpec implements ProxyContainerSpec {
+    static final GostProxyContainerSpec INSTANCE = new GostProxyContainerSpec();
+
+    private static final int PORT = 1080;
+
+    private GostProxyContainerSpec() {}
+
+    @Override
+    public String getImage() {
+        return "ginuerzh/gost:2.11.5";
+    }
+
+    @Override
+    public int getPort() {
+        return PORT;
+    }
+
+    @Override
+    public String renderCommand() {
+        return "-L=socks5://:" + PORT;
+    }
+
+    @Override
+    public String toString() {
+        return "GostProxyContainerSpec";
+    }
+}
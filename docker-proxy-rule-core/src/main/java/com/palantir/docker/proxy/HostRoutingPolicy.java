@@ -0,0 +1,160 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import com.google.common.collect.ImmutableMap;
+import com.palantir.logsafe.Preconditions;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * HostRoutingPolicy decides, before any docker work is done, whether a hostname is looked up from docker or from the
+ * system resolver first, so that resolving hosts that can't be containers costs what it would without
+ * docker-proxy-rule.
+ *
+ * <p>Hostnames are matched against domain suffixes, where the most specific suffix wins: with {@code internal} routed
+ * to the system resolver and {@code db.internal} to docker, {@code primary.db.internal} is looked up from docker.
+ * Suffixes match whole labels, so {@code internal} matches {@code internal} and {@code a.internal} but not
+ * {@code notinternal}. {@code localhost} is always routed to the system resolver unless routed to docker explicitly.
+ *
+ * <p>By default every other hostname is looked up from docker first, as docker-proxy-rule has always done.
+ */
+public final class HostRoutingPolicy {
+    private static final HostRoutingPolicy DEFAULT = builder().build();
+
+    private final ImmutableMap<String, Route> routesBySuffix;
+    private final boolean dottedNamesSystemFirst;
+
+    private HostRoutingPolicy(ImmutableMap<String, Route> routesBySuffix, boolean dottedNamesSystemFirst) {
+        this.routesBySuffix = routesBySuffix;
+        this.dottedNamesSystemFirst = dottedNamesSystemFirst;
+    }
+
+    public static HostRoutingPolicy defaults() {
+        return DEFAULT;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns where the hostname should be looked up. Only does as many hash lookups as the hostname has labels.
+     */
+    public Route route(String hostname) {
+        String host = Hostnames.normalize(hostname);
+        for (int start = 0; start >= 0; start = nextLabel(host, start)) {
+            Route route = routesBySuffix.get(host.substring(start));
+            if (route != null) {
+                return route;
+            }
+        }
+        return dottedNamesSystemFirst && host.indexOf('.') >= 0 ? Route.SYSTEM_FIRST : Route.DOCKER_FIRST;
+    }
+
+    private static int nextLabel(String host, int start) {
+        int dot = host.indexOf('.', start);
+        return dot < 0 ? -1 : dot + 1;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        HostRoutingPolicy that = (HostRoutingPolicy) other;
+        return dottedNamesSystemFirst == that.dottedNamesSystemFirst && routesBySuffix.equals(that.routesBySuffix);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(routesBySuffix, dottedNamesSystemFirst);
+    }
+
+    @Override
+    public String toString() {
+        return "HostRoutingPolicy{routesBySuffix=" + routesBySuffix
+                + ", dottedNamesSystemFirst=" + dottedNamesSystemFirst
+                + '}';
+    }
+
+    public enum Route {
+        /**
+         * Looked up from docker, falling back to the system resolver if docker doesn't know the hostname.
+         */
+        DOCKER_FIRST,
+        /**
+         * Looked up from the system resolver, falling back to docker if the system resolver doesn't know the hostname.
+         */
+        SYSTEM_FIRST,
+        /**
+         * Only looked up from the system resolver.
+         */
+        SYSTEM_ONLY
+    }
+
+    public static final class Builder {
+        private final Map<String, Route> routesBySuffix = new LinkedHashMap<>();
+        private boolean dottedNamesSystemFirst = false;
+
+        private Builder() {
+            routesBySuffix.put("localhost", Route.SYSTEM_ONLY);
+        }
+
+        /**
+         * Hostnames with any of these suffixes are looked up from docker first, even if they contain dots.
+         */
+        public Builder dockerSuffixes(String... suffixes) {
+            return route(Route.DOCKER_FIRST, suffixes);
+        }
+
+        /**
+         * Hostnames with any of these suffixes are never looked up from docker.
+         */
+        public Builder systemSuffixes(String... suffixes) {
+            return route(Route.SYSTEM_ONLY, suffixes);
+        }
+
+        /**
+         * Whether hostnames containing a dot that match no suffix are looked up from the system resolver before
+         * docker. Services, container names and aliases rarely contain dots, while public and corporate hostnames
+         * nearly always do.
+         */
+        public Builder dottedNamesSystemFirst(boolean value) {
+            this.dottedNamesSystemFirst = value;
+            return this;
+        }
+
+        public HostRoutingPolicy build() {
+            return new HostRoutingPolicy(ImmutableMap.copyOf(routesBySuffix), dottedNamesSystemFirst);
+        }
+
+        private Builder route(Route route, String... suffixes) {
+            for (String suffix : suffixes) {
+                Preconditions.checkNotNull(suffix, "suffix");
+                String normalized = Hostnames.normalize(suffix.startsWith(".") ? suffix.substring(1) : suffix);
+                Preconditions.checkArgument(!normalized.isEmpty(), "Suffixes must not be empty");
+                routesBySuffix.put(normalized, route);
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import com.google.common.base.Ascii;
+import com.google.common.base.CharMatcher;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.docker.compose.configuration.ProjectName;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * HostnameUniverse is the set of hostnames that can ever resolve to one of a project's containers. Lookups for any
+ * other hostname miss without querying docker, which is otherwise the most expensive kind of lookup since a miss
+ * refreshes the container information in case the container has only just started.
+ *
+ * <p>Hostnames are compared ignoring case and a trailing dot.
+ */
+public final class HostnameUniverse {
+    private static final HostnameUniverse UNRESTRICTED =
+            new HostnameUniverse(false, ImmutableSet.of(), ImmutableSet.of(), ImmutableSet.of(), false);
+    private static final int CONTAINER_ID_HOSTNAME_LENGTH = 12;
+    private static final CharMatcher HEX = CharMatcher.anyOf("0123456789abcdef");
+
+    private final boolean restricted;
+    private final ImmutableSet<String> names;
+    private final ImmutableSet<String> containerNamePrefixes;
+    private final ImmutableSet<String> domainnames;
+    private final boolean containerIdHostnames;
+
+    private HostnameUniverse(
+            boolean restricted,
+            ImmutableSet<String> names,
+            ImmutableSet<String> containerNamePrefixes,
+            ImmutableSet<String> domainnames,
+            boolean containerIdHostnames) {
+        this.restricted = restricted;
+        this.names = names;
+        this.containerNamePrefixes = containerNamePrefixes;
+        this.domainnames = domainnames;
+        this.containerIdHostnames = containerIdHostnames;
+    }
+
+    /**
+     * Every hostname may resolve to a container, which is what docker-proxy-rule has always assumed.
+     */
+    public static HostnameUniverse unrestricted() {
+        return UNRESTRICTED;
+    }
+
+    /**
+     * Only exactly these hostnames may resolve to a container.
+     */
+    public static HostnameUniverse of(String... hostnames) {
+        return of(ImmutableList.copyOf(hostnames));
+    }
+
+    /**
+     * Only exactly these hostnames may resolve to a container.
+     */
+    public static HostnameUniverse of(Collection<String> hostnames) {
+        return new HostnameUniverse(true, normalize(hostnames), ImmutableSet.of(), ImmutableSet.of(), false);
+    }
+
+    /**
+     * Only the names declared in the given compose files may resolve to a container: service names, container names,
+     * {@code hostname}s, {@code domainname}s, {@code hostname} labels and network aliases. So may the names docker
+     * generates for containers that don't declare them, which start with the project name or, for hostnames, are the
+     * first 12 characters of the container ID.
+     *
+     * <p>Compose files that could declare names that can't be seen without fully interpreting them, such as with
+     * {@code extends}, merge keys or variable interpolation, result in an unrestricted universe, as do files that
+     * can't be parsed. So should images that set a {@code hostname} label, which isn't declared in the compose file.
+     */
+    public static HostnameUniverse fromComposeFiles(ProjectName projectName, Path... composeFiles) {
+        Set<String> names = new LinkedHashSet<>();
+        Set<String> domainnames = new LinkedHashSet<>();
+        for (Path composeFile : composeFiles) {
+            Optional<ComposeFileHostnames> hostnames = ComposeFileHostnames.scan(read(composeFile));
+            if (!hostnames.isPresent()) {
+                return UNRESTRICTED;
+            }
+            names.addAll(hostnames.get().getNames());
+            domainnames.addAll(hostnames.get().getDomainnames());
+        }
+        String project = Ascii.toLowerCase(projectName.asString());
+        return new HostnameUniverse(
+                true, normalize(names), ImmutableSet.of(project + "_", project + "-"), normalize(domainnames), true);
+    }
+
+    /**
+     * Returns whether a container could ever be known by this hostname.
+     */
+    public boolean mightResolve(String hostname) {
+        if (!restricted) {
+            return true;
+        }
+        String host = Hostnames.normalize(hostname);
+        if (names.contains(host)) {
+            return true;
+        }
+        if (containerIdHostnames && isContainerIdHostname(host)) {
+            return true;
+        }
+        return containerNamePrefixes.stream().anyMatch(host::startsWith);
+    }
+
+    private boolean isContainerIdHostname(String host) {
+        int dot = host.indexOf('.');
+        String hostnamePart = dot < 0 ? host : host.substring(0, dot);
+        return hostnamePart.length() == CONTAINER_ID_HOSTNAME_LENGTH
+                && HEX.matchesAllOf(hostnamePart)
+                && (dot < 0 || domainnames.contains(host.substring(dot + 1)));
+    }
+
+    private static ImmutableSet<String> normalize(Collection<String> hostnames) {
+        return hostnames.stream().map(Hostnames::normalize).collect(ImmutableSet.toImmutableSet());
+    }
+
+    private static String read(Path composeFile) {
+        try {
+            return new String(Files.readAllBytes(composeFile), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read compose file " + composeFile, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (!restricted) {
+            return "HostnameUniverse{unrestricted}";
+        }
+        return "HostnameUniverse{names=" + names
+                + ", containerNamePrefixes=" + containerNamePrefixes
+                + ", domainnames=" + domainnames
+                + ", containerIdHostnames=" + containerIdHostnames
+                + '}';
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import com.google.common.base.Ascii;
+
+/**
+ * Hostnames are compared ignoring case and a trailing dot, as DNS does.
+ */
+final class Hostnames {
+    private Hostnames() {}
+
+    /**
+     * Lowercases the hostname and drops a trailing dot, so that every spelling of a hostname is the same.
+     */
+    static String normalize(String hostname) {
+        String lowerCase = Ascii.toLowerCase(hostname);
+        return lowerCase.endsWith(".") ? lowerCase.substring(0, lowerCase.length() - 1) : lowerCase;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * HostsFileExporter keeps a hosts file listing every running container up to date with the {@link ContainerIndex},
+ * so that child JVMs started with {@code -Djdk.net.hosts.file} resolve containers without asking docker.
+ *
+ * <p>The file is replaced with an atomic rename, so readers see either the previous or the new contents but never a
+ * partially written file. It is only rewritten when its contents change, and if writing fails the previous file is
+ * kept until the next update.
+ */
+final class HostsFileExporter implements Consumer<ContainerIndex> {
+    // the JDK resolves nothing but the hosts file when it is set, so it has to know localhost too
+    private static final String HEADER =
+            "# Generated by docker-proxy-rule, changes will be overwritten\n127.0.0.1 localhost\n::1 localhost\n";
+
+    private final Path file;
+
+    @Nullable
+    @GuardedBy("this")
+    private String written;
+
+    HostsFileExporter(Path file) {
+        this.file = file.toAbsolutePath();
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    @Override
+    public synchronized void accept(ContainerIndex index) {
+        String contents = render(index);
+        if (contents.equals(written)) {
+            return;
+        }
+        try {
+            write(contents);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write hosts file " + file, e);
+        }
+        written = contents;
+    }
+
+    private void write(String contents) throws IOException {
+        Path directory = file.getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporary, contents.getBytes(StandardCharsets.UTF_8));
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    static String render(ContainerIndex index) {
+        Set<String> seen = new HashSet<>();
+        StringBuilder hosts = new StringBuilder(HEADER);
+        index.getContainers().values().forEach(container -> container.getIp().ifPresent(ip -> {
+            // the index answers with the first container to claim a name, so the file has to as well
+            String names = container.getNames().stream()
+                    .map(Hostnames::normalize)
+                    .filter(seen::add)
+                    .collect(Collectors.joining(" "));
+            if (!names.isEmpty()) {
+                hosts.append(ip).append(' ').append(names).append('\n');
+            }
+        }));
+        return hosts.toString();
+    }
+}
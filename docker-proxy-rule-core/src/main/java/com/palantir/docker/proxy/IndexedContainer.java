@@ -0,0 +1,88 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * What a {@link ContainerIndex} knows about a single container. The names, which include its network aliases, are
+ * fixed for the lifetime of the container while the start time, IP and published ports change whenever it is
+ * restarted. Aliases added by connecting a running container to another network are picked up once it restarts.
+ */
+final class IndexedContainer {
+    private final String containerId;
+    private final String startedAt;
+    private final ImmutableList<String> names;
+    private final Optional<String> ip;
+    private final ImmutableMap<Integer, Integer> publishedPorts;
+
+    IndexedContainer(String containerId, String startedAt, List<String> names, Optional<String> ip) {
+        this(containerId, startedAt, names, ip, ImmutableMap.of());
+    }
+
+    IndexedContainer(
+            String containerId,
+            String startedAt,
+            List<String> names,
+            Optional<String> ip,
+            Map<Integer, Integer> publishedPorts) {
+        this.containerId = containerId;
+        this.startedAt = startedAt;
+        this.names = ImmutableList.copyOf(names);
+        this.ip = ip;
+        this.publishedPorts = ImmutableMap.copyOf(publishedPorts);
+    }
+
+    String getContainerId() {
+        return containerId;
+    }
+
+    String getStartedAt() {
+        return startedAt;
+    }
+
+    ImmutableList<String> getNames() {
+        return names;
+    }
+
+    Optional<String> getIp() {
+        return ip;
+    }
+
+    /**
+     * The host ports that the container's TCP ports are published on, keyed by container port.
+     */
+    ImmutableMap<Integer, Integer> getPublishedPorts() {
+        return publishedPorts;
+    }
+
+    IndexedContainer withState(Optional<String> newIp, Map<Integer, Integer> newPublishedPorts) {
+        return newIp.equals(ip) && newPublishedPorts.equals(publishedPorts)
+                ? this
+                : new IndexedContainer(containerId, startedAt, names, newIp, newPublishedPorts);
+    }
+
+    @Override
+    public String toString() {
+        return "IndexedContainer{containerId=" + containerId + ", startedAt=" + startedAt + ", names=" + names + ", ip="
+                + ip + ", publishedPorts=" + publishedPorts + '}';
+    }
+}
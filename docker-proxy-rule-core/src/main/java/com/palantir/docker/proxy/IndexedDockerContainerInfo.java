@@ -0,0 +1,238 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.palantir.logsafe.Preconditions;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * IndexedDockerContainerInfo answers lookups from a {@link SharedContainerIndex} while it is open, so that every
+ * {@link DockerProxyManager} looking at the same containers shares one index. Lookups that miss refresh the index in
+ * case the container has only just started, unless the same lookup missed within the policy's negative TTL.
+ */
+@SuppressWarnings("checkstyle:BanGuavaCaches")
+final class IndexedDockerContainerInfo implements DockerContainerInfo {
+    private final DockerContainerInfo delegate;
+    private final ContainerIndexSource source;
+    private final CachePolicy policy;
+    private final Cache<String, Boolean> misses;
+    private final Cache<String, Boolean> connectFailures;
+
+    @GuardedBy("this")
+    private final Set<Consumer<ContainerIndex>> updateListeners = new LinkedHashSet<>();
+
+    @Nullable
+    private volatile SharedContainerIndex sharedIndex;
+
+    IndexedDockerContainerInfo(DockerContainerInfo delegate, ContainerIndexSource source, CachePolicy policy) {
+        this.delegate = delegate;
+        this.source = source;
+        this.policy = policy;
+        this.misses = CacheBuilder.newBuilder()
+                .maximumSize(policy.getNegativeTtl().isZero() ? 0 : policy.getMaxEntries())
+                .expireAfterWrite(policy.getNegativeTtl().toNanos(), TimeUnit.NANOSECONDS)
+                .build();
+        // remembers which containers were refreshed for recently, so that a burst of failures refreshes once
+        this.connectFailures = CacheBuilder.newBuilder()
+                .maximumSize(policy.getMaxEntries())
+                .expireAfterWrite(policy.getConnectFailureRefreshInterval().toNanos(), TimeUnit.NANOSECONDS)
+                .build();
+    }
+
+    synchronized void open() {
+        if (sharedIndex == null) {
+            sharedIndex = SharedContainerIndex.acquire(source, policy);
+        }
+    }
+
+    synchronized void close() {
+        if (sharedIndex != null) {
+            // the shared index outlives this, so it must stop calling our listeners
+            updateListeners.forEach(sharedIndex::removeUpdateListener);
+            updateListeners.clear();
+            sharedIndex.release();
+            sharedIndex = null;
+        }
+    }
+
+    /**
+     * Starts loading the complete index in the background. Must be called while open.
+     */
+    CompletableFuture<ContainerIndex> warmUp() {
+        SharedContainerIndex index = sharedIndex;
+        Preconditions.checkState(index != null, "Container index must be opened before it is warmed up");
+        return index.warmUp();
+    }
+
+    /**
+     * Calls the listener with the current index and then with every index loaded or refreshed until the listener is
+     * removed or this is closed, as described by {@link SharedContainerIndex#addUpdateListener}. Must be called while
+     * open.
+     */
+    synchronized void addUpdateListener(Consumer<ContainerIndex> listener) {
+        Preconditions.checkState(sharedIndex != null, "Container index must be opened before listening for updates");
+        sharedIndex.addUpdateListener(listener);
+        updateListeners.add(listener);
+    }
+
+    synchronized void removeUpdateListener(Consumer<ContainerIndex> listener) {
+        if (updateListeners.remove(listener) && sharedIndex != null) {
+            sharedIndex.removeUpdateListener(listener);
+        }
+    }
+
+    /**
+     * Waits until every hostname is in the index, and returns the ones that are still missing once the timeout passes.
+     * When polling, refreshes are requested with backoff. With events, refreshes triggered by docker wake the waiter.
+     */
+    Set<String> awaitHosts(Collection<String> hostnames, Duration timeout) throws InterruptedException {
+        SharedContainerIndex index = sharedIndex;
+        Preconditions.checkState(index != null, "Container index must be opened before waiting for hosts");
+        long deadlineNanos = System.nanoTime() + timeout.toNanos();
+        Backoff backoff = new Backoff();
+        // the index may predate the containers being waited for, so always refresh at least once
+        boolean refreshRequested = false;
+        long nextRefreshNanos = System.nanoTime();
+        while (true) {
+            long seenUpdates = index.updateCount();
+            ContainerIndex current = index.current();
+            Set<String> missing = hostnames.stream()
+                    .filter(hostname -> !current.getIpForHost(hostname).isPresent())
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            long now = System.nanoTime();
+            if (missing.isEmpty() || deadlineNanos - now <= 0) {
+                return missing;
+            }
+
+            if ((!refreshRequested || !index.isEventDriven()) && now - nextRefreshNanos >= 0) {
+                index.requestRefresh();
+                refreshRequested = true;
+                nextRefreshNanos = now + backoff.nextDelayNanos();
+            }
+            long wakeAtNanos = index.isEventDriven() ? deadlineNanos : earliest(deadlineNanos, nextRefreshNanos);
+            index.awaitUpdate(seenUpdates, wakeAtNanos - now);
+        }
+    }
+
+    @Override
+    public Optional<String> getIpForHost(String hostname) {
+        if (!source.mightResolve(hostname)) {
+            return Optional.empty();
+        }
+        return lookup("host:" + hostname, index -> index.getIpForHost(hostname));
+    }
+
+    @Override
+    public Optional<String> getHostForIp(String ip) {
+        return lookup("ip:" + ip, index -> index.getHostForIp(ip));
+    }
+
+    /**
+     * Answered from the current index without refreshing.
+     */
+    @Override
+    public Optional<String> getKnownIpForHost(String hostname) {
+        if (!source.mightResolve(hostname)) {
+            return Optional.empty();
+        }
+        return currentIndex().getIpForHost(hostname);
+    }
+
+    /**
+     * Answered from the current index without refreshing.
+     */
+    @Override
+    public Optional<String> getKnownHostForIp(String ip) {
+        return currentIndex().getHostForIp(ip);
+    }
+
+    /**
+     * Answered from the current index without refreshing, since most ports are not published.
+     */
+    @Override
+    public Optional<Integer> getPublishedPort(String hostOrIp, int port) {
+        return currentIndex().getPublishedPort(hostOrIp, port);
+    }
+
+    /**
+     * Refreshes the index before returning, so that a client retrying straight away finds the container's new IP.
+     * Concurrent failures share the refresh, and failures to the same container within the policy's connect failure
+     * refresh interval of the last one return straight away.
+     */
+    @Override
+    public void connectFailed(String hostOrIp) {
+        SharedContainerIndex index = sharedIndex;
+        if (index == null
+                || policy.getConnectFailureRefreshInterval().isZero()
+                || connectFailures.asMap().putIfAbsent(Hostnames.normalize(hostOrIp), true) != null) {
+            return;
+        }
+        try {
+            index.refresh();
+        } catch (RuntimeException e) {
+            // the client already has a failure to report, the next lookup that misses will surface ours
+        }
+    }
+
+    @Override
+    public String getNetworkName() {
+        return delegate.getNetworkName();
+    }
+
+    @Override
+    public Optional<String> getImageNameOverride() {
+        return delegate.getImageNameOverride();
+    }
+
+    private ContainerIndex currentIndex() {
+        SharedContainerIndex index = sharedIndex;
+        return index == null ? source.refreshIndex() : index.current();
+    }
+
+    private static long earliest(long firstNanos, long secondNanos) {
+        return firstNanos - secondNanos < 0 ? firstNanos : secondNanos;
+    }
+
+    private Optional<String> lookup(String key, Function<ContainerIndex, Optional<String>> query) {
+        SharedContainerIndex index = sharedIndex;
+        if (index == null) {
+            return query.apply(source.refreshIndex());
+        }
+        Optional<String> result = query.apply(index.current());
+        if (result.isPresent() || misses.getIfPresent(key) != null) {
+            return result;
+        }
+        Optional<String> refreshed = query.apply(index.refresh());
+        if (!refreshed.isPresent()) {
+            misses.put(key, true);
+        }
+        return refreshed;
+    }
+}
@@ -16,20 +16,25 @@
 
 package com.palantir.docker.proxy;
 
+import com.google.common.collect.ImmutableList;
 import com.palantir.docker.compose.execution.DockerExecutable;
+import java.io.IOException;
 import java.util.Optional;
-import one.util.streamex.StreamEx;
 
-public final class NetworkBasedDockerContainerInfo implements DockerContainerInfo {
-    private final DockerExecutable docker;
+public final class NetworkBasedDockerContainerInfo implements DockerContainerInfo, ContainerIndexSource {
     private final String networkName;
     private final Optional<String> imageNameOverride;
+    private final DockerExecutable docker;
+    private final ContainerIndexer indexer;
 
     public NetworkBasedDockerContainerInfo(
             DockerExecutable docker, String networkName, Optional<String> imageNameOverride) {
-        this.docker = docker;
         this.networkName = networkName;
         this.imageNameOverride = imageNameOverride;
+        this.docker = docker;
+        this.indexer = new ContainerIndexer(
+                docker,
+                () -> DockerContainerInfoUtils.getContainerEndpointsOnNetworks(docker, ImmutableList.of(networkName)));
     }
 
     public NetworkBasedDockerContainerInfo(DockerExecutable docker, String networkName) {
@@ -38,25 +43,33 @@ public final class NetworkBasedDockerContainerInfo implements DockerContainerInf
 
     @Override
     public Optional<String> getIpForHost(String hostname) {
-        return StreamEx.of(DockerContainerInfoUtils.getContainerIdsOnNetwork(docker, networkName))
-                .mapToEntry(containerId -> DockerContainerInfoUtils.getAllNamesForContainerId(docker, containerId))
-                .filterValues(names -> names.contains(hostname))
-                .mapToValue((containerId, _names) -> DockerContainerInfoUtils.getContainerIpFromId(docker, containerId))
-                .filterValues(Optional::isPresent)
-                .mapValues(Optional::get)
-                .values()
-                .findAny();
+        return refreshIndex().getIpForHost(hostname);
     }
 
     @Override
     public Optional<String> getHostForIp(String ip) {
-        return StreamEx.of(DockerContainerInfoUtils.getContainerIdsOnNetwork(docker, networkName))
-                .mapToEntry(containerId -> DockerContainerInfoUtils.getContainerIpFromId(docker, containerId))
-                .filterValues(Optional::isPresent)
-                .mapValues(Optional::get)
-                .filterValues(ip::equals)
-                .keys()
-                .findAny();
+        return refreshIndex().getHostForIp(ip);
+    }
+
+    @Override
+    public ContainerIndex refreshIndex() {
+        return indexer.refresh();
+    }
+
+    @Override
+    public Optional<Process> watchEvents() throws IOException {
+        return Optional.of(DockerContainerInfoUtils.watchEvents(
+                docker,
+                ImmutableList.of(
+                        "type=network",
+                        "network=" + networkName,
+                        "event=connect",
+                        "event=disconnect")));
+    }
+
+    @Override
+    public String getIndexKey() {
+        return "network:" + networkName;
     }
 
     @Override
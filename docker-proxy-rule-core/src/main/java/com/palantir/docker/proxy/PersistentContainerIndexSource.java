@@ -0,0 +1,264 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * PersistentContainerIndexSource shares a {@link ContainerIndex} between JVMs through a memory-mapped file, so that
+ * forked test JVMs looking at the same containers don't each query docker for them.
+ *
+ * <p>The file is keyed by the index key and the docker daemon ID. Readers never lock: the header holds a generation
+ * counter that is odd while a write is in progress, and readers retry until they see the same even generation before
+ * and after reading the payload. Writers are elected through a lock on a sibling file, and a JVM that waited for the
+ * lock reuses what the previous holder wrote if it is recent enough instead of querying docker again.
+ *
+ * <p>Enabled by setting the {@value #DIRECTORY_PROPERTY} system property to a directory, for example one under the
+ * build directory.
+ */
+final class PersistentContainerIndexSource implements ContainerIndexSource {
+    static final String DIRECTORY_PROPERTY = "com.palantir.docker.proxy.indexDirectory";
+
+    private static final VarHandle HEADER =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final long MAGIC = 0x4450524f58594958L;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int GENERATION_OFFSET = 8;
+    private static final int REFRESHED_AT_OFFSET = 16;
+    private static final int LENGTH_OFFSET = 24;
+    private static final int HEADER_SIZE = 32;
+    private static final int MAX_READ_ATTEMPTS = 1000;
+
+    // FileLocks are held by the whole JVM, so threads in the same JVM have to take turns before locking the file
+    private static final ConcurrentMap<Path, Object> JVM_LOCKS = new ConcurrentHashMap<>();
+
+    private static final Splitter FIELD_SPLITTER = Splitter.on('\t');
+    private static final Splitter NAME_SPLITTER = Splitter.on(',').omitEmptyStrings();
+    private static final Joiner NAME_JOINER = Joiner.on(',');
+    private static final Joiner.MapJoiner PORT_JOINER = Joiner.on(',').withKeyValueSeparator('=');
+    private static final Splitter.MapSplitter PORT_SPLITTER =
+            Splitter.on(',').omitEmptyStrings().withKeyValueSeparator('=');
+
+    private final ContainerIndexSource delegate;
+    private final Path directory;
+    private final Supplier<String> daemonId;
+
+    PersistentContainerIndexSource(ContainerIndexSource delegate, Path directory, Supplier<String> daemonId) {
+        this.delegate = delegate;
+        this.directory = directory;
+        this.daemonId = daemonId;
+    }
+
+    @Override
+    public ContainerIndex refreshIndex() {
+        return refreshUnlessRefreshedSince(System.currentTimeMillis());
+    }
+
+    @Override
+    public ContainerIndex loadIndex(Duration maxAge) {
+        long acceptableSinceMillis = System.currentTimeMillis() - maxAge.toMillis();
+        Optional<Snapshot> snapshot = read(indexFile());
+        if (snapshot.isPresent() && snapshot.get().refreshedAtMillis >= acceptableSinceMillis) {
+            return snapshot.get().index;
+        }
+        return refreshUnlessRefreshedSince(acceptableSinceMillis);
+    }
+
+    @Override
+    public Optional<Process> watchEvents() throws IOException {
+        return delegate.watchEvents();
+    }
+
+    @Override
+    public boolean mightResolve(String hostname) {
+        return delegate.mightResolve(hostname);
+    }
+
+    @Override
+    public String getIndexKey() {
+        return delegate.getIndexKey();
+    }
+
+    private ContainerIndex refreshUnlessRefreshedSince(long acceptableSinceMillis) {
+        Path indexFile = indexFile();
+        Path lockFile = indexFile.resolveSibling(indexFile.getFileName() + ".lock");
+        synchronized (JVM_LOCKS.computeIfAbsent(lockFile.toAbsolutePath(), _path -> new Object())) {
+            try {
+                Files.createDirectories(directory);
+                try (FileChannel lockChannel =
+                                FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                        FileLock _lock = lockChannel.lock()) {
+                    // another JVM may have refreshed while we were waiting for the lock
+                    Optional<Snapshot> snapshot = read(indexFile);
+                    if (snapshot.isPresent() && snapshot.get().refreshedAtMillis >= acceptableSinceMillis) {
+                        return snapshot.get().index;
+                    }
+
+                    long refreshedAtMillis = System.currentTimeMillis();
+                    ContainerIndex index = delegate.refreshIndex();
+                    write(indexFile, refreshedAtMillis, encode(index));
+                    return index;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to update shared container index " + indexFile, e);
+            }
+        }
+    }
+
+    private Path indexFile() {
+        String name = (getIndexKey() + "-" + daemonId.get()).replaceAll("[^A-Za-z0-9._-]", "_");
+        return directory.resolve(name + ".index");
+    }
+
+    private static Optional<Snapshot> read(Path indexFile) {
+        if (!Files.exists(indexFile)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = null;
+            for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+                long size = channel.size();
+                if (size < HEADER_SIZE) {
+                    return Optional.empty();
+                }
+                if (buffer == null || buffer.capacity() < size) {
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                }
+
+                long generation = (long) HEADER.getVolatile(buffer, GENERATION_OFFSET);
+                if ((generation & 1) != 0) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                if ((long) HEADER.getVolatile(buffer, MAGIC_OFFSET) != MAGIC) {
+                    return Optional.empty();
+                }
+                long refreshedAtMillis = (long) HEADER.getVolatile(buffer, REFRESHED_AT_OFFSET);
+                long length = (long) HEADER.getVolatile(buffer, LENGTH_OFFSET);
+                if (HEADER_SIZE + length > buffer.capacity()) {
+                    // the file grew since we mapped it
+                    buffer = null;
+                    continue;
+                }
+                byte[] payload = new byte[(int) length];
+                ByteBuffer view = buffer.duplicate();
+                view.position(HEADER_SIZE);
+                view.get(payload);
+
+                VarHandle.acquireFence();
+                if ((long) HEADER.getVolatile(buffer, GENERATION_OFFSET) == generation) {
+                    return Optional.of(new Snapshot(refreshedAtMillis, decode(payload)));
+                }
+            }
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read shared container index " + indexFile, e);
+        }
+    }
+
+    private static void write(Path indexFile, long refreshedAtMillis, byte[] payload) throws IOException {
+        try (FileChannel channel = FileChannel.open(
+                indexFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // never shrink the file, readers may have mapped all of it
+            long size = Math.max(channel.size(), HEADER_SIZE + payload.length);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+            long generation = (long) HEADER.getVolatile(buffer, GENERATION_OFFSET);
+            long writingGeneration = (generation & 1) == 0 ? generation + 1 : generation + 2;
+            HEADER.setVolatile(buffer, GENERATION_OFFSET, writingGeneration);
+
+            ByteBuffer view = buffer.duplicate();
+            view.position(HEADER_SIZE);
+            view.put(payload);
+            HEADER.setVolatile(buffer, LENGTH_OFFSET, (long) payload.length);
+            HEADER.setVolatile(buffer, REFRESHED_AT_OFFSET, refreshedAtMillis);
+            HEADER.setVolatile(buffer, MAGIC_OFFSET, MAGIC);
+
+            HEADER.setVolatile(buffer, GENERATION_OFFSET, writingGeneration + 1);
+            buffer.force();
+        }
+    }
+
+    private static byte[] encode(ContainerIndex index) {
+        return index.getContainers().values().stream()
+                .map(container -> String.join(
+                        "\t",
+                        container.getContainerId(),
+                        container.getStartedAt(),
+                        container.getIp().orElse(""),
+                        NAME_JOINER.join(container.getNames()),
+                        PORT_JOINER.join(container.getPublishedPorts())))
+                .collect(Collectors.joining("\n"))
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static ContainerIndex decode(byte[] payload) {
+        ImmutableList.Builder<IndexedContainer> containers = ImmutableList.builder();
+        for (String line : Splitter.on('\n').omitEmptyStrings().split(new String(payload, StandardCharsets.UTF_8))) {
+            List<String> fields = FIELD_SPLITTER.splitToList(line);
+            Map<Integer, Integer> publishedPorts = new LinkedHashMap<>();
+            // files written by older versions have no ports
+            if (fields.size() > 4) {
+                PORT_SPLITTER
+                        .split(fields.get(4))
+                        .forEach((containerPort, hostPort) ->
+                                publishedPorts.put(Integer.parseInt(containerPort), Integer.parseInt(hostPort)));
+            }
+            containers.add(new IndexedContainer(
+                    fields.get(0),
+                    fields.get(1),
+                    NAME_SPLITTER.splitToList(fields.get(3)),
+                    fields.get(2).isEmpty() ? Optional.empty() : Optional.of(fields.get(2)),
+                    publishedPorts));
+        }
+        return ContainerIndex.of(containers.build());
+    }
+
+    private static final class Snapshot {
+        private final long refreshedAtMillis;
+        private final ContainerIndex index;
+
+        Snapshot(long refreshedAtMillis, ContainerIndex index) {
+            this.refreshedAtMillis = refreshedAtMillis;
+            this.index = index;
+        }
+    }
+}
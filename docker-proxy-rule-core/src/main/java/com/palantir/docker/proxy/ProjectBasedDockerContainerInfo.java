@@ -16,53 +16,96 @@
 
 package com.palantir.docker.proxy;
 
+import com.google.common.collect.ImmutableList;
 import com.palantir.docker.compose.configuration.ProjectName;
 import com.palantir.docker.compose.execution.DockerExecutable;
+import java.io.IOException;
 import java.util.Optional;
-import one.util.streamex.StreamEx;
 
-public final class ProjectBasedDockerContainerInfo implements DockerContainerInfo {
-    private final DockerExecutable docker;
+public final class ProjectBasedDockerContainerInfo implements DockerContainerInfo, ContainerIndexSource {
     private final ProjectName projectName;
     private final Optional<String> imageNameOverride;
     private final Optional<String> networkNameOverride;
+    private final DockerExecutable docker;
+    private final HostnameUniverse hostnameUniverse;
+    private final ContainerIndexer indexer;
 
     public ProjectBasedDockerContainerInfo(
             DockerExecutable docker,
             ProjectName projectName,
             Optional<String> imageNameOverride,
             Optional<String> networkNameOverride) {
-        this.docker = docker;
+        this(docker, projectName, imageNameOverride, networkNameOverride, HostnameUniverse.unrestricted());
+    }
+
+    /**
+     * Creates a {@link ProjectBasedDockerContainerInfo} that answers lookups for hostnames outside the given universe
+     * without querying docker.
+     */
+    public ProjectBasedDockerContainerInfo(
+            DockerExecutable docker,
+            ProjectName projectName,
+            Optional<String> imageNameOverride,
+            Optional<String> networkNameOverride,
+            HostnameUniverse hostnameUniverse) {
         this.projectName = projectName;
         this.imageNameOverride = imageNameOverride;
         this.networkNameOverride = networkNameOverride;
+        this.docker = docker;
+        this.hostnameUniverse = hostnameUniverse;
+        this.indexer = new ContainerIndexer(
+                docker,
+                () -> DockerContainerInfoUtils.getContainerEndpointsInDockerComposeProject(docker, projectName));
     }
 
     public ProjectBasedDockerContainerInfo(DockerExecutable docker, ProjectName projectName) {
         this(docker, projectName, Optional.empty(), Optional.empty());
     }
 
+    public ProjectBasedDockerContainerInfo(
+            DockerExecutable docker, ProjectName projectName, HostnameUniverse hostnameUniverse) {
+        this(docker, projectName, Optional.empty(), Optional.empty(), hostnameUniverse);
+    }
+
     @Override
     public Optional<String> getIpForHost(String hostname) {
-        return StreamEx.of(DockerContainerInfoUtils.getContainerIdsInDockerComposeProject(docker, projectName))
-                .mapToEntry(containerId -> DockerContainerInfoUtils.getAllNamesForContainerId(docker, containerId))
-                .filterValues(names -> names.contains(hostname))
-                .mapToValue((containerId, _names) -> DockerContainerInfoUtils.getContainerIpFromId(docker, containerId))
-                .filterValues(Optional::isPresent)
-                .mapValues(Optional::get)
-                .values()
-                .findAny();
+        if (!hostnameUniverse.mightResolve(hostname)) {
+            return Optional.empty();
+        }
+        return refreshIndex().getIpForHost(hostname);
     }
 
     @Override
     public Optional<String> getHostForIp(String ip) {
-        return StreamEx.of(DockerContainerInfoUtils.getContainerIdsInDockerComposeProject(docker, projectName))
-                .mapToEntry(containerId -> DockerContainerInfoUtils.getContainerIpFromId(docker, containerId))
-                .filterValues(Optional::isPresent)
-                .mapValues(Optional::get)
-                .filterValues(ip::equals)
-                .keys()
-                .findAny();
+        return refreshIndex().getHostForIp(ip);
+    }
+
+    @Override
+    public ContainerIndex refreshIndex() {
+        return indexer.refresh();
+    }
+
+    @Override
+    public Optional<Process> watchEvents() throws IOException {
+        return Optional.of(DockerContainerInfoUtils.watchEvents(
+                docker,
+                ImmutableList.of(
+                        "type=container",
+                        "label=com.docker.compose.project=" + projectName.asString(),
+                        "event=start",
+                        "event=die",
+                        "event=destroy",
+                        "event=rename")));
+    }
+
+    @Override
+    public boolean mightResolve(String hostname) {
+        return hostnameUniverse.mightResolve(hostname);
+    }
+
+    @Override
+    public String getIndexKey() {
+        return "project:" + projectName.asString();
     }
 
     @Override
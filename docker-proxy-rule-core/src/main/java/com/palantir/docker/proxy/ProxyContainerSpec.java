@@ -0,0 +1,76 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.docker.compose.connection.Container;
+import com.palantir.docker.compose.connection.waiting.HealthCheck;
+import java.util.List;
+
+/**
+ * ProxyContainerSpec describes the container that runs the SOCKS5 proxy, so that SOCKS5 implementations other than
+ * dante can be plugged in and benchmarked against it. The container joins the docker network being proxied to and
+ * must accept SOCKS5 CONNECT requests without authentication on {@link #getPort()}.
+ */
+public interface ProxyContainerSpec {
+    /**
+     * The image to run, unless overridden by {@link DockerContainerInfo#getImageNameOverride()}.
+     */
+    String getImage();
+
+    /**
+     * The port the proxy listens on inside the container.
+     */
+    int getPort();
+
+    /**
+     * The docker-compose command of the proxy service, with any configuration the proxy needs rendered into it.
+     */
+    String renderCommand();
+
+    /**
+     * Additional docker-compose options of the proxy service, such as resource limits, one per line.
+     */
+    default List<String> renderServiceOptions() {
+        return ImmutableList.of();
+    }
+
+    /**
+     * Checked until the proxy is ready to accept connections.
+     */
+    default HealthCheck<Container> getReadinessProbe() {
+        return Container::areAllPortsOpen;
+    }
+
+    /**
+     * The dante proxy docker-proxy-rule has always run.
+     */
+    static ProxyContainerSpec dante() {
+        return dante(SocksProxyConfig.defaults());
+    }
+
+    static ProxyContainerSpec dante(SocksProxyConfig config) {
+        return new DanteProxyContainerSpec(config);
+    }
+
+    /**
+     * A proxy run by a single small Go binary, which starts faster than dante.
+     */
+    static ProxyContainerSpec gost() {
+        return GostProxyContainerSpec.INSTANCE;
+    }
+}
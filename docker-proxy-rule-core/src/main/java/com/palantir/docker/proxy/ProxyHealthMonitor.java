@@ -0,0 +1,136 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ProxyHealthMonitor checks that the proxy container still answers SOCKS5 greetings, and restarts it once it has
+ * stopped answering for {@link ProxyHealthPolicy#getFailureThreshold()} checks in a row. The restarted proxy may be
+ * published on a different port, so its address is swapped in for the selector and connector to pick up.
+ */
+final class ProxyHealthMonitor implements Closeable {
+    private static final byte[] GREETING = {5, 1, 0};
+    private static final byte SOCKS_VERSION = 5;
+    private static final byte NO_AUTHENTICATION = 0;
+    private static final Duration RESTART_POLL_INTERVAL = Duration.ofMillis(100);
+
+    private final ProxyHealthPolicy policy;
+    private final AtomicReference<InetSocketAddress> proxyAddress;
+    private final ProxyRestarter restarter;
+    private final ScheduledExecutorService executor;
+
+    // only used from the executor's thread
+    private int consecutiveFailures = 0;
+
+    @VisibleForTesting
+    ProxyHealthMonitor(
+            ProxyHealthPolicy policy, AtomicReference<InetSocketAddress> proxyAddress, ProxyRestarter restarter) {
+        this.policy = policy;
+        this.proxyAddress = proxyAddress;
+        this.restarter = restarter;
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("docker-proxy-health-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    static ProxyHealthMonitor start(
+            ProxyHealthPolicy policy, AtomicReference<InetSocketAddress> proxyAddress, ProxyRestarter restarter) {
+        ProxyHealthMonitor monitor = new ProxyHealthMonitor(policy, proxyAddress, restarter);
+        long intervalMillis = policy.getCheckInterval().toMillis();
+        monitor.executor.scheduleWithFixedDelay(monitor::check, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        return monitor;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    @VisibleForTesting
+    void check() {
+        if (isHealthy(proxyAddress.get(), policy.getCheckTimeout())) {
+            consecutiveFailures = 0;
+            return;
+        }
+        consecutiveFailures++;
+        if (consecutiveFailures < policy.getFailureThreshold()) {
+            return;
+        }
+        consecutiveFailures = 0;
+        try {
+            InetSocketAddress restarted = restarter.restart();
+            awaitHealthy(restarted);
+            // the old address belonged to the container before it restarted, so it is no use even if the restarted
+            // proxy is still starting up
+            proxyAddress.set(restarted);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            // docker may be unavailable, the restart is tried again once enough checks have failed
+        }
+    }
+
+    private void awaitHealthy(InetSocketAddress address) throws InterruptedException {
+        long deadline = System.nanoTime() + policy.getRestartTimeout().toNanos();
+        while (!isHealthy(address, policy.getCheckTimeout()) && System.nanoTime() - deadline < 0) {
+            Thread.sleep(RESTART_POLL_INTERVAL.toMillis());
+        }
+    }
+
+    /**
+     * Returns whether the proxy accepts a connection and agrees to a SOCKS5 session without authentication within the
+     * timeout.
+     */
+    @VisibleForTesting
+    static boolean isHealthy(InetSocketAddress address, Duration timeout) {
+        int timeoutMillis = Ints.saturatedCast(timeout.toMillis());
+        // never route the check itself through a proxy selected for the JVM
+        try (Socket socket = new Socket(Proxy.NO_PROXY)) {
+            socket.connect(address, timeoutMillis);
+            socket.setSoTimeout(timeoutMillis);
+            socket.getOutputStream().write(GREETING);
+            byte[] reply = new byte[2];
+            new DataInputStream(socket.getInputStream()).readFully(reply);
+            return reply[0] == SOCKS_VERSION && reply[1] == NO_AUTHENTICATION;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @FunctionalInterface
+    interface ProxyRestarter {
+        /**
+         * Restarts the proxy container and returns the address it is now published on.
+         */
+        InetSocketAddress restart() throws IOException, InterruptedException;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import com.palantir.logsafe.Preconditions;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * ProxyHealthPolicy controls how the proxy container is checked while it is running, and when it is restarted.
+ *
+ * <p>Every check opens a connection to the proxy and performs a SOCKS5 greeting. Once enough checks in a row have
+ * failed the proxy container is restarted, and the new address is used once the proxy answers again.
+ */
+public final class ProxyHealthPolicy {
+    private static final ProxyHealthPolicy DEFAULT = builder().build();
+
+    private final Duration checkInterval;
+    private final Duration checkTimeout;
+    private final int failureThreshold;
+    private final Duration restartTimeout;
+
+    private ProxyHealthPolicy(
+            Duration checkInterval, Duration checkTimeout, int failureThreshold, Duration restartTimeout) {
+        this.checkInterval = checkInterval;
+        this.checkTimeout = checkTimeout;
+        this.failureThreshold = failureThreshold;
+        this.restartTimeout = restartTimeout;
+    }
+
+    public static ProxyHealthPolicy defaults() {
+        return DEFAULT;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * How often the proxy is checked.
+     */
+    public Duration getCheckInterval() {
+        return checkInterval;
+    }
+
+    /**
+     * How long a check may take to connect to the proxy and read its answer before it counts as failed.
+     */
+    public Duration getCheckTimeout() {
+        return checkTimeout;
+    }
+
+    /**
+     * How many checks in a row must fail before the proxy container is restarted.
+     */
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    /**
+     * How long a restarted proxy has to start answering before checking resumes as usual.
+     */
+    public Duration getRestartTimeout() {
+        return restartTimeout;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        ProxyHealthPolicy that = (ProxyHealthPolicy) other;
+        return failureThreshold == that.failureThreshold
+                && checkInterval.equals(that.checkInterval)
+                && checkTimeout.equals(that.checkTimeout)
+                && restartTimeout.equals(that.restartTimeout);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(checkInterval, checkTimeout, failureThreshold, restartTimeout);
+    }
+
+    @Override
+    public String toString() {
+        return "ProxyHealthPolicy{checkInterval=" + checkInterval
+                + ", checkTimeout=" + checkTimeout
+                + ", failureThreshold=" + failureThreshold
+                + ", restartTimeout=" + restartTimeout
+                + '}';
+    }
+
+    public static final class Builder {
+        private Duration checkInterval = Duration.ofSeconds(5);
+        private Duration checkTimeout = Duration.ofSeconds(2);
+        private int failureThreshold = 3;
+        private Duration restartTimeout = Duration.ofSeconds(30);
+
+        private Builder() {}
+
+        public Builder checkInterval(Duration value) {
+            this.checkInterval = Preconditions.checkNotNull(value, "checkInterval");
+            return this;
+        }
+
+        public Builder checkTimeout(Duration value) {
+            this.checkTimeout = Preconditions.checkNotNull(value, "checkTimeout");
+            return this;
+        }
+
+        public Builder failureThreshold(int value) {
+            this.failureThreshold = value;
+            return this;
+        }
+
+        public Builder restartTimeout(Duration value) {
+            this.restartTimeout = Preconditions.checkNotNull(value, "restartTimeout");
+            return this;
+        }
+
+        public ProxyHealthPolicy build() {
+            Preconditions.checkArgument(
+                    !checkInterval.isNegative() && !checkInterval.isZero(), "checkInterval must be positive");
+            Preconditions.checkArgument(
+                    !checkTimeout.isNegative() && !checkTimeout.isZero(), "checkTimeout must be positive");
+            Preconditions.checkArgument(failureThreshold > 0, "failureThreshold must be positive");
+            Preconditions.checkArgument(!restartTimeout.isNegative(), "restartTimeout must not be negative");
+            return new ProxyHealthPolicy(checkInterval, checkTimeout, failureThreshold, restartTimeout);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+/**
+ * How connections to containers are spread across the proxy containers when there is more than one of them. Either
+ * way, the other proxies follow the chosen one in the list a {@link java.net.ProxySelector} returns, so that clients
+ * that try every proxy fail over to them.
+ */
+public enum ProxySharding {
+    /**
+     * Connections to the same container always go through the same proxy, so that each proxy only serves some of the
+     * containers.
+     */
+    DESTINATION_HASH,
+    /**
+     * Each connection goes through the proxy that was used least recently, spreading the load evenly even when most
+     * connections go to the same container.
+     */
+    LEAST_RECENTLY_USED
+}
@@ -0,0 +1,99 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hashing;
+import com.palantir.logsafe.Preconditions;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * ProxyShards picks which of the SOCKS proxy containers a connection goes through, according to a
+ * {@link ProxySharding}. The addresses are read on every pick, so that they can move when a proxy is restarted.
+ */
+final class ProxyShards {
+    private final List<Supplier<InetSocketAddress>> addresses;
+    private final ProxySharding sharding;
+    private final AtomicLongArray lastUsed;
+    private final AtomicLong uses = new AtomicLong();
+
+    ProxyShards(List<Supplier<InetSocketAddress>> addresses, ProxySharding sharding) {
+        Preconditions.checkArgument(!addresses.isEmpty(), "At least one proxy is needed");
+        this.addresses = ImmutableList.copyOf(addresses);
+        this.sharding = sharding;
+        this.lastUsed = new AtomicLongArray(addresses.size());
+    }
+
+    static ProxyShards single(Supplier<InetSocketAddress> address) {
+        return new ProxyShards(ImmutableList.of(address), ProxySharding.DESTINATION_HASH);
+    }
+
+    /**
+     * The name of the compose service running the given proxy. The first keeps the name there has always been a
+     * single proxy under.
+     */
+    static String containerName(int shard) {
+        String name = DockerProxySelector.PROXY_CONTAINER_NAME;
+        return shard == 0 ? name : name + "-" + shard;
+    }
+
+    /**
+     * The address of the first proxy, for clients that can only be given one.
+     */
+    InetSocketAddress primary() {
+        return addresses.get(0).get();
+    }
+
+    /**
+     * Returns the address of every proxy, starting with the one a connection to the given host should go through and
+     * continuing with the others in turn.
+     */
+    List<InetSocketAddress> select(String host) {
+        int shards = addresses.size();
+        if (shards == 1) {
+            return ImmutableList.of(primary());
+        }
+        return startingFrom(
+                sharding == ProxySharding.DESTINATION_HASH
+                        ? Hashing.consistentHash(Hostnames.normalize(host).hashCode(), shards)
+                        : leastRecentlyUsed());
+    }
+
+    private int leastRecentlyUsed() {
+        // racing threads may pick the same proxy, which only evens out a little more slowly
+        int chosen = 0;
+        for (int shard = 1; shard < addresses.size(); shard++) {
+            if (lastUsed.get(shard) < lastUsed.get(chosen)) {
+                chosen = shard;
+            }
+        }
+        lastUsed.set(chosen, uses.incrementAndGet());
+        return chosen;
+    }
+
+    private List<InetSocketAddress> startingFrom(int first) {
+        ImmutableList.Builder<InetSocketAddress> ordered = ImmutableList.builder();
+        for (int i = 0; i < addresses.size(); i++) {
+            ordered.add(addresses.get((first + i) % addresses.size()).get());
+        }
+        return ordered.build();
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import com.google.common.base.Ascii;
+import javax.annotation.Nullable;
+
+/**
+ * Decides which hostnames are sent to the proxy unresolved when
+ * {@link DockerProxySettings#isRemoteDnsEnabled() remote DNS} is enabled, for docker's embedded DNS to resolve inside
+ * the network.
+ *
+ * <p>Only single-label names other than {@code localhost} qualify, since those are how services, containers and
+ * aliases are normally addressed and they can't be public DNS names. The {@link DockerNameService} doesn't resolve
+ * them, so the JDK leaves them unresolved for the proxy. Everything else, including dotted container hostnames, is
+ * still looked up locally.
+ */
+final class RemoteDns {
+    private RemoteDns() {}
+
+    static boolean isResolvedRemotely(@Nullable String host) {
+        return host != null
+                && !host.isEmpty()
+                && host.indexOf('.') < 0
+                // IPv6 literals, which may be bracketed when they come from a URI
+                && host.indexOf(':') < 0
+                && !Ascii.equalsIgnoreCase(host, "localhost");
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * A {@link ContainerIndex} shared by every {@link DockerProxyManager} in the JVM that looks at the same containers.
+ * The index is refreshed in the background while anyone holds a reference to it, and is kept around after the last
+ * reference is released so that the next test class against the same containers starts with a warm index.
+ *
+ * <p>Like {@link CachingDockerContainerInfo}, an index older than the {@link CachePolicy}'s maximum staleness is
+ * reloaded before use. In {@link CachePolicy.Mode#EVENTS} the index is also refreshed whenever docker reports that the
+ * indexed containers may have changed.
+ */
+final class SharedContainerIndex {
+    @GuardedBy("SharedContainerIndex.class")
+    private static final Map<Map.Entry<String, CachePolicy>, SharedContainerIndex> SHARED_INDICES = new HashMap<>();
+
+    private static final ScheduledExecutorService REFRESH_EXECUTOR =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                    .setNameFormat("docker-proxy-index-refresh-%d")
+                    .setDaemon(true)
+                    .build());
+
+    private final ContainerIndexSource source;
+    private final CachePolicy policy;
+    private final long refreshIntervalNanos;
+    private final long maxStalenessNanos;
+    private final Object refreshLock = new Object();
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+    private final Object updateMonitor = new Object();
+    private final Set<Consumer<ContainerIndex>> updateListeners = new CopyOnWriteArraySet<>();
+
+    private volatile ContainerIndex index = ContainerIndex.EMPTY;
+    private volatile boolean loaded = false;
+    private volatile long loadedAtNanos;
+    private volatile boolean refreshedSinceCreation = false;
+    private volatile long refreshStartedAtNanos;
+
+    @GuardedBy("updateMonitor")
+    private long updates = 0;
+
+    @GuardedBy("SharedContainerIndex.class")
+    private int references = 0;
+
+    @Nullable
+    @GuardedBy("SharedContainerIndex.class")
+    private ScheduledFuture<?> backgroundRefresh;
+
+    @Nullable
+    @GuardedBy("SharedContainerIndex.class")
+    private ContainerEventWatcher eventWatcher;
+
+    private SharedContainerIndex(ContainerIndexSource source, CachePolicy policy) {
+        this.source = source;
+        this.policy = policy;
+        this.refreshIntervalNanos = policy.getRefreshInterval().toNanos();
+        this.maxStalenessNanos = policy.getMaxStaleness().toNanos();
+    }
+
+    /**
+     * Returns the shared index for the source's key and policy, creating it if needed. Every call must be matched
+     * with a call to {@link #release()}.
+     */
+    static synchronized SharedContainerIndex acquire(ContainerIndexSource source, CachePolicy policy) {
+        SHARED_INDICES.values().removeIf(SharedContainerIndex::isAbandoned);
+        SharedContainerIndex shared = SHARED_INDICES.computeIfAbsent(
+                Maps.immutableEntry(source.getIndexKey(), policy), _key -> new SharedContainerIndex(source, policy));
+        shared.references++;
+        if (shared.references == 1) {
+            shared.startBackgroundRefresh();
+        }
+        return shared;
+    }
+
+    void release() {
+        synchronized (SharedContainerIndex.class) {
+            if (references <= 0) {
+                throw new IllegalStateException("Shared container index released more times than acquired");
+            }
+            references--;
+            if (references == 0) {
+                stopBackgroundRefresh();
+            }
+        }
+    }
+
+    /**
+     * Returns the current index, loading it first if it has never been loaded or has expired.
+     */
+    ContainerIndex current() {
+        if (isUsable()) {
+            return index;
+        }
+        synchronized (refreshLock) {
+            return isUsable() ? index : load();
+        }
+    }
+
+    /**
+     * Loads the index in the background if it is not already usable, so that the first lookup finds it warm.
+     */
+    CompletableFuture<ContainerIndex> warmUp() {
+        if (isUsable()) {
+            return CompletableFuture.completedFuture(index);
+        }
+        return CompletableFuture.supplyAsync(this::current, REFRESH_EXECUTOR);
+    }
+
+    /**
+     * Returns an index that reflects the state of docker at or after the time of the call. Concurrent callers share
+     * a single refresh.
+     */
+    ContainerIndex refresh() {
+        long requestedAtNanos = System.nanoTime();
+        synchronized (refreshLock) {
+            if (refreshedSinceCreation && refreshStartedAtNanos - requestedAtNanos >= 0) {
+                return index;
+            }
+            long startedAtNanos = System.nanoTime();
+            ContainerIndex refreshed = source.refreshIndex();
+            update(refreshed, startedAtNanos);
+            refreshStartedAtNanos = startedAtNanos;
+            refreshedSinceCreation = true;
+            return refreshed;
+        }
+    }
+
+    /**
+     * Loads an index that is at most one refresh interval old, which the source may be able to provide without
+     * querying docker.
+     */
+    private ContainerIndex load() {
+        synchronized (refreshLock) {
+            long startedAtNanos = System.nanoTime();
+            ContainerIndex loadedIndex = source.loadIndex(Duration.ofNanos(refreshIntervalNanos));
+            update(loadedIndex, startedAtNanos);
+            return loadedIndex;
+        }
+    }
+
+    /**
+     * Schedules a refresh in the background, sharing it with any refresh that has been requested but not started.
+     */
+    void requestRefresh() {
+        if (refreshPending.compareAndSet(false, true)) {
+            REFRESH_EXECUTOR.execute(() -> {
+                refreshPending.set(false);
+                try {
+                    refresh();
+                } catch (RuntimeException e) {
+                    // Keep serving the previous index, polling will catch up
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns how many times the index has been loaded or refreshed, for use with {@link #awaitUpdate}.
+     */
+    long updateCount() {
+        synchronized (updateMonitor) {
+            return updates;
+        }
+    }
+
+    /**
+     * Waits until the index has been loaded or refreshed since {@link #updateCount()} returned {@code seenUpdates},
+     * or until the timeout passes.
+     */
+    void awaitUpdate(long seenUpdates, long timeoutNanos) throws InterruptedException {
+        long deadlineNanos = System.nanoTime() + timeoutNanos;
+        synchronized (updateMonitor) {
+            while (updates == seenUpdates) {
+                long remainingNanos = deadlineNanos - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    return;
+                }
+                TimeUnit.NANOSECONDS.timedWait(updateMonitor, remainingNanos);
+            }
+        }
+    }
+
+    /**
+     * Calls the listener with the current index, loading it first if needed, and then with every index loaded or
+     * refreshed until the listener is removed. Listeners are called one at a time on the thread that loaded the index,
+     * so they should be quick. If the first call throws the listener is not added, later failures are ignored.
+     */
+    void addUpdateListener(Consumer<ContainerIndex> listener) {
+        synchronized (refreshLock) {
+            listener.accept(current());
+            updateListeners.add(listener);
+        }
+    }
+
+    void removeUpdateListener(Consumer<ContainerIndex> listener) {
+        updateListeners.remove(listener);
+    }
+
+    boolean isEventDriven() {
+        return policy.getMode() == CachePolicy.Mode.EVENTS;
+    }
+
+    @GuardedBy("refreshLock")
+    private void update(ContainerIndex newIndex, long startedAtNanos) {
+        index = newIndex;
+        loadedAtNanos = startedAtNanos;
+        loaded = true;
+        synchronized (updateMonitor) {
+            updates++;
+            updateMonitor.notifyAll();
+        }
+        for (Consumer<ContainerIndex> listener : updateListeners) {
+            try {
+                listener.accept(newIndex);
+            } catch (RuntimeException e) {
+                // a listener that fails must not stop lookups from seeing the new index
+            }
+        }
+    }
+
+    @GuardedBy("SharedContainerIndex.class")
+    private void startBackgroundRefresh() {
+        // an index that has never been loaded is loaded by the first lookup
+        long initialDelayNanos = loaded ? Math.max(0, refreshIntervalNanos - ageNanos()) : refreshIntervalNanos;
+        backgroundRefresh = REFRESH_EXECUTOR.scheduleWithFixedDelay(
+                this::refreshInBackground, initialDelayNanos, refreshIntervalNanos, TimeUnit.NANOSECONDS);
+        if (policy.getMode() == CachePolicy.Mode.EVENTS) {
+            // events arrive in bursts when a project starts, requesting refreshes coalesces them
+            eventWatcher = ContainerEventWatcher.start(source, this::requestRefresh);
+        }
+    }
+
+    @GuardedBy("SharedContainerIndex.class")
+    private void stopBackgroundRefresh() {
+        if (backgroundRefresh != null) {
+            backgroundRefresh.cancel(false);
+            backgroundRefresh = null;
+        }
+        if (eventWatcher != null) {
+            eventWatcher.close();
+            eventWatcher = null;
+        }
+    }
+
+    private void refreshInBackground() {
+        try {
+            load();
+        } catch (RuntimeException e) {
+            // Keep serving the previous index, the next lookup that misses will surface the failure
+        }
+    }
+
+    private boolean isUsable() {
+        return loaded && ageNanos() <= maxStalenessNanos;
+    }
+
+    private long ageNanos() {
+        return System.nanoTime() - loadedAtNanos;
+    }
+
+    @GuardedBy("SharedContainerIndex.class")
+    private boolean isAbandoned() {
+        return references == 0 && !isUsable();
+    }
+
+    @VisibleForTesting
+    static synchronized int sharedIndexCount() {
+        return SHARED_INDICES.size();
+    }
+}
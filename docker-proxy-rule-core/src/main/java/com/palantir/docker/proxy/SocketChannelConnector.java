@@ -0,0 +1,341 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.net.InetAddresses;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.palantir.logsafe.Preconditions;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnknownHostException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SocketChannelConnector connects {@link SocketChannel}s to containers through the SOCKS proxy, for non-blocking
+ * clients that bypass {@link java.net.ProxySelector} such as Netty, gRPC and asynchronous database drivers.
+ *
+ * <p>Destinations are looked up on resolver threads, since that can wait for docker or DNS. Connections are then made
+ * and the SOCKS5 handshake is performed on a single selector thread, so no thread is blocked per connection. Addresses
+ * that are not containers are connected to directly. If
+ * {@link DockerProxySettings#isPublishedPortsEnabled() published ports are enabled}, container ports that are
+ * published on the docker host are connected to directly through the published port. With
+ * {@link DockerProxySettings#isRemoteDnsEnabled() remote DNS}, unresolved service names are sent to the proxy as they
+ * are, without being looked up.
+ *
+ * <p>Clients that resolve addresses themselves can use {@link #resolve(SocketAddress)} as their resolver, which
+ * turns container hostnames into container IPs, or into the published port on the docker host, and leaves every other
+ * address alone.
+ */
+public final class SocketChannelConnector implements Closeable {
+    private static final int MAX_HOSTNAME_LENGTH = 255;
+
+    private final ProxyShards proxies;
+    private final DockerContainerInfo containerInfo;
+    private final boolean publishedPortsEnabled;
+    private final boolean remoteDnsEnabled;
+    private final Selector selector;
+    private final Thread selectorThread;
+    private final ExecutorService resolvers = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("docker-proxy-socket-channel-resolver-%d")
+            .setDaemon(true)
+            .build());
+    private final Queue<Connection> registrations = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed = false;
+
+    SocketChannelConnector(
+            InetSocketAddress proxyAddress, DockerContainerInfo containerInfo, DockerProxySettings settings)
+            throws IOException {
+        this(ProxyShards.single(() -> proxyAddress), containerInfo, settings);
+    }
+
+    /**
+     * Each connection goes through the proxy the {@link ProxyShards} picks for its host, and is not retried through
+     * the other proxies if that one fails.
+     */
+    SocketChannelConnector(ProxyShards proxies, DockerContainerInfo containerInfo, DockerProxySettings settings)
+            throws IOException {
+        this.proxies = proxies;
+        this.containerInfo = containerInfo;
+        this.publishedPortsEnabled = settings.isPublishedPortsEnabled();
+        this.remoteDnsEnabled = settings.isRemoteDnsEnabled();
+        this.selector = Selector.open();
+        this.selectorThread = new Thread(this::runSelector, "docker-proxy-socket-channel-connector");
+        this.selectorThread.setDaemon(true);
+        this.selectorThread.start();
+    }
+
+    /**
+     * Opens a non-blocking {@link SocketChannel} connected to the destination, through the SOCKS proxy if the
+     * destination is a container. The returned future fails if the connection isn't made within the timeout, which
+     * includes looking the destination up.
+     *
+     * @throws IllegalArgumentException if the destination is an unresolved hostname that can't be sent to the proxy,
+     *     because it is longer than 255 characters or isn't ASCII
+     */
+    public CompletableFuture<SocketChannel> connect(SocketAddress destination, Duration timeout) {
+        Preconditions.checkArgument(destination instanceof InetSocketAddress, "Only IP socket addresses are supported");
+        Preconditions.checkState(!closed, "Connector is closed");
+        InetSocketAddress address = (InetSocketAddress) destination;
+        if (address.isUnresolved()) {
+            String host = address.getHostString();
+            Preconditions.checkArgument(
+                    host.length() <= MAX_HOSTNAME_LENGTH, "Hostnames must be at most 255 characters long");
+            Preconditions.checkArgument(CharMatcher.ascii().matchesAllOf(host), "Hostnames must be ASCII");
+        }
+        CompletableFuture<SocketChannel> result = new CompletableFuture<>();
+        try {
+            resolvers.execute(() -> start(address, result));
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new IOException("Connector is closed", e));
+            return result;
+        }
+        return result.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Resolves container hostnames to the container's IP, keeping the hostname, and returns every other address
+     * unchanged. Connecting to the returned address with {@link #connect} goes through the proxy.
+     *
+     * <p>If published ports are enabled and the port is published, the docker host and published port are returned
+     * instead, still carrying the hostname, so that the address can be connected to without the proxy. With remote
+     * DNS, service names are returned unresolved for the proxy to resolve.
+     */
+    public SocketAddress resolve(SocketAddress address) {
+        if (!(address instanceof InetSocketAddress)) {
+            return address;
+        }
+        InetSocketAddress inetAddress = (InetSocketAddress) address;
+        Optional<InetSocketAddress> containerAddress = resolveContainer(inetAddress);
+        if (!containerAddress.isPresent()) {
+            return inetAddress;
+        }
+        return resolvePublished(containerAddress.get()).orElse(containerAddress.get());
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        resolvers.shutdownNow();
+        selector.close();
+        selectorThread.interrupt();
+    }
+
+    /**
+     * Runs on a resolver thread rather than the caller's, as finding out whether the destination is a container can
+     * wait for docker and addresses that aren't containers are looked up in DNS.
+     */
+    private void start(InetSocketAddress address, CompletableFuture<SocketChannel> result) {
+        if (result.isDone()) {
+            return;
+        }
+        SocketChannel channel = null;
+        try {
+            Optional<InetSocketAddress> containerAddress = resolveContainer(address);
+            Optional<InetSocketAddress> publishedAddress = containerAddress.flatMap(this::resolvePublished);
+            Optional<Socks5Handshake> handshake = publishedAddress.isPresent()
+                    ? Optional.empty()
+                    : containerAddress.map(Socks5Handshake::new);
+            channel = SocketChannel.open();
+            SocketChannel openedChannel = channel;
+            result.whenComplete((_connected, error) -> {
+                if (error != null) {
+                    closeQuietly(openedChannel);
+                }
+            });
+            channel.configureBlocking(false);
+            Connection connection = new Connection(channel, handshake, result);
+            if (handshake.isPresent()) {
+                channel.connect(proxies.select(address.getHostString()).get(0));
+            } else {
+                channel.connect(publishedAddress.orElseGet(() -> resolveDirectly(address)));
+            }
+            registrations.add(connection);
+            selector.wakeup();
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(channel);
+            result.completeExceptionally(e);
+        }
+    }
+
+    private Optional<InetSocketAddress> resolveContainer(InetSocketAddress address) {
+        String host = address.getHostString();
+        if (remoteDnsEnabled && address.isUnresolved() && RemoteDns.isResolvedRemotely(host)) {
+            return Optional.of(address);
+        }
+        Optional<String> ip = containerInfo.getIpForHost(host);
+        if (ip.isPresent()) {
+            return Optional.of(withAddress(host, ip.get(), address.getPort()));
+        }
+        if (containerInfo.getHostForIp(host).isPresent()) {
+            return Optional.of(withAddress(host, host, address.getPort()));
+        }
+        return Optional.empty();
+    }
+
+    private Optional<InetSocketAddress> resolvePublished(InetSocketAddress containerAddress) {
+        if (!publishedPortsEnabled) {
+            return Optional.empty();
+        }
+        if (containerAddress.isUnresolved()) {
+            return Optional.empty();
+        }
+        // the proxy's port is published on the docker host, so the other published ports are there too
+        return containerInfo
+                .getPublishedPort(containerAddress.getAddress().getHostAddress(), containerAddress.getPort())
+                .map(publishedPort -> withAddress(
+                        containerAddress.getHostString(),
+                        proxies.primary().getAddress().getHostAddress(),
+                        publishedPort));
+    }
+
+    @SuppressWarnings("DnsLookup")
+    private static InetSocketAddress resolveDirectly(InetSocketAddress address) {
+        return address.isUnresolved() ? new InetSocketAddress(address.getHostString(), address.getPort()) : address;
+    }
+
+    private static InetSocketAddress withAddress(String host, String ip, int port) {
+        try {
+            InetAddress address = InetAddress.getByAddress(host, InetAddresses.forString(ip).getAddress());
+            return new InetSocketAddress(address, port);
+        } catch (UnknownHostException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void runSelector() {
+        try {
+            while (!closed) {
+                selector.select();
+                Connection registration;
+                while ((registration = registrations.poll()) != null) {
+                    registration.register();
+                }
+
+                List<Connection> connected = new ArrayList<>();
+                for (SelectionKey key : selector.selectedKeys()) {
+                    Connection connection = (Connection) key.attachment();
+                    if (connection.advance(key)) {
+                        key.cancel();
+                        connected.add(connection);
+                    }
+                }
+                selector.selectedKeys().clear();
+                if (!connected.isEmpty()) {
+                    // deregister the cancelled keys so callers can switch the channels to blocking mode
+                    selector.selectNow();
+                    connected.forEach(Connection::complete);
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            // closed
+        } finally {
+            registrations.forEach(connection -> connection.fail(new IOException("Connector is closed")));
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // already failed
+            }
+        }
+    }
+
+    private final class Connection {
+        private final SocketChannel channel;
+        private final Optional<Socks5Handshake> handshake;
+        private final CompletableFuture<SocketChannel> result;
+
+        Connection(
+                SocketChannel channel,
+                Optional<Socks5Handshake> handshake,
+                CompletableFuture<SocketChannel> result) {
+            this.channel = channel;
+            this.handshake = handshake;
+            this.result = result;
+        }
+
+        void register() {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                // connections to the local machine may complete immediately, in which case OP_CONNECT never fires
+                int interestOps = !channel.isConnected()
+                        ? SelectionKey.OP_CONNECT
+                        : handshake.map(Socks5Handshake::interestOps).orElse(0);
+                if (interestOps == 0) {
+                    complete();
+                } else {
+                    channel.register(selector, interestOps, this);
+                }
+            } catch (IOException | RuntimeException e) {
+                fail(e);
+            }
+        }
+
+        boolean advance(SelectionKey key) {
+            try {
+                if (channel.isConnectionPending() && !channel.finishConnect()) {
+                    return false;
+                }
+                if (!handshake.isPresent() || handshake.get().advance(channel)) {
+                    return true;
+                }
+                key.interestOps(handshake.get().interestOps());
+                return false;
+            } catch (IOException | RuntimeException e) {
+                key.cancel();
+                fail(e);
+                return false;
+            }
+        }
+
+        void complete() {
+            if (!result.complete(channel)) {
+                // timed out while we were finishing the handshake
+                closeQuietly(channel);
+            }
+        }
+
+        void fail(Throwable error) {
+            closeQuietly(channel);
+            result.completeExceptionally(error);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The client side of a SOCKS5 CONNECT handshake without authentication, driven over a non-blocking
+ * {@link SocketChannel}. Replies are read exactly, so data the destination sends as soon as the connection is made
+ * is left in the channel for the caller.
+ */
+final class Socks5Handshake {
+    private static final byte VERSION = 5;
+    private static final byte NO_AUTHENTICATION = 0;
+    private static final byte CONNECT = 1;
+    private static final byte RESERVED = 0;
+    private static final byte IPV4 = 1;
+    private static final byte DOMAIN_NAME = 3;
+    private static final byte IPV6 = 4;
+    private static final byte SUCCEEDED = 0;
+    private static final int REPLY_HEADER_LENGTH = 5;
+
+    private enum State {
+        WRITE_GREETING,
+        READ_METHOD,
+        WRITE_REQUEST,
+        READ_REPLY,
+        DONE
+    }
+
+    private final InetSocketAddress destination;
+    private State state = State.WRITE_GREETING;
+    private ByteBuffer outbound = ByteBuffer.wrap(new byte[] {VERSION, 1, NO_AUTHENTICATION});
+    private final ByteBuffer inbound = ByteBuffer.allocate(4 + 1 + 255 + 2);
+
+    Socks5Handshake(InetSocketAddress destination) {
+        this.destination = destination;
+    }
+
+    /**
+     * Makes as much progress as possible without blocking, and returns whether the handshake has completed.
+     *
+     * @throws IOException if the proxy refuses the connection or doesn't speak SOCKS5
+     */
+    boolean advance(SocketChannel channel) throws IOException {
+        while (true) {
+            switch (state) {
+                case WRITE_GREETING:
+                case WRITE_REQUEST:
+                    channel.write(outbound);
+                    if (outbound.hasRemaining()) {
+                        return false;
+                    }
+                    state = state == State.WRITE_GREETING ? State.READ_METHOD : State.READ_REPLY;
+                    inbound.clear().limit(state == State.READ_METHOD ? 2 : REPLY_HEADER_LENGTH);
+                    break;
+                case READ_METHOD:
+                    if (!fill(channel)) {
+                        return false;
+                    }
+                    if (inbound.get(0) != VERSION || inbound.get(1) != NO_AUTHENTICATION) {
+                        throw new IOException("SOCKS proxy requires authentication or is not a SOCKS5 proxy");
+                    }
+                    outbound = connectRequest(destination);
+                    state = State.WRITE_REQUEST;
+                    break;
+                case READ_REPLY:
+                    if (!fill(channel)) {
+                        return false;
+                    }
+                    if (inbound.limit() == REPLY_HEADER_LENGTH) {
+                        if (inbound.get(0) != VERSION) {
+                            throw new IOException("Not a SOCKS5 proxy");
+                        }
+                        if (inbound.get(1) != SUCCEEDED) {
+                            throw new IOException("SOCKS proxy could not connect to " + destination + ": "
+                                    + describeReply(inbound.get(1)));
+                        }
+                        inbound.limit(replyLength(inbound.get(3), inbound.get(4)));
+                        break;
+                    }
+                    state = State.DONE;
+                    return true;
+                case DONE:
+                    return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the operation the handshake is waiting for.
+     */
+    int interestOps() {
+        return state == State.WRITE_GREETING || state == State.WRITE_REQUEST
+                ? SelectionKey.OP_WRITE
+                : SelectionKey.OP_READ;
+    }
+
+    private boolean fill(SocketChannel channel) throws IOException {
+        if (channel.read(inbound) < 0) {
+            throw new EOFException("SOCKS proxy closed the connection during the handshake");
+        }
+        return !inbound.hasRemaining();
+    }
+
+    private static ByteBuffer connectRequest(InetSocketAddress destination) {
+        ByteBuffer request = ByteBuffer.allocate(4 + 1 + 255 + 2);
+        request.put(VERSION).put(CONNECT).put(RESERVED);
+        if (destination.isUnresolved()) {
+            byte[] host = destination.getHostString().getBytes(StandardCharsets.US_ASCII);
+            request.put(DOMAIN_NAME).put((byte) host.length).put(host);
+        } else {
+            byte[] address = destination.getAddress().getAddress();
+            request.put(destination.getAddress() instanceof Inet4Address ? IPV4 : IPV6).put(address);
+        }
+        request.putShort((short) destination.getPort());
+        request.flip();
+        return request;
+    }
+
+    private static int replyLength(byte addressType, byte firstAddressByte) throws IOException {
+        switch (addressType) {
+            case IPV4:
+                return 4 + 4 + 2;
+            case IPV6:
+                return 4 + 16 + 2;
+            case DOMAIN_NAME:
+                return 4 + 1 + Byte.toUnsignedInt(firstAddressByte) + 2;
+            default:
+                throw new IOException("SOCKS proxy replied with unknown address type " + addressType);
+        }
+    }
+
+    private static String describeReply(byte reply) {
+        switch (reply) {
+            case 1:
+                return "general SOCKS server failure";
+            case 2:
+                return "connection not allowed by ruleset";
+            case 3:
+                return "network unreachable";
+            case 4:
+                return "host unreachable";
+            case 5:
+                return "connection refused";
+            case 6:
+                return "TTL expired";
+            case 7:
+                return "command not supported";
+            case 8:
+                return "address type not supported";
+            default:
+                return "unknown reply " + reply;
+        }
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import com.palantir.logsafe.Preconditions;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+
+/**
+ * SocksProxyConfig tunes the dante SOCKS proxy container run by {@link ProxyContainerSpec#dante(SocksProxyConfig)},
+ * whose {@code sockd.conf} is generated from it.
+ *
+ * <p>The defaults match the proxy docker-proxy-rule has always run: 10 worker processes, the operating system's
+ * socket buffer sizes, no resource limits and only errors logged. Suites that open hundreds of concurrent connections
+ * to containers should raise the number of workers, since connections queue up once every worker is busy.
+ */
+public final class SocksProxyConfig {
+    static final int PORT = 1080;
+
+    private static final SocksProxyConfig DEFAULT = builder().build();
+    private static final long CPU_PERIOD_MICROS = 100_000;
+
+    private final int workers;
+    private final OptionalInt socketBufferSize;
+    private final Duration negotiateTimeout;
+    private final Duration connectTimeout;
+    private final Duration ioTimeout;
+    private final LogLevel logLevel;
+    private final OptionalDouble cpus;
+    private final OptionalLong memoryLimitBytes;
+
+    private SocksProxyConfig(Builder builder) {
+        this.workers = builder.workers;
+        this.socketBufferSize = builder.socketBufferSize;
+        this.negotiateTimeout = builder.negotiateTimeout;
+        this.connectTimeout = builder.connectTimeout;
+        this.ioTimeout = builder.ioTimeout;
+        this.logLevel = builder.logLevel;
+        this.cpus = builder.cpus;
+        this.memoryLimitBytes = builder.memoryLimitBytes;
+    }
+
+    public static SocksProxyConfig defaults() {
+        return DEFAULT;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * The number of dante worker processes started with the proxy.
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * The size of the send and receive buffers of every TCP socket, or the operating system's default if empty.
+     */
+    public OptionalInt getSocketBufferSize() {
+        return socketBufferSize;
+    }
+
+    /**
+     * How long a client has to complete the SOCKS handshake.
+     */
+    public Duration getNegotiateTimeout() {
+        return negotiateTimeout;
+    }
+
+    /**
+     * How long the proxy waits for a connection to a container to be established.
+     */
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * How long a connection may be idle before the proxy closes it, where zero means never.
+     */
+    public Duration getIoTimeout() {
+        return ioTimeout;
+    }
+
+    public LogLevel getLogLevel() {
+        return logLevel;
+    }
+
+    /**
+     * The number of CPUs the proxy container may use, or unlimited if empty.
+     */
+    public OptionalDouble getCpus() {
+        return cpus;
+    }
+
+    /**
+     * The memory the proxy container may use, or unlimited if empty.
+     */
+    public OptionalLong getMemoryLimitBytes() {
+        return memoryLimitBytes;
+    }
+
+    String sockdConf() {
+        StringBuilder conf = new StringBuilder()
+                .append("logoutput: stderr\n")
+                .append("debug: ")
+                .append(logLevel == LogLevel.DEBUG ? 1 : 0)
+                .append('\n')
+                .append("internal: 0.0.0.0 port = ")
+                .append(PORT)
+                .append('\n')
+                .append("external: eth0\n")
+                .append("socksmethod: none\n")
+                .append("clientmethod: none\n")
+                .append("user.privileged: root\n")
+                .append("user.unprivileged: nobody\n")
+                .append("timeout.negotiate: ")
+                .append(negotiateTimeout.getSeconds())
+                .append('\n')
+                .append("timeout.connect: ")
+                .append(connectTimeout.getSeconds())
+                .append('\n')
+                .append("timeout.io: ")
+                .append(ioTimeout.getSeconds())
+                .append('\n');
+        socketBufferSize.ifPresent(size -> conf.append("socket.sendbuffer.tcp: ")
+                .append(size)
+                .append('\n')
+                .append("socket.recvbuffer.tcp: ")
+                .append(size)
+                .append('\n'));
+        for (String rule : new String[] {"client", "socks"}) {
+            conf.append(rule)
+                    .append(" pass {\n")
+                    .append("    from: 0.0.0.0/0 to: 0.0.0.0/0\n")
+                    .append("    log: ")
+                    .append(logLevel.dante)
+                    .append('\n')
+                    .append("}\n");
+        }
+        return conf.toString();
+    }
+
+    /**
+     * The docker-compose command of the proxy service, which writes the generated {@code sockd.conf} inside the
+     * container rather than mounting it, so that it also works against remote docker daemons.
+     */
+    String composeCommand() {
+        String encodedConf = Base64.getEncoder().encodeToString(sockdConf().getBytes(StandardCharsets.UTF_8));
+        return "sh -c 'echo " + encodedConf + " | base64 -d > /tmp/sockd.conf"
+                + " && exec sockd -f /tmp/sockd.conf -p /tmp/sockd.pid -N " + workers + "'";
+    }
+
+    /**
+     * The docker-compose options limiting the proxy service's resources, one per line. CPU limits are given as a
+     * quota so that they work with every version of the compose file format.
+     */
+    List<String> composeResourceLimits() {
+        List<String> limits = new ArrayList<>();
+        cpus.ifPresent(value -> {
+            limits.add("cpu_period: " + CPU_PERIOD_MICROS);
+            limits.add("cpu_quota: " + Math.round(value * CPU_PERIOD_MICROS));
+        });
+        memoryLimitBytes.ifPresent(value -> limits.add("mem_limit: " + value));
+        return limits;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        SocksProxyConfig that = (SocksProxyConfig) other;
+        return workers == that.workers
+                && socketBufferSize.equals(that.socketBufferSize)
+                && negotiateTimeout.equals(that.negotiateTimeout)
+                && connectTimeout.equals(that.connectTimeout)
+                && ioTimeout.equals(that.ioTimeout)
+                && logLevel == that.logLevel
+                && cpus.equals(that.cpus)
+                && memoryLimitBytes.equals(that.memoryLimitBytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+                workers,
+                socketBufferSize,
+                negotiateTimeout,
+                connectTimeout,
+                ioTimeout,
+                logLevel,
+                cpus,
+                memoryLimitBytes);
+    }
+
+    @Override
+    public String toString() {
+        return "SocksProxyConfig{workers=" + workers
+                + ", socketBufferSize=" + socketBufferSize
+                + ", negotiateTimeout=" + negotiateTimeout
+                + ", connectTimeout=" + connectTimeout
+                + ", ioTimeout=" + ioTimeout
+                + ", logLevel=" + logLevel
+                + ", cpus=" + cpus
+                + ", memoryLimitBytes=" + memoryLimitBytes
+                + '}';
+    }
+
+    public enum LogLevel {
+        /**
+         * Only failures are logged.
+         */
+        ERROR("error"),
+        /**
+         * Every connection is logged as it is opened and closed.
+         */
+        CONNECT("error connect disconnect"),
+        /**
+         * Every connection and I/O operation is logged, along with dante's debug output.
+         */
+        DEBUG("error connect disconnect iooperation");
+
+        private final String dante;
+
+        LogLevel(String dante) {
+            this.dante = dante;
+        }
+    }
+
+    public static final class Builder {
+        private int workers = 10;
+        private OptionalInt socketBufferSize = OptionalInt.empty();
+        private Duration negotiateTimeout = Duration.ofSeconds(30);
+        private Duration connectTimeout = Duration.ofSeconds(30);
+        private Duration ioTimeout = Duration.ZERO;
+        private LogLevel logLevel = LogLevel.ERROR;
+        private OptionalDouble cpus = OptionalDouble.empty();
+        private OptionalLong memoryLimitBytes = OptionalLong.empty();
+
+        private Builder() {}
+
+        public Builder workers(int value) {
+            this.workers = value;
+            return this;
+        }
+
+        public Builder socketBufferSize(int value) {
+            this.socketBufferSize = OptionalInt.of(value);
+            return this;
+        }
+
+        public Builder negotiateTimeout(Duration value) {
+            this.negotiateTimeout = Preconditions.checkNotNull(value, "negotiateTimeout");
+            return this;
+        }
+
+        public Builder connectTimeout(Duration value) {
+            this.connectTimeout = Preconditions.checkNotNull(value, "connectTimeout");
+            return this;
+        }
+
+        public Builder ioTimeout(Duration value) {
+            this.ioTimeout = Preconditions.checkNotNull(value, "ioTimeout");
+            return this;
+        }
+
+        public Builder logLevel(LogLevel value) {
+            this.logLevel = Preconditions.checkNotNull(value, "logLevel");
+            return this;
+        }
+
+        public Builder cpus(double value) {
+            this.cpus = OptionalDouble.of(value);
+            return this;
+        }
+
+        public Builder memoryLimitBytes(long value) {
+            this.memoryLimitBytes = OptionalLong.of(value);
+            return this;
+        }
+
+        public SocksProxyConfig build() {
+            Preconditions.checkArgument(workers > 0, "workers must be positive");
+            Preconditions.checkArgument(
+                    !socketBufferSize.isPresent() || socketBufferSize.getAsInt() > 0,
+                    "socketBufferSize must be positive");
+            // dante counts timeouts in whole seconds
+            Preconditions.checkArgument(negotiateTimeout.getSeconds() > 0, "negotiateTimeout must be at least 1s");
+            Preconditions.checkArgument(connectTimeout.getSeconds() > 0, "connectTimeout must be at least 1s");
+            Preconditions.checkArgument(!ioTimeout.isNegative(), "ioTimeout must not be negative");
+            Preconditions.checkArgument(!cpus.isPresent() || cpus.getAsDouble() > 0, "cpus must be positive");
+            Preconditions.checkArgument(
+                    !memoryLimitBytes.isPresent() || memoryLimitBytes.getAsLong() > 0,
+                    "memoryLimitBytes must be positive");
+            return new SocksProxyConfig(this);
+        }
+    }
+}
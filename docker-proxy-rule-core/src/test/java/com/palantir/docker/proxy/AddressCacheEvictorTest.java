@@ -0,0 +1,95 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.Test;
+
+public class AddressCacheEvictorTest {
+    private final List<Set<String>> evictions = new ArrayList<>();
+    private final AddressCacheEvictor evictor = new AddressCacheEvictor(evictions::add);
+
+    @Test
+    public void shouldEvictEveryNameOfTheFirstIndex() {
+        evictor.accept(index(container("id1", "172.17.0.2", "Service1", "container1")));
+
+        assertThat(evictions).hasSize(1);
+        assertThat(evictions.get(0)).containsExactlyInAnyOrder("service1", "container1");
+    }
+
+    @Test
+    public void shouldEvictNamesThatAppearedMovedOrDisappeared() {
+        evictor.accept(index(
+                container("id1", "172.17.0.2", "service1"),
+                container("id2", "172.17.0.3", "service2"),
+                container("id3", "172.17.0.4", "service3")));
+        evictions.clear();
+
+        evictor.accept(index(
+                container("id1", "172.17.0.2", "service1"),
+                container("id2", "172.17.0.5", "service2"),
+                container("id4", "172.17.0.6", "service4")));
+
+        assertThat(evictions).hasSize(1);
+        assertThat(evictions.get(0)).containsExactlyInAnyOrder("service2", "service3", "service4");
+    }
+
+    @Test
+    public void shouldNotEvictAnythingWhenNothingChanged() {
+        evictor.accept(index(container("id1", "172.17.0.2", "service1")));
+        evictions.clear();
+
+        evictor.accept(index(container("id1", "172.17.0.2", "service1")));
+
+        assertThat(evictions).isEmpty();
+    }
+
+    @Test
+    public void shouldRemoveEvictedEntriesFromTheExpirySet() {
+        Object service1 = new Object();
+        Object service2 = new Object();
+        Object newerService1 = new Object();
+        Map<String, Object> cache =
+                new ConcurrentHashMap<>(ImmutableMap.of("Service1", service1, "service2", service2));
+        Set<Object> expirySet = new HashSet<>(ImmutableSet.of(service1, service2, newerService1));
+
+        AddressCacheEvictor.evict(cache, Optional.of(expirySet), ImmutableSet.of("service1"));
+
+        assertThat(cache).containsOnlyKeys("service2");
+        // the newer entry belongs to a lookup cached after the evicted one, which must still expire
+        assertThat(expirySet).containsExactlyInAnyOrder(service2, newerService1);
+    }
+
+    private static ContainerIndex index(IndexedContainer... containers) {
+        return ContainerIndex.of(ImmutableList.copyOf(containers));
+    }
+
+    private static IndexedContainer container(String containerId, String ip, String... names) {
+        return new IndexedContainer(containerId, "t1", ImmutableList.copyOf(names), Optional.of(ip));
+    }
+}
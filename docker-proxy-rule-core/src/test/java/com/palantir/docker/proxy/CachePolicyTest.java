@@ -0,0 +1,65 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import org.junit.Test;
+
+public class CachePolicyTest {
+    @Test
+    public void shouldDefaultToTheHistoricalTimings() {
+        CachePolicy policy = CachePolicy.defaults();
+
+        assertThat(policy.getRefreshInterval()).isEqualTo(Duration.ofSeconds(53));
+        assertThat(policy.getMaxStaleness()).isEqualTo(Duration.ofSeconds(4 * 53));
+        assertThat(policy.getNegativeTtl()).isEqualTo(Duration.ZERO);
+        assertThat(policy.getMode()).isEqualTo(CachePolicy.Mode.POLLING);
+        assertThat(policy.getConnectFailureRefreshInterval()).isEqualTo(Duration.ofSeconds(1));
+    }
+
+    @Test
+    public void shouldDeriveMaxStalenessFromTheRefreshInterval() {
+        CachePolicy policy = CachePolicy.builder().refreshInterval(Duration.ofSeconds(5)).build();
+
+        assertThat(policy.getMaxStaleness()).isEqualTo(Duration.ofSeconds(20));
+    }
+
+    @Test
+    public void shouldRejectMaxStalenessBelowTheRefreshInterval() {
+        assertThatThrownBy(() -> CachePolicy.builder()
+                        .refreshInterval(Duration.ofSeconds(5))
+                        .maxStaleness(Duration.ofSeconds(1))
+                        .build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldRejectNonPositiveMaxEntries() {
+        assertThatThrownBy(() -> CachePolicy.builder().maxEntries(0).build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldCompareByValue() {
+        assertThat(CachePolicy.builder().negativeTtl(Duration.ofSeconds(1)).build())
+                .isEqualTo(CachePolicy.builder().negativeTtl(Duration.ofSeconds(1)).build())
+                .isNotEqualTo(CachePolicy.defaults());
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.Test;
+
+public class ContainerChangeDispatcherTest {
+    private static final IndexedContainer SERVICE1 =
+            new IndexedContainer("id1", "t1", ImmutableList.of("service1"), Optional.of("172.17.0.2"));
+
+    private final List<ContainerChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<String> changes = new CopyOnWriteArrayList<>();
+    private final ContainerChangeDispatcher dispatcher = new ContainerChangeDispatcher(listeners);
+
+    @Test
+    public void shouldReportHostnamesWhoseIpChanged() {
+        listeners.add(this::record);
+        dispatcher.accept(ContainerIndex.of(ImmutableList.of(
+                SERVICE1, new IndexedContainer("id2", "t1", ImmutableList.of("db"), Optional.of("172.17.0.3")))));
+
+        dispatcher.accept(ContainerIndex.of(ImmutableList.of(
+                SERVICE1, new IndexedContainer("id3", "t1", ImmutableList.of("DB"), Optional.of("172.17.0.4")))));
+
+        assertThat(changes).containsExactly("db: Optional[172.17.0.3] -> Optional[172.17.0.4]");
+    }
+
+    @Test
+    public void shouldReportHostnamesThatAppearedAndDisappeared() {
+        listeners.add(this::record);
+        dispatcher.accept(ContainerIndex.of(ImmutableList.of(SERVICE1)));
+
+        dispatcher.accept(ContainerIndex.of(ImmutableList.of(
+                new IndexedContainer("id2", "t1", ImmutableList.of("service2"), Optional.of("172.17.0.3")))));
+
+        assertThat(changes)
+                .containsExactlyInAnyOrder(
+                        "service1: Optional[172.17.0.2] -> Optional.empty",
+                        "service2: Optional.empty -> Optional[172.17.0.3]");
+    }
+
+    @Test
+    public void shouldOnlyRememberTheFirstIndex() {
+        listeners.add(this::record);
+
+        dispatcher.accept(ContainerIndex.of(ImmutableList.of(SERVICE1)));
+
+        assertThat(changes).isEmpty();
+    }
+
+    @Test
+    public void shouldKeepTellingListenersWhenOneFails() {
+        listeners.add((_hostname, _oldIp, _newIp) -> {
+            throw new IllegalStateException("listener failed");
+        });
+        listeners.add(this::record);
+        dispatcher.accept(ContainerIndex.of(ImmutableList.of(SERVICE1)));
+
+        dispatcher.accept(ContainerIndex.of(ImmutableList.of(
+                new IndexedContainer("id1", "t1", ImmutableList.of("service1"), Optional.of("172.17.0.5")))));
+
+        assertThat(changes).containsExactly("service1: Optional[172.17.0.2] -> Optional[172.17.0.5]");
+    }
+
+    private void record(String hostname, Optional<String> oldIp, Optional<String> newIp) {
+        changes.add(hostname + ": " + oldIp + " -> " + newIp);
+    }
+}
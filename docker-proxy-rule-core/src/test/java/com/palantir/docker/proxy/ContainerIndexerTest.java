@@ -0,0 +1,168 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.palantir.docker.compose.execution.DockerExecutable;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ContainerIndexerTest {
+    private final DockerExecutable docker = mock(DockerExecutable.class);
+    private final Map<String, String[]> containers = new LinkedHashMap<>();
+    private final List<String> inspected = new ArrayList<>();
+    private final ContainerIndexer indexer = new ContainerIndexer(docker, () -> endpoints(containers.keySet()));
+
+    @Before
+    public void before() throws IOException {
+        containers.put("first", new String[] {"t1", "172.17.0.2", "/project-first-1,first"});
+        containers.put("second", new String[] {"t1", "172.17.0.3", "/project-second-1,second"});
+        when(docker.execute(any())).thenAnswer(invocation -> respond(Arrays.stream(invocation.getArguments())
+                .map(String.class::cast)
+                .collect(Collectors.toList())));
+    }
+
+    @Test
+    public void shouldIndexEveryContainer() {
+        ContainerIndex index = indexer.refresh();
+
+        assertThat(index.getIpForHost("first")).hasValue("172.17.0.2");
+        assertThat(index.getIpForHost("project-second-1")).hasValue("172.17.0.3");
+        assertThat(index.getHostForIp("172.17.0.3")).hasValue("second");
+        assertThat(inspected).containsExactly("first", "second");
+    }
+
+    @Test
+    public void shouldFindContainersByAliasIgnoringCaseAndTrailingDots() {
+        containers.put("first", new String[] {"t1", "172.17.0.2", "/project-first-1,first,Primary.DB.internal,db,"});
+
+        ContainerIndex index = indexer.refresh();
+
+        assertThat(index.getIpForHost("db")).hasValue("172.17.0.2");
+        assertThat(index.getIpForHost("primary.db.internal.")).hasValue("172.17.0.2");
+        assertThat(index.getIpForHost("FIRST")).hasValue("172.17.0.2");
+        assertThat(index.getIpForHost("db.internal")).isEmpty();
+    }
+
+    @Test
+    public void shouldNotInspectUnchangedContainers() {
+        indexer.refresh();
+        inspected.clear();
+
+        ContainerIndex index = indexer.refresh();
+
+        assertThat(inspected).isEmpty();
+        assertThat(index.getIpForHost("first")).hasValue("172.17.0.2");
+    }
+
+    @Test
+    public void shouldOnlyInspectNewAndRestartedContainers() {
+        indexer.refresh();
+        inspected.clear();
+        containers.put("second", new String[] {"t2", "172.17.0.4", "/project-second-1,second"});
+        containers.put("third", new String[] {"t1", "172.17.0.5", "/project-third-1,third"});
+
+        ContainerIndex index = indexer.refresh();
+
+        assertThat(inspected).containsExactly("second", "third");
+        assertThat(index.getIpForHost("second")).hasValue("172.17.0.4");
+        assertThat(index.getIpForHost("third")).hasValue("172.17.0.5");
+    }
+
+    @Test
+    public void shouldIndexPublishedPorts() {
+        containers.put("first", new String[] {"t1", "172.17.0.2", "/project-first-1,first", "80/tcp=32768,"});
+        indexer.refresh();
+        containers.put("first", new String[] {"t2", "172.17.0.2", "/project-first-1,first", "80/tcp=32769,"});
+
+        ContainerIndex index = indexer.refresh();
+
+        assertThat(index.getPublishedPort("first", 80)).hasValue(32769);
+        assertThat(index.getPublishedPort("172.17.0.2", 80)).hasValue(32769);
+        assertThat(index.getPublishedPort("first", 443)).isEmpty();
+        assertThat(index.getPublishedPort("second", 80)).isEmpty();
+    }
+
+    @Test
+    public void shouldPruneRemovedContainers() {
+        indexer.refresh();
+        containers.remove("first");
+
+        ContainerIndex index = indexer.refresh();
+
+        assertThat(index.getIpForHost("first")).isEmpty();
+        assertThat(index.getContainers()).containsOnlyKeys("second");
+    }
+
+    @Test
+    public void shouldSkipContainersThatDisappearWhileBeingInspected() {
+        ContainerIndex index = new ContainerIndexer(docker, () -> endpoints(ImmutableList.of("first", "gone")))
+                .refresh();
+
+        assertThat(index.getContainers()).containsOnlyKeys("first");
+    }
+
+    /**
+     * Every start gives a container a new endpoint, so the endpoints are derived from the start times.
+     */
+    private Map<String, String> endpoints(Collection<String> containerIds) {
+        return Maps.toMap(containerIds, containerId -> "endpoint-"
+                + (containers.containsKey(containerId) ? containers.get(containerId)[0] : "gone"));
+    }
+
+    private Process respond(List<String> args) throws InterruptedException {
+        List<String> containerIds = args.subList(3, args.size());
+        Process process = mock(Process.class);
+        when(process.waitFor(anyLong(), any(TimeUnit.class))).thenReturn(true);
+
+        if (!containers.keySet().containsAll(containerIds)) {
+            when(process.exitValue()).thenReturn(1);
+            return process;
+        }
+        inspected.addAll(containerIds);
+        String output = containerIds.stream()
+                .map(containers::get)
+                .map(ContainerIndexerTest::inspectedDetails)
+                .collect(Collectors.joining("\n", "", "\n"));
+        when(process.exitValue()).thenReturn(0);
+        when(process.getInputStream()).thenReturn(new ByteArrayInputStream(output.getBytes(StandardCharsets.UTF_8)));
+        return process;
+    }
+
+    private static String inspectedDetails(String[] container) {
+        return container[0] + " " + container[1] + " " + (container.length > 3 ? container[3] : "") + " "
+                + container[2];
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DnsResponderTest {
+    private static final int TIMEOUT_MILLIS = 10_000;
+    private static final int TYPE_A = 1;
+    private static final int TYPE_MX = 15;
+    private static final int TYPE_PTR = 12;
+    private static final int TYPE_AAAA = 28;
+    private static final String CONTAINER_ID = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private final DockerContainerInfo containerInfo = mock(DockerContainerInfo.class);
+    private final DockerContainerInfo upstreamContainerInfo = mock(DockerContainerInfo.class);
+
+    private DnsResponder upstream;
+    private DnsResponder responder;
+
+    @Before
+    public void before() throws IOException {
+        when(containerInfo.getKnownIpForHost(anyString())).thenReturn(Optional.empty());
+        when(containerInfo.getKnownIpForHost("db")).thenReturn(Optional.of("172.17.0.2"));
+        when(containerInfo.getKnownHostForIp(anyString())).thenReturn(Optional.empty());
+        when(containerInfo.getKnownHostForIp("172.17.0.2")).thenReturn(Optional.of(CONTAINER_ID));
+        when(upstreamContainerInfo.getKnownIpForHost(anyString())).thenReturn(Optional.empty());
+        when(upstreamContainerInfo.getKnownIpForHost("example.com")).thenReturn(Optional.of("192.0.2.1"));
+        upstream = DnsResponder.start(new DockerNameService(upstreamContainerInfo), 0, Optional.empty());
+    }
+
+    @After
+    public void after() throws IOException {
+        if (responder != null) {
+            responder.close();
+        }
+        upstream.close();
+    }
+
+    @Test
+    public void shouldAnswerAddressQueriesForContainers() throws IOException {
+        responder = DnsResponder.start(new DockerNameService(containerInfo), 0, Optional.empty());
+
+        Response response = Response.parse(queryOverUdp(query(1, "db", TYPE_A)));
+
+        assertThat(response.id).isEqualTo(1);
+        assertThat(response.rcode).isEqualTo(0);
+        assertThat(response.answers).containsExactly("172.17.0.2");
+    }
+
+    @Test
+    public void shouldAnswerOtherQueriesForContainersWithNoRecords() throws IOException {
+        responder = DnsResponder.start(new DockerNameService(containerInfo), 0, Optional.empty());
+
+        Response aaaa = Response.parse(queryOverUdp(query(1, "db", TYPE_AAAA)));
+        Response mx = Response.parse(queryOverUdp(query(2, "db", TYPE_MX)));
+
+        assertThat(aaaa.rcode).isEqualTo(0);
+        assertThat(aaaa.answers).isEmpty();
+        assertThat(mx.rcode).isEqualTo(0);
+        assertThat(mx.answers).isEmpty();
+    }
+
+    @Test
+    public void shouldAnswerReverseQueriesWithTheShortContainerId() throws IOException {
+        responder = DnsResponder.start(new DockerNameService(containerInfo), 0, Optional.empty());
+
+        Response response = Response.parse(queryOverUdp(query(1, "2.0.17.172.in-addr.arpa", TYPE_PTR)));
+
+        assertThat(response.rcode).isEqualTo(0);
+        assertThat(response.answers).containsExactly("0123456789ab");
+    }
+
+    @Test
+    public void shouldRefuseOtherNamesWithoutAnUpstream() throws IOException {
+        responder = DnsResponder.start(new DockerNameService(containerInfo), 0, Optional.empty());
+
+        Response response = Response.parse(queryOverUdp(query(1, "example.com", TYPE_A)));
+
+        assertThat(response.rcode).isEqualTo(DnsQueryHandler.REFUSED);
+        assertThat(response.answers).isEmpty();
+    }
+
+    @Test
+    public void shouldForwardOtherNamesToTheUpstream() throws IOException {
+        responder = DnsResponder.start(new DockerNameService(containerInfo), 0, Optional.of(upstream.getAddress()));
+
+        Response overUdp = Response.parse(queryOverUdp(query(1, "example.com", TYPE_A)));
+        Response overTcp = Response.parse(queryOverTcp(query(2, "example.com", TYPE_A)));
+
+        assertThat(overUdp.answers).containsExactly("192.0.2.1");
+        assertThat(overTcp.id).isEqualTo(2);
+        assertThat(overTcp.answers).containsExactly("192.0.2.1");
+        // names that aren't containers' must not make docker look them up
+        verify(containerInfo, never()).getIpForHost(anyString());
+    }
+
+    @Test
+    public void shouldAnswerOverTcp() throws IOException {
+        responder = DnsResponder.start(new DockerNameService(containerInfo), 0, Optional.empty());
+
+        Response response = Response.parse(queryOverTcp(query(1, "db", TYPE_A)));
+
+        assertThat(response.answers).containsExactly("172.17.0.2");
+    }
+
+    private byte[] queryOverUdp(byte[] query) throws IOException {
+        try (DatagramSocket socket = new DatagramSocket()) {
+            socket.setSoTimeout(TIMEOUT_MILLIS);
+            socket.send(new DatagramPacket(query, query.length, responder.getAddress()));
+            byte[] buffer = new byte[65535];
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            socket.receive(packet);
+            return Arrays.copyOf(buffer, packet.getLength());
+        }
+    }
+
+    private byte[] queryOverTcp(byte[] query) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.connect(responder.getAddress(), TIMEOUT_MILLIS);
+            socket.setSoTimeout(TIMEOUT_MILLIS);
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeShort(query.length);
+            out.write(query);
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            byte[] response = new byte[in.readUnsignedShort()];
+            in.readFully(response);
+            return response;
+        }
+    }
+
+    private static byte[] query(int id, String name, int type) {
+        ByteBuffer query = ByteBuffer.allocate(512);
+        query.putShort((short) id).putShort((short) 0x0100).putShort((short) 1);
+        query.putShort((short) 0).putShort((short) 0).putShort((short) 0);
+        for (String label : name.split("\\.")) {
+            query.put((byte) label.length()).put(label.getBytes(StandardCharsets.US_ASCII));
+        }
+        query.put((byte) 0).putShort((short) type).putShort((short) 1);
+        return Arrays.copyOf(query.array(), query.position());
+    }
+
+    private static final class Response {
+        private final int id;
+        private final int rcode;
+        private final String[] answers;
+
+        private Response(int id, int rcode, String[] answers) {
+            this.id = id;
+            this.rcode = rcode;
+            this.answers = answers;
+        }
+
+        static Response parse(byte[] message) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(message);
+            int id = buffer.getShort() & 0xFFFF;
+            int rcode = buffer.getShort() & 0xF;
+            int questions = buffer.getShort();
+            String[] answers = new String[buffer.getShort()];
+            buffer.position(12);
+            if (questions == 1) {
+                readName(buffer);
+                buffer.getInt();
+            }
+            for (int i = 0; i < answers.length; i++) {
+                // every answer points back at the question
+                buffer.getShort();
+                int type = buffer.getShort();
+                buffer.position(buffer.position() + 6);
+                byte[] rdata = new byte[buffer.getShort()];
+                buffer.get(rdata);
+                answers[i] = type == TYPE_PTR
+                        ? readName(ByteBuffer.wrap(rdata))
+                        : InetAddress.getByAddress(rdata).getHostAddress();
+            }
+            return new Response(id, rcode, answers);
+        }
+
+        private static String readName(ByteBuffer buffer) {
+            StringBuilder name = new StringBuilder();
+            for (int length = buffer.get(); length != 0; length = buffer.get()) {
+                byte[] label = new byte[length];
+                buffer.get(label);
+                name.append(name.length() == 0 ? "" : ".").append(new String(label, StandardCharsets.US_ASCII));
+            }
+            return name.toString();
+        }
+    }
+}
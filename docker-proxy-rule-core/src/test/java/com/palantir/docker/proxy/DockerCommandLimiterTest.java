@@ -0,0 +1,111 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+public class DockerCommandLimiterTest {
+    private static final Duration DEADLINE = Duration.ofSeconds(10);
+
+    private final DockerCommandLimiter limiter = new DockerCommandLimiter(2);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldNeverRunMoreThanTheLimitConcurrently() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(executor.submit(() -> limiter.run(DEADLINE, _remaining -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(10);
+                return running.decrementAndGet();
+            })));
+        }
+        for (Future<?> future : futures) {
+            future.get(DEADLINE.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        assertThat(maxRunning).hasValue(2);
+        assertThat(limiter.metrics().getCompletedCommands()).isEqualTo(20);
+        assertThat(limiter.metrics().getRunningCommands()).isZero();
+    }
+
+    @Test
+    public void shouldGiveUpOnceTheDeadlinePasses() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            executor.submit(() -> limiter.run(DEADLINE, _remaining -> {
+                started.countDown();
+                return release.await(DEADLINE.toMillis(), TimeUnit.MILLISECONDS);
+            }));
+        }
+        started.await();
+
+        assertThatThrownBy(() -> limiter.run(Duration.ofMillis(50), _remaining -> "never runs"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("waiting to run a docker command");
+        assertThat(limiter.metrics().getTimedOutCommands()).isEqualTo(1);
+        assertThat(limiter.metrics().getMaxWaitTime()).isGreaterThanOrEqualTo(Duration.ofMillis(50));
+
+        release.countDown();
+    }
+
+    @Test
+    public void shouldReportQueueDepth() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 5; i++) {
+            executor.submit(() ->
+                    limiter.run(DEADLINE, _remaining -> release.await(DEADLINE.toMillis(), TimeUnit.MILLISECONDS)));
+        }
+
+        long deadline = System.nanoTime() + DEADLINE.toNanos();
+        while (limiter.metrics().getQueueDepth() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertThat(limiter.metrics().getQueueDepth()).isEqualTo(3);
+        assertThat(limiter.metrics().getRunningCommands()).isEqualTo(2);
+        release.countDown();
+    }
+
+    @Test
+    public void shouldPassTheRemainingTimeToTheCommand() throws Exception {
+        Duration remaining = limiter.run(DEADLINE, time -> time);
+
+        assertThat(remaining).isGreaterThan(Duration.ZERO).isLessThanOrEqualTo(DEADLINE);
+    }
+}
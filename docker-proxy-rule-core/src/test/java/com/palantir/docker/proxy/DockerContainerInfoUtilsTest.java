@@ -18,6 +18,7 @@ package com.palantir.docker.proxy;
 
 import static com.palantir.docker.proxy.DockerContainerInfoUtils.IP_FORMAT_STRING;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
@@ -50,6 +51,23 @@ public class DockerContainerInfoUtilsTest {
         assertThat(ip).isNotPresent();
     }
 
+    @Test
+    public void outputLargerThanThePipeBufferIsReadWhileTheCommandRuns() throws IOException {
+        // a single line of 256KB, several times what a pipe holds
+        Process largeOutput = new ProcessBuilder("sh", "-c", "head -c 262144 /dev/zero | tr '\\0' a; echo").start();
+        when(dockerExecutable.execute("info", "--format", "{{ .ID }}")).thenReturn(largeOutput);
+
+        assertThat(DockerContainerInfoUtils.getDockerDaemonId(dockerExecutable)).hasSize(262144);
+    }
+
+    @Test
+    public void parsePublishedPortsKeepsTheFirstBindingOfEachTcpPort() {
+        String ports = "8080/tcp=32768,8080/tcp=32768,53/udp=32769,9090/tcp=,";
+
+        assertThat(DockerContainerInfoUtils.parsePublishedPorts(ports)).containsExactly(entry(8080, 32768));
+        assertThat(DockerContainerInfoUtils.parsePublishedPorts("")).isEmpty();
+    }
+
     private static InputStream getDockerOutputForStoppedContainer() {
         return new ByteArrayInputStream("\n".getBytes(StandardCharsets.UTF_8));
     }
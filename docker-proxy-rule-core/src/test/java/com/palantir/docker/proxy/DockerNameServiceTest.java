@@ -16,7 +16,9 @@
 package com.palantir.docker.proxy;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -70,6 +72,21 @@ public class DockerNameServiceTest {
         dockerNameService.lookupAllHostAddr(HOST_NAME);
     }
 
+    @Test
+    public void shouldLeaveServiceNamesToTheProxyWithRemoteDns() throws UnknownHostException {
+        when(containerInfo.getIpForHost(HOST_NAME)).thenReturn(Optional.of(HOST_IP));
+        when(containerInfo.getIpForHost("web.server.here")).thenReturn(Optional.of(HOST_IP));
+        when(containerInfo.getKnownIpForHost(HOST_NAME)).thenReturn(Optional.of(HOST_IP));
+        DockerNameService remoteDnsNameService =
+                new DockerNameService(containerInfo, HostRoutingPolicy.defaults(), true);
+
+        assertThatThrownBy(() -> remoteDnsNameService.lookupAllHostAddr(HOST_NAME))
+                .isInstanceOf(UnknownHostException.class);
+        verify(containerInfo, never()).getIpForHost(HOST_NAME);
+        assertThat(remoteDnsNameService.lookupAllHostAddr("web.server.here")).containsExactly(HOST_IP_INET);
+        assertThat(remoteDnsNameService.lookupKnownHostAddr(HOST_NAME)).containsExactly(HOST_IP_INET);
+    }
+
     @Test
     public void shouldGetHostFromIp() throws UnknownHostException {
         when(containerInfo.getHostForIp(HOST_IP)).thenReturn(Optional.of(HOST_NAME));
@@ -18,8 +18,10 @@ package com.palantir.docker.proxy;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import com.google.common.base.Throwables;
@@ -47,6 +49,9 @@ public class DockerProxySelectorTest {
     private static final InetSocketAddress PROXY_ADDRESS =
             new InetSocketAddress(InetAddresses.forString(CLUSTER_IP), PROXY_EXTERNAL_PORT);
 
+    private static final InetSocketAddress HTTP_PROXY_ADDRESS =
+            new InetSocketAddress(InetAddresses.forString(CLUSTER_IP), 23456);
+
     private static final String TEST_IP = "172.17.0.5";
     private static final String TEST_HOSTNAME = "some-address";
     private static final URI TEST_IP_URI = createUriUnsafe("http://172.17.0.5");
@@ -92,6 +97,62 @@ public class DockerProxySelectorTest {
         assertThat(selectedProxy).containsExactly(new Proxy(Proxy.Type.SOCKS, PROXY_ADDRESS));
     }
 
+    @Test
+    public void httpUrisShouldGoThroughTheHttpProxyWhenEnabled() {
+        when(containerInfo.getIpForHost(TEST_HOSTNAME)).thenReturn(Optional.of(TEST_IP));
+        ProxySelector selector = new DockerProxySelector(
+                PROXY_ADDRESS, Optional.of(HTTP_PROXY_ADDRESS), containerInfo, originalProxySelector, false);
+
+        assertThat(selector.select(TEST_HOSTNAME_URI)).containsExactly(new Proxy(Proxy.Type.HTTP, HTTP_PROXY_ADDRESS));
+        assertThat(selector.select(createUriUnsafe("https://some-address:8443")))
+                .containsExactly(new Proxy(Proxy.Type.HTTP, HTTP_PROXY_ADDRESS));
+    }
+
+    @Test
+    public void otherUrisShouldGoThroughTheSocksProxyWhenHttpIsEnabled() {
+        when(containerInfo.getIpForHost(TEST_HOSTNAME)).thenReturn(Optional.of(TEST_IP));
+        ProxySelector selector = new DockerProxySelector(
+                PROXY_ADDRESS, Optional.of(HTTP_PROXY_ADDRESS), containerInfo, originalProxySelector, false);
+
+        assertThat(selector.select(createUriUnsafe("socket://some-address:5432")))
+                .containsExactly(new Proxy(Proxy.Type.SOCKS, PROXY_ADDRESS));
+    }
+
+    @Test
+    public void serviceNamesShouldGoThroughTheProxyWithoutLookupWithRemoteDns() {
+        ProxySelector selector =
+                new DockerProxySelector(PROXY_ADDRESS, Optional.empty(), containerInfo, originalProxySelector, true);
+
+        assertThat(selector.select(TEST_HOSTNAME_URI)).containsExactly(new Proxy(Proxy.Type.SOCKS, PROXY_ADDRESS));
+        verifyNoInteractions(containerInfo);
+    }
+
+    @Test
+    public void dockerAddressesShouldListEveryProxyWhenSharded() {
+        when(containerInfo.getIpForHost(TEST_HOSTNAME)).thenReturn(Optional.of(TEST_IP));
+        ProxyShards shards = new ProxyShards(
+                ImmutableList.of(() -> PROXY_ADDRESS, () -> HTTP_PROXY_ADDRESS), ProxySharding.LEAST_RECENTLY_USED);
+        ProxySelector selector =
+                new DockerProxySelector(shards, Optional.empty(), containerInfo, originalProxySelector, false);
+
+        assertThat(selector.select(TEST_HOSTNAME_URI))
+                .containsExactly(
+                        new Proxy(Proxy.Type.SOCKS, PROXY_ADDRESS), new Proxy(Proxy.Type.SOCKS, HTTP_PROXY_ADDRESS));
+        assertThat(selector.select(TEST_HOSTNAME_URI))
+                .containsExactly(
+                        new Proxy(Proxy.Type.SOCKS, HTTP_PROXY_ADDRESS), new Proxy(Proxy.Type.SOCKS, PROXY_ADDRESS));
+    }
+
+    @Test
+    public void dottedNamesShouldStillBeLookedUpWithRemoteDns() {
+        ProxySelector selector =
+                new DockerProxySelector(PROXY_ADDRESS, Optional.empty(), containerInfo, originalProxySelector, true);
+
+        assertThat(selector.select(createUriUnsafe("http://example.com"))).containsExactly(Proxy.NO_PROXY);
+        assertThat(selector.select(createUriUnsafe("http://localhost:8080"))).containsExactly(Proxy.NO_PROXY);
+        verify(containerInfo).getIpForHost("example.com");
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void connectionFailedShouldThrowOnNullUri() {
         dockerProxySelector.connectFailed(null, PROXY_ADDRESS, new IOException());
@@ -120,6 +181,24 @@ public class DockerProxySelectorTest {
         verify(originalProxySelector, times(1)).connectFailed(TEST_HOSTNAME_URI, PROXY_ADDRESS, exception);
     }
 
+    @Test
+    public void connectionFailedShouldAskToRefreshContainers() {
+        when(containerInfo.getIpForHost(TEST_HOSTNAME)).thenReturn(Optional.of(TEST_IP));
+
+        dockerProxySelector.connectFailed(TEST_HOSTNAME_URI, PROXY_ADDRESS, new IOException());
+
+        verify(containerInfo).connectFailed(TEST_HOSTNAME);
+    }
+
+    @Test
+    public void connectionFailedShouldNotRefreshForOtherHosts() {
+        when(containerInfo.getIpForHost(TEST_HOSTNAME)).thenReturn(Optional.empty());
+
+        dockerProxySelector.connectFailed(TEST_HOSTNAME_URI, PROXY_ADDRESS, new IOException());
+
+        verify(containerInfo, never()).connectFailed(any());
+    }
+
     private static Cluster setupProxyContainer() {
         Container proxyContainer = mock(Container.class);
         when(proxyContainer.port(DockerProxySelector.PROXY_CONTAINER_PORT))
@@ -0,0 +1,108 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.net.InetAddresses;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ForwardingNameServiceHandlerTest {
+    private static final String CONTAINER_IP = "172.17.0.2";
+    private static final InetAddress SYSTEM_ADDRESS = InetAddresses.forString("192.0.2.1");
+
+    private final DockerContainerInfo containerInfo = mock(DockerContainerInfo.class);
+    private final SystemNameService systemNameService =
+            new SystemNameService(ImmutableMap.of("both.example.com", SYSTEM_ADDRESS));
+
+    @Before
+    public void before() {
+        when(containerInfo.getIpForHost(anyString())).thenReturn(Optional.empty());
+        when(containerInfo.getIpForHost("both.example.com")).thenReturn(Optional.of(CONTAINER_IP));
+        when(containerInfo.getIpForHost("web.example.com")).thenReturn(Optional.of(CONTAINER_IP));
+    }
+
+    @Test
+    public void shouldLookUpFromDockerFirstByDefault() throws UnknownHostException {
+        NameService nameService = nameService(HostRoutingPolicy.defaults());
+
+        assertThat(nameService.lookupAllHostAddr("both.example.com"))
+                .containsExactly(InetAddresses.forString(CONTAINER_IP));
+    }
+
+    @Test
+    public void shouldLookUpFromTheSystemFirstWhenTheRoutingPolicyAsks() throws UnknownHostException {
+        NameService nameService =
+                nameService(HostRoutingPolicy.builder().dottedNamesSystemFirst(true).build());
+
+        assertThat(nameService.lookupAllHostAddr("both.example.com")).containsExactly(SYSTEM_ADDRESS);
+        verify(containerInfo, never()).getIpForHost("both.example.com");
+        assertThat(nameService.lookupAllHostAddr("web.example.com"))
+                .containsExactly(InetAddresses.forString(CONTAINER_IP));
+    }
+
+    private NameService nameService(HostRoutingPolicy policy) {
+        return (NameService) Proxy.newProxyInstance(
+                NameService.class.getClassLoader(),
+                new Class<?>[] {NameService.class},
+                new DockerProxyManager.ForwardingNameServiceHandler(
+                        new DockerNameService(containerInfo, policy), systemNameService));
+    }
+
+    /**
+     * Shaped like the JDK's own name service from Java 9 to 20.
+     */
+    public interface NameService {
+        InetAddress[] lookupAllHostAddr(String host) throws UnknownHostException;
+
+        String getHostByAddr(byte[] addr) throws UnknownHostException;
+    }
+
+    public static final class SystemNameService implements NameService {
+        private final Map<String, InetAddress> addresses;
+
+        SystemNameService(Map<String, InetAddress> addresses) {
+            this.addresses = addresses;
+        }
+
+        @Override
+        public InetAddress[] lookupAllHostAddr(String host) throws UnknownHostException {
+            InetAddress address = addresses.get(host);
+            if (address == null) {
+                throw new UnknownHostException(host);
+            }
+            return new InetAddress[] {address};
+        }
+
+        @Override
+        public String getHostByAddr(byte[] addr) throws UnknownHostException {
+            throw new UnknownHostException();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.palantir.docker.proxy.HostRoutingPolicy.Route;
+import org.junit.Test;
+
+public class HostRoutingPolicyTest {
+    @Test
+    public void shouldLookEverythingUpFromDockerFirstByDefault() {
+        HostRoutingPolicy policy = HostRoutingPolicy.defaults();
+
+        assertThat(policy.route("db")).isEqualTo(Route.DOCKER_FIRST);
+        assertThat(policy.route("example.com")).isEqualTo(Route.DOCKER_FIRST);
+    }
+
+    @Test
+    public void shouldNeverLookLocalhostUpFromDocker() {
+        HostRoutingPolicy policy = HostRoutingPolicy.defaults();
+
+        assertThat(policy.route("localhost")).isEqualTo(Route.SYSTEM_ONLY);
+        assertThat(policy.route("LocalHost.")).isEqualTo(Route.SYSTEM_ONLY);
+        assertThat(policy.route("app.localhost")).isEqualTo(Route.SYSTEM_ONLY);
+    }
+
+    @Test
+    public void shouldMatchSuffixesOnWholeLabelsIgnoringCaseAndTrailingDots() {
+        HostRoutingPolicy policy = HostRoutingPolicy.builder().systemSuffixes(".Corp.Example").build();
+
+        assertThat(policy.route("corp.example")).isEqualTo(Route.SYSTEM_ONLY);
+        assertThat(policy.route("build.CORP.example.")).isEqualTo(Route.SYSTEM_ONLY);
+        assertThat(policy.route("notcorp.example")).isEqualTo(Route.DOCKER_FIRST);
+    }
+
+    @Test
+    public void shouldPreferTheMostSpecificSuffix() {
+        HostRoutingPolicy policy = HostRoutingPolicy.builder()
+                .systemSuffixes("internal")
+                .dockerSuffixes("db.internal")
+                .build();
+
+        assertThat(policy.route("cache.internal")).isEqualTo(Route.SYSTEM_ONLY);
+        assertThat(policy.route("primary.db.internal")).isEqualTo(Route.DOCKER_FIRST);
+    }
+
+    @Test
+    public void shouldLookDottedNamesUpFromTheSystemFirstWhenAsked() {
+        HostRoutingPolicy policy = HostRoutingPolicy.builder()
+                .dottedNamesSystemFirst(true)
+                .dockerSuffixes("test")
+                .build();
+
+        assertThat(policy.route("db")).isEqualTo(Route.DOCKER_FIRST);
+        assertThat(policy.route("example.com")).isEqualTo(Route.SYSTEM_FIRST);
+        assertThat(policy.route("db.test")).isEqualTo(Route.DOCKER_FIRST);
+        assertThat(policy.route("db.")).isEqualTo(Route.DOCKER_FIRST);
+    }
+
+    @Test
+    public void shouldRejectEmptySuffixes() {
+        assertThatThrownBy(() -> HostRoutingPolicy.builder().dockerSuffixes("."))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
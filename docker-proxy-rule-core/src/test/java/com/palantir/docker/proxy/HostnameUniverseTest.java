@@ -0,0 +1,102 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.docker.compose.configuration.ProjectName;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.junit.Test;
+
+public class HostnameUniverseTest {
+    private static final ProjectName PROJECT = ProjectName.fromString("project");
+
+    @Test
+    public void shouldOnlyAllowExplicitNames() {
+        HostnameUniverse universe = HostnameUniverse.of("db", "Web.");
+
+        assertThat(universe.mightResolve("DB")).isTrue();
+        assertThat(universe.mightResolve("web")).isTrue();
+        assertThat(universe.mightResolve("example.com")).isFalse();
+        assertThat(universe.mightResolve("0123456789ab")).isFalse();
+    }
+
+    @Test
+    public void shouldAllowEverythingWhenUnrestricted() {
+        assertThat(HostnameUniverse.unrestricted().mightResolve("example.com")).isTrue();
+    }
+
+    @Test
+    public void shouldAllowNamesDeclaredInComposeFiles() {
+        HostnameUniverse universe = HostnameUniverse.fromComposeFiles(
+                PROJECT, composeFile("services"), composeFile("generated"));
+
+        assertThat(universe.mightResolve("db")).isTrue();
+        assertThat(universe.mightResolve("labelled")).isTrue();
+        assertThat(universe.mightResolve("web")).isTrue();
+        assertThat(universe.mightResolve("web-container")).isTrue();
+        assertThat(universe.mightResolve("web-host")).isTrue();
+        assertThat(universe.mightResolve("web-host.corp.test")).isTrue();
+        assertThat(universe.mightResolve("web-alias")).isTrue();
+        assertThat(universe.mightResolve("api")).isTrue();
+        assertThat(universe.mightResolve("cache")).isTrue();
+        assertThat(universe.mightResolve("cache-label")).isTrue();
+        assertThat(universe.mightResolve("worker")).isTrue();
+
+        assertThat(universe.mightResolve("example.com")).isFalse();
+        assertThat(universe.mightResolve("back")).isFalse();
+        assertThat(universe.mightResolve("postgres")).isFalse();
+    }
+
+    @Test
+    public void shouldAllowNamesGeneratedByDocker() {
+        HostnameUniverse universe = HostnameUniverse.fromComposeFiles(PROJECT, composeFile("generated"));
+
+        assertThat(universe.mightResolve("project_db_1")).isTrue();
+        assertThat(universe.mightResolve("project-db-1")).isTrue();
+        assertThat(universe.mightResolve("0123456789ab")).isTrue();
+        assertThat(universe.mightResolve("0123456789ab.corp.test")).isTrue();
+
+        assertThat(universe.mightResolve("other-db-1")).isFalse();
+        assertThat(universe.mightResolve("0123456789ab.example.com")).isFalse();
+    }
+
+    @Test
+    public void shouldNotRestrictNamesWhenComposeFilesCouldHideThem() {
+        assertUnrestricted("extends");
+        assertUnrestricted("merge-key");
+        assertUnrestricted("interpolation");
+    }
+
+    @Test
+    public void shouldNotRestrictNamesWhenComposeFilesAreNotUnderstood() {
+        assertUnrestricted("unexpected");
+        assertUnrestricted("invalid");
+    }
+
+    private static void assertUnrestricted(String name) {
+        HostnameUniverse universe =
+                HostnameUniverse.fromComposeFiles(PROJECT, composeFile("services"), composeFile(name));
+
+        assertThat(universe.mightResolve("example.com")).isTrue();
+    }
+
+    private static Path composeFile(String name) {
+        return Paths.get("src/test/resources/HostnameUniverseTest-" + name + ".yml");
+    }
+}
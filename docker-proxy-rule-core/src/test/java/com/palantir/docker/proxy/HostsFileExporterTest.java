@@ -0,0 +1,77 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableList;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class HostsFileExporterTest {
+    private static final ContainerIndex INDEX = ContainerIndex.of(ImmutableList.of(
+            new IndexedContainer("id1", "t1", ImmutableList.of("Service1", "container1"), Optional.of("172.17.0.2")),
+            new IndexedContainer("id2", "t1", ImmutableList.of("service1", "container2"), Optional.of("fd00::3")),
+            new IndexedContainer("id3", "t1", ImmutableList.of("stopped"), Optional.empty())));
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldListEveryRunningContainerByTheNamesTheIndexAnswersFor() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("hosts/docker");
+        new HostsFileExporter(file).accept(INDEX);
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertThat(lines).contains("127.0.0.1 localhost", "172.17.0.2 service1 container1", "fd00::3 container2");
+        assertThat(String.join("\n", lines)).doesNotContain("stopped");
+    }
+
+    @Test
+    public void shouldOnlyReplaceTheFileWhenContainersChange() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("hosts");
+        HostsFileExporter exporter = new HostsFileExporter(file);
+        exporter.accept(INDEX);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(0));
+
+        exporter.accept(ContainerIndex.of(INDEX.getContainers().values()));
+        assertThat(Files.getLastModifiedTime(file).toMillis()).isEqualTo(0);
+
+        exporter.accept(ContainerIndex.of(ImmutableList.of(
+                new IndexedContainer("id1", "t2", ImmutableList.of("service1"), Optional.of("172.17.0.9")))));
+        assertThat(Files.readAllLines(file, StandardCharsets.UTF_8))
+                .contains("172.17.0.9 service1")
+                .doesNotContain("172.17.0.2 service1 container1");
+        assertThat(folder.getRoot().list()).containsExactly("hosts");
+    }
+
+    @Test
+    public void shouldFailWhenTheFileCannotBeWritten() throws Exception {
+        Path file = folder.newFile().toPath().resolve("hosts");
+
+        assertThatThrownBy(() -> new HostsFileExporter(file).accept(INDEX)).isInstanceOf(UncheckedIOException.class);
+    }
+}
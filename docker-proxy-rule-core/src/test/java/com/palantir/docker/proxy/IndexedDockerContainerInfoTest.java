@@ -0,0 +1,216 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.collect.ImmutableList;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+public class IndexedDockerContainerInfoTest {
+    private static final IndexedContainer HOST =
+            new IndexedContainer("id", "t1", ImmutableList.of("host"), Optional.of("172.17.0.2"));
+    private static final IndexedContainer LATER =
+            new IndexedContainer("id2", "t1", ImmutableList.of("later"), Optional.of("172.17.0.3"));
+
+    private final CountingSource source = new CountingSource();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldRefreshOnEveryMissByDefault() {
+        IndexedDockerContainerInfo info = open(CachePolicy.defaults());
+        try {
+            assertThat(info.getIpForHost("missing")).isEmpty();
+            assertThat(info.getIpForHost("missing")).isEmpty();
+
+            // one load, then one refresh per miss
+            assertThat(source.refreshes).hasValue(3);
+        } finally {
+            info.close();
+        }
+    }
+
+    @Test
+    public void shouldRememberMissesForTheNegativeTtl() {
+        IndexedDockerContainerInfo info =
+                open(CachePolicy.builder().negativeTtl(Duration.ofMinutes(1)).build());
+        try {
+            assertThat(info.getIpForHost("missing")).isEmpty();
+            assertThat(info.getIpForHost("missing")).isEmpty();
+            assertThat(info.getHostForIp("172.17.0.3")).isEmpty();
+
+            assertThat(source.refreshes).hasValue(3);
+        } finally {
+            info.close();
+        }
+    }
+
+    @Test
+    public void shouldAnswerKnownLookupsWithoutRefreshing() {
+        IndexedDockerContainerInfo info = open(CachePolicy.defaults());
+        try {
+            assertThat(info.getKnownIpForHost("host")).hasValue("172.17.0.2");
+            assertThat(info.getKnownIpForHost("missing")).isEmpty();
+            assertThat(info.getKnownHostForIp("172.17.0.3")).isEmpty();
+
+            assertThat(source.refreshes).hasValue(1);
+        } finally {
+            info.close();
+        }
+    }
+
+    @Test
+    public void shouldAnswerHitsFromTheIndex() {
+        IndexedDockerContainerInfo info =
+                open(CachePolicy.builder().negativeTtl(Duration.ofMinutes(1)).build());
+        try {
+            assertThat(info.getIpForHost("host")).hasValue("172.17.0.2");
+            assertThat(info.getHostForIp("172.17.0.2")).hasValue("id");
+
+            assertThat(source.refreshes).hasValue(1);
+        } finally {
+            info.close();
+        }
+    }
+
+    @Test
+    public void shouldMissHostsOutsideTheUniverseWithoutQueryingDocker() {
+        source.universe = HostnameUniverse.of("host", "later");
+        IndexedDockerContainerInfo info = open(CachePolicy.defaults());
+        try {
+            assertThat(info.getIpForHost("example.com")).isEmpty();
+            assertThat(info.getIpForHost("later")).isEmpty();
+
+            // one load, then only the miss inside the universe refreshes
+            assertThat(source.refreshes).hasValue(2);
+        } finally {
+            info.close();
+        }
+    }
+
+    @Test
+    public void shouldWaitForHostsToAppear() throws Exception {
+        IndexedDockerContainerInfo info = open(CachePolicy.defaults());
+        try {
+            info.getIpForHost("host");
+            executor.schedule(() -> source.containers = ImmutableList.of(HOST, LATER), 200, TimeUnit.MILLISECONDS);
+
+            assertThat(info.awaitHosts(ImmutableList.of("host", "later"), Duration.ofSeconds(10))).isEmpty();
+            assertThat(info.getIpForHost("later")).hasValue("172.17.0.3");
+        } finally {
+            info.close();
+        }
+    }
+
+    @Test
+    public void shouldReturnHostsThatNeverAppear() throws Exception {
+        IndexedDockerContainerInfo info = open(CachePolicy.defaults());
+        try {
+            assertThat(info.awaitHosts(ImmutableList.of("host", "never"), Duration.ofMillis(300)))
+                    .containsExactly("never");
+            // backoff keeps the number of refreshes well below one per millisecond
+            assertThat(source.refreshes.get()).isBetween(2, 10);
+        } finally {
+            info.close();
+        }
+    }
+
+    @Test
+    public void shouldRefreshWhenConnectingToAContainerFailsAtMostOncePerInterval() throws Exception {
+        IndexedDockerContainerInfo info = open(CachePolicy.builder()
+                .connectFailureRefreshInterval(Duration.ofMillis(200))
+                .build());
+        try {
+            assertThat(info.getIpForHost("host")).hasValue("172.17.0.2");
+            int refreshes = source.refreshes.get();
+            source.containers = ImmutableList.of(
+                    new IndexedContainer("id3", "t2", ImmutableList.of("host"), Optional.of("172.17.0.9")));
+
+            info.connectFailed("host");
+            info.connectFailed("HOST");
+            assertThat(info.getIpForHost("host")).hasValue("172.17.0.9");
+            assertThat(source.refreshes.get()).isEqualTo(refreshes + 1);
+
+            Thread.sleep(300);
+            info.connectFailed("host");
+            assertThat(source.refreshes.get()).isEqualTo(refreshes + 2);
+        } finally {
+            info.close();
+        }
+    }
+
+    @Test
+    public void shouldNotRefreshWhenConnectingFailsIfDisabled() {
+        IndexedDockerContainerInfo info = open(CachePolicy.builder()
+                .connectFailureRefreshInterval(Duration.ZERO)
+                .build());
+        try {
+            assertThat(info.getIpForHost("host")).hasValue("172.17.0.2");
+            int refreshes = source.refreshes.get();
+
+            info.connectFailed("host");
+
+            assertThat(source.refreshes.get()).isEqualTo(refreshes);
+        } finally {
+            info.close();
+        }
+    }
+
+    private IndexedDockerContainerInfo open(CachePolicy policy) {
+        IndexedDockerContainerInfo info =
+                new IndexedDockerContainerInfo(mock(DockerContainerInfo.class), source, policy);
+        info.open();
+        return info;
+    }
+
+    private static final class CountingSource implements ContainerIndexSource {
+        private final String key = "test:" + UUID.randomUUID();
+        private final AtomicInteger refreshes = new AtomicInteger();
+        private volatile ImmutableList<IndexedContainer> containers = ImmutableList.of(HOST);
+        private volatile HostnameUniverse universe = HostnameUniverse.unrestricted();
+
+        @Override
+        public ContainerIndex refreshIndex() {
+            refreshes.incrementAndGet();
+            return ContainerIndex.of(containers);
+        }
+
+        @Override
+        public boolean mightResolve(String hostname) {
+            return universe.mightResolve(hostname);
+        }
+
+        @Override
+        public String getIndexKey() {
+            return key;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PersistentContainerIndexSourceTest {
+    private static final Duration MAX_AGE = Duration.ofMinutes(1);
+    private static final ContainerIndex INDEX = ContainerIndex.of(ImmutableList.of(
+            new IndexedContainer(
+                    "id1",
+                    "2026-01-01T00:00:00Z",
+                    ImmutableList.of("container1", "service1"),
+                    Optional.of("172.17.0.2"),
+                    ImmutableMap.of(80, 32768, 443, 32769)),
+            new IndexedContainer("id2", "2026-01-01T00:00:01Z", ImmutableList.of("container2"), Optional.empty())));
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final CountingSource docker = new CountingSource("project:test");
+
+    @Test
+    public void shouldReuseAnIndexWrittenByAnotherInstance() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        new PersistentContainerIndexSource(docker, directory, () -> "daemon").loadIndex(MAX_AGE);
+
+        ContainerIndex index =
+                new PersistentContainerIndexSource(docker, directory, () -> "daemon").loadIndex(MAX_AGE);
+
+        assertThat(docker.refreshes).hasValue(1);
+        assertThat(index.getIpForHost("service1")).hasValue("172.17.0.2");
+        assertThat(index.getIpForHost("container2")).isEmpty();
+        assertThat(index.getHostForIp("172.17.0.2")).hasValue("id1");
+        assertThat(index.getContainer("id2").map(IndexedContainer::getStartedAt)).hasValue("2026-01-01T00:00:01Z");
+        assertThat(index.getPublishedPort("service1", 443)).hasValue(32769);
+    }
+
+    @Test
+    public void shouldRefreshAStaleIndex() throws Exception {
+        PersistentContainerIndexSource source =
+                new PersistentContainerIndexSource(docker, folder.getRoot().toPath(), () -> "daemon");
+        source.loadIndex(MAX_AGE);
+        Thread.sleep(20);
+
+        source.loadIndex(Duration.ofMillis(10));
+
+        assertThat(docker.refreshes).hasValue(2);
+    }
+
+    @Test
+    public void shouldAlwaysQueryDockerWhenRefreshing() {
+        PersistentContainerIndexSource source =
+                new PersistentContainerIndexSource(docker, folder.getRoot().toPath(), () -> "daemon");
+        source.loadIndex(MAX_AGE);
+
+        source.refreshIndex();
+
+        assertThat(docker.refreshes).hasValue(2);
+    }
+
+    @Test
+    public void shouldNotShareIndicesBetweenDaemons() {
+        Path directory = folder.getRoot().toPath();
+        new PersistentContainerIndexSource(docker, directory, () -> "daemon1").loadIndex(MAX_AGE);
+
+        new PersistentContainerIndexSource(docker, directory, () -> "daemon2").loadIndex(MAX_AGE);
+
+        assertThat(docker.refreshes).hasValue(2);
+    }
+
+    @Test
+    public void shouldNotShareIndicesBetweenKeys() {
+        Path directory = folder.getRoot().toPath();
+        CountingSource otherDocker = new CountingSource("network:test");
+        new PersistentContainerIndexSource(docker, directory, () -> "daemon").loadIndex(MAX_AGE);
+
+        new PersistentContainerIndexSource(otherDocker, directory, () -> "daemon").loadIndex(MAX_AGE);
+
+        assertThat(otherDocker.refreshes).hasValue(1);
+    }
+
+    private static final class CountingSource implements ContainerIndexSource {
+        private final String indexKey;
+        private final AtomicInteger refreshes = new AtomicInteger();
+
+        CountingSource(String indexKey) {
+            this.indexKey = indexKey;
+        }
+
+        @Override
+        public ContainerIndex refreshIndex() {
+            refreshes.incrementAndGet();
+            return INDEX;
+        }
+
+        @Override
+        public String getIndexKey() {
+            return indexKey;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class ProxyContainerSpecTest {
+    @Test
+    public void danteShouldRenderItsConfig() {
+        SocksProxyConfig config = SocksProxyConfig.builder().workers(32).cpus(2).build();
+        ProxyContainerSpec spec = ProxyContainerSpec.dante(config);
+
+        assertThat(spec.getImage()).isEqualTo("vimagick/dante:latest");
+        assertThat(spec.getPort()).isEqualTo(1080);
+        assertThat(spec.renderCommand()).isEqualTo(config.composeCommand());
+        assertThat(spec.renderServiceOptions()).containsExactlyElementsOf(config.composeResourceLimits());
+    }
+
+    @Test
+    public void gostShouldListenOnItsPort() {
+        ProxyContainerSpec spec = ProxyContainerSpec.gost();
+
+        assertThat(spec.renderCommand()).isEqualTo("-L=socks5://:" + spec.getPort());
+        assertThat(spec.renderServiceOptions()).isEmpty();
+    }
+
+    @Test
+    public void settingsShouldDefaultToDante() {
+        ProxyContainerSpec spec = DockerProxySettings.defaults().getProxyContainerSpec();
+
+        assertThat(spec.getImage()).isEqualTo("vimagick/dante:latest");
+    }
+}
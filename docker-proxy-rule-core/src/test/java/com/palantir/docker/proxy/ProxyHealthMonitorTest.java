@@ -0,0 +1,138 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Test;
+
+public class ProxyHealthMonitorTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(1);
+    private static final InetSocketAddress UNUSED_ADDRESS = new InetSocketAddress(InetAddress.getLoopbackAddress(), 1);
+    private static final ProxyHealthPolicy POLICY = ProxyHealthPolicy.builder()
+            .checkTimeout(TIMEOUT)
+            .failureThreshold(2)
+            .restartTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final AtomicInteger restarts = new AtomicInteger();
+
+    private FakeProxy proxy;
+
+    @After
+    public void after() throws IOException {
+        if (proxy != null) {
+            proxy.close();
+        }
+    }
+
+    @Test
+    public void proxiesAcceptingSocks5ShouldBeHealthy() throws Exception {
+        proxy = new FakeProxy((byte) 0);
+
+        assertThat(ProxyHealthMonitor.isHealthy(proxy.address(), TIMEOUT)).isTrue();
+    }
+
+    @Test
+    public void proxiesRefusingConnectionsOrSocks5ShouldBeUnhealthy() throws Exception {
+        proxy = new FakeProxy((byte) 0xFF);
+
+        assertThat(ProxyHealthMonitor.isHealthy(proxy.address(), TIMEOUT)).isFalse();
+        assertThat(ProxyHealthMonitor.isHealthy(UNUSED_ADDRESS, TIMEOUT)).isFalse();
+    }
+
+    @Test
+    public void shouldRestartTheProxyOnceEnoughChecksFail() throws Exception {
+        proxy = new FakeProxy((byte) 0);
+        AtomicReference<InetSocketAddress> address = new AtomicReference<>(UNUSED_ADDRESS);
+        ProxyHealthMonitor monitor = new ProxyHealthMonitor(POLICY, address, () -> {
+            restarts.incrementAndGet();
+            return proxy.address();
+        });
+
+        monitor.check();
+        assertThat(restarts).hasValue(0);
+        assertThat(address.get()).isEqualTo(UNUSED_ADDRESS);
+
+        monitor.check();
+        assertThat(restarts).hasValue(1);
+        assertThat(address.get()).isEqualTo(proxy.address());
+
+        monitor.check();
+        assertThat(restarts).hasValue(1);
+    }
+
+    @Test
+    public void shouldKeepTheAddressWhenRestartingFails() {
+        AtomicReference<InetSocketAddress> address = new AtomicReference<>(UNUSED_ADDRESS);
+        ProxyHealthMonitor monitor = new ProxyHealthMonitor(POLICY, address, () -> {
+            restarts.incrementAndGet();
+            throw new IllegalStateException("docker is unavailable");
+        });
+
+        for (int i = 0; i < 4; i++) {
+            monitor.check();
+        }
+
+        assertThat(restarts).hasValue(2);
+        assertThat(address.get()).isEqualTo(UNUSED_ADDRESS);
+    }
+
+    private static final class FakeProxy implements AutoCloseable {
+        private final ServerSocket serverSocket;
+
+        FakeProxy(byte method) throws IOException {
+            this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread thread = new Thread(() -> {
+                while (true) {
+                    try (Socket socket = serverSocket.accept()) {
+                        DataInputStream in = new DataInputStream(socket.getInputStream());
+                        byte[] greeting = new byte[2];
+                        in.readFully(greeting);
+                        in.readFully(new byte[greeting[1]]);
+                        socket.getOutputStream().write(new byte[] {5, method});
+                    } catch (IOException e) {
+                        if (serverSocket.isClosed()) {
+                            return;
+                        }
+                    }
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        InetSocketAddress address() {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.junit.Test;
+
+public class ProxyShardsTest {
+    private static final InetSocketAddress PROXY_0 = proxy(10000);
+    private static final InetSocketAddress PROXY_1 = proxy(10001);
+    private static final InetSocketAddress PROXY_2 = proxy(10002);
+    private static final List<Supplier<InetSocketAddress>> PROXIES =
+            ImmutableList.of(() -> PROXY_0, () -> PROXY_1, () -> PROXY_2);
+
+    @Test
+    public void destinationHashShouldAlwaysPickTheSameProxyForAHost() {
+        ProxyShards shards = new ProxyShards(PROXIES, ProxySharding.DESTINATION_HASH);
+
+        assertThat(shards.select("db")).isEqualTo(shards.select("db"));
+    }
+
+    @Test
+    public void destinationHashShouldPickTheSameProxyForEverySpellingOfAHost() {
+        ProxyShards shards = new ProxyShards(PROXIES, ProxySharding.DESTINATION_HASH);
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(shards.select("Container-" + i + ".")).isEqualTo(shards.select("container-" + i));
+        }
+    }
+
+    @Test
+    public void destinationHashShouldSpreadHostsAcrossProxies() {
+        ProxyShards shards = new ProxyShards(PROXIES, ProxySharding.DESTINATION_HASH);
+
+        Set<InetSocketAddress> picked = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            picked.add(shards.select("container-" + i).get(0));
+        }
+
+        assertThat(picked).containsExactlyInAnyOrder(PROXY_0, PROXY_1, PROXY_2);
+    }
+
+    @Test
+    public void leastRecentlyUsedShouldTakeTurns() {
+        ProxyShards shards = new ProxyShards(PROXIES, ProxySharding.LEAST_RECENTLY_USED);
+
+        assertThat(shards.select("db")).containsExactly(PROXY_0, PROXY_1, PROXY_2);
+        assertThat(shards.select("db")).containsExactly(PROXY_1, PROXY_2, PROXY_0);
+        assertThat(shards.select("db")).containsExactly(PROXY_2, PROXY_0, PROXY_1);
+        assertThat(shards.select("db")).containsExactly(PROXY_0, PROXY_1, PROXY_2);
+    }
+
+    @Test
+    public void everyProxyShouldBeOfferedForFailover() {
+        ProxyShards shards = new ProxyShards(PROXIES, ProxySharding.DESTINATION_HASH);
+
+        assertThat(shards.select("db")).containsExactlyInAnyOrder(PROXY_0, PROXY_1, PROXY_2);
+    }
+
+    @Test
+    public void shouldUseTheCurrentAddressOfEachProxy() {
+        AtomicReference<InetSocketAddress> address = new AtomicReference<>(PROXY_0);
+        ProxyShards shards = ProxyShards.single(address::get);
+
+        address.set(PROXY_1);
+
+        assertThat(shards.select("db")).containsExactly(PROXY_1);
+        assertThat(shards.primary()).isEqualTo(PROXY_1);
+    }
+
+    @Test
+    public void theFirstProxyShouldKeepTheOriginalServiceName() {
+        assertThat(ProxyShards.containerName(0)).isEqualTo(DockerProxySelector.PROXY_CONTAINER_NAME);
+        assertThat(ProxyShards.containerName(2)).isEqualTo("proxy-2");
+    }
+
+    private static InetSocketAddress proxy(int port) {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+    }
+}
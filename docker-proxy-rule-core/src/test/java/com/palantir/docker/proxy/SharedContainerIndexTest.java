@@ -0,0 +1,264 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.junit.After;
+import org.junit.Test;
+
+public class SharedContainerIndexTest {
+    private static final CachePolicy LONG_INTERVAL =
+            CachePolicy.builder().refreshInterval(Duration.ofMinutes(10)).build();
+
+    private final CountingSource source = new CountingSource();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldShareTheIndexBetweenAcquirersOfTheSameKey() {
+        SharedContainerIndex first = SharedContainerIndex.acquire(source, LONG_INTERVAL);
+        SharedContainerIndex second = SharedContainerIndex.acquire(new CountingSource(source.key), LONG_INTERVAL);
+        try {
+            assertThat(second).isSameAs(first);
+            first.current();
+            second.current();
+            assertThat(source.refreshes).hasValue(1);
+        } finally {
+            first.release();
+            second.release();
+        }
+    }
+
+    @Test
+    public void shouldKeepTheIndexWarmForSuccessiveAcquirers() {
+        SharedContainerIndex first = SharedContainerIndex.acquire(source, LONG_INTERVAL);
+        first.current();
+        first.release();
+
+        SharedContainerIndex second = SharedContainerIndex.acquire(source, LONG_INTERVAL);
+        try {
+            assertThat(second.current().getIpForHost("host")).hasValue("172.17.0.2");
+            assertThat(source.refreshes).hasValue(1);
+        } finally {
+            second.release();
+        }
+    }
+
+    @Test
+    public void shouldWarmUpTheIndexInTheBackground() throws Exception {
+        SharedContainerIndex index = SharedContainerIndex.acquire(source, LONG_INTERVAL);
+        try {
+            ContainerIndex warm = index.warmUp().get(10, TimeUnit.SECONDS);
+
+            assertThat(warm.getIpForHost("host")).hasValue("172.17.0.2");
+            assertThat(index.current()).isSameAs(warm);
+            assertThat(index.warmUp().get(10, TimeUnit.SECONDS)).isSameAs(warm);
+            assertThat(source.refreshes).hasValue(1);
+        } finally {
+            index.release();
+        }
+    }
+
+    @Test
+    public void shouldShareConcurrentRefreshes() throws Exception {
+        SharedContainerIndex index = SharedContainerIndex.acquire(source, LONG_INTERVAL);
+        try {
+            index.current();
+            source.block = new CountDownLatch(1);
+            Future<ContainerIndex> inProgress = executor.submit(index::refresh);
+            while (source.refreshes.get() < 2) {
+                Thread.sleep(1);
+            }
+            ImmutableList.Builder<Future<ContainerIndex>> waiting = ImmutableList.builder();
+            for (int i = 0; i < 10; i++) {
+                waiting.add(executor.submit(index::refresh));
+            }
+            Thread.sleep(50);
+            source.block.countDown();
+
+            inProgress.get(10, TimeUnit.SECONDS);
+            for (Future<ContainerIndex> future : waiting.build()) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+            // the waiting callers asked after the in progress refresh started, so they share one more refresh
+            assertThat(source.refreshes).hasValue(3);
+        } finally {
+            index.release();
+        }
+    }
+
+    @Test
+    public void shouldRefreshInTheBackgroundOnlyWhileHeld() throws InterruptedException {
+        SharedContainerIndex index = SharedContainerIndex.acquire(
+                source, CachePolicy.builder().refreshInterval(Duration.ofMillis(10)).build());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (source.refreshes.get() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(source.refreshes.get()).isGreaterThanOrEqualTo(3);
+
+        index.release();
+        Thread.sleep(50);
+        int refreshesAfterRelease = source.refreshes.get();
+        Thread.sleep(100);
+        assertThat(source.refreshes).hasValue(refreshesAfterRelease);
+    }
+
+    @Test
+    public void shouldNotShareIndicesBetweenPolicies() {
+        SharedContainerIndex first = SharedContainerIndex.acquire(source, LONG_INTERVAL);
+        SharedContainerIndex second = SharedContainerIndex.acquire(
+                source, CachePolicy.builder().refreshInterval(Duration.ofMinutes(5)).build());
+        try {
+            assertThat(second).isNotSameAs(first);
+        } finally {
+            first.release();
+            second.release();
+        }
+    }
+
+    @Test
+    public void shouldRefreshWhenDockerReportsAnEvent() throws InterruptedException {
+        SharedContainerIndex index = SharedContainerIndex.acquire(
+                source,
+                CachePolicy.builder()
+                        .refreshInterval(Duration.ofMinutes(10))
+                        .mode(CachePolicy.Mode.EVENTS)
+                        .build());
+        try {
+            index.current();
+            source.events.countDown();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (source.refreshes.get() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertThat(source.refreshes).hasValue(2);
+        } finally {
+            index.release();
+        }
+    }
+
+    @Test
+    public void shouldCallUpdateListenersWithTheCurrentAndEveryLaterIndex() {
+        SharedContainerIndex index = SharedContainerIndex.acquire(source, LONG_INTERVAL);
+        List<ContainerIndex> seen = new ArrayList<>();
+        Consumer<ContainerIndex> listener = seen::add;
+        try {
+            ContainerIndex loaded = index.current();
+            index.addUpdateListener(listener);
+            ContainerIndex refreshed = index.refresh();
+            index.removeUpdateListener(listener);
+            index.refresh();
+
+            assertThat(seen).containsExactly(loaded, refreshed);
+        } finally {
+            index.release();
+        }
+    }
+
+    @Test
+    public void shouldKeepUpdatingWhenAListenerFails() {
+        SharedContainerIndex index = SharedContainerIndex.acquire(source, LONG_INTERVAL);
+        AtomicInteger calls = new AtomicInteger();
+        try {
+            index.addUpdateListener(_index -> {
+                if (calls.incrementAndGet() > 1) {
+                    throw new IllegalStateException("listener failed");
+                }
+            });
+            ContainerIndex refreshed = index.refresh();
+
+            assertThat(calls).hasValue(2);
+            assertThat(index.current()).isSameAs(refreshed);
+        } finally {
+            index.release();
+        }
+    }
+
+    @Test
+    public void shouldNotAllowMoreReleasesThanAcquires() {
+        SharedContainerIndex index = SharedContainerIndex.acquire(source, LONG_INTERVAL);
+        index.release();
+
+        assertThatThrownBy(index::release).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static final class CountingSource implements ContainerIndexSource {
+        private final String key;
+        private final AtomicInteger refreshes = new AtomicInteger();
+        private volatile CountDownLatch block = new CountDownLatch(0);
+        private final CountDownLatch events = new CountDownLatch(1);
+
+        CountingSource() {
+            this("test:" + UUID.randomUUID());
+        }
+
+        CountingSource(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public ContainerIndex refreshIndex() {
+            refreshes.incrementAndGet();
+            try {
+                block.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            return ContainerIndex.of(ImmutableList.of(
+                    new IndexedContainer("id", "t1", ImmutableList.of("host"), Optional.of("172.17.0.2"))));
+        }
+
+        @Override
+        public Optional<Process> watchEvents() throws IOException {
+            try {
+                events.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            return Optional.of(new ProcessBuilder("sh", "-c", "echo container; exec sleep 60").start());
+        }
+
+        @Override
+        public String getIndexKey() {
+            return key;
+        }
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.After;
+import org.junit.Test;
+
+public class SocketChannelConnectorTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final String TEST_IP = "172.17.0.5";
+    private static final String TEST_HOSTNAME = "some-address";
+    private static final byte SUCCEEDED = 0;
+    private static final byte CONNECTION_REFUSED = 5;
+
+    private final DockerContainerInfo containerInfo = mock(DockerContainerInfo.class);
+    private final CompletableFuture<InetSocketAddress> requestedDestination = new CompletableFuture<>();
+
+    private FakeServer server;
+    private SocketChannelConnector connector;
+
+    @After
+    public void after() throws IOException {
+        connector.close();
+        server.close();
+    }
+
+    @Test
+    public void containerHostsShouldConnectThroughTheProxy() throws Exception {
+        when(containerInfo.getIpForHost(TEST_HOSTNAME)).thenReturn(Optional.of(TEST_IP));
+        startProxy(SUCCEEDED);
+
+        SocketChannel channel = connector
+                .connect(InetSocketAddress.createUnresolved(TEST_HOSTNAME, 80), TIMEOUT)
+                .get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+
+        assertThat(echo(channel, "hello")).isEqualTo("hello");
+        InetSocketAddress destination = requestedDestination.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        assertThat(destination.getAddress().getHostAddress()).isEqualTo(TEST_IP);
+        assertThat(destination.getPort()).isEqualTo(80);
+    }
+
+    @Test
+    public void containerIpsShouldConnectThroughTheProxy() throws Exception {
+        when(containerInfo.getHostForIp(TEST_IP)).thenReturn(Optional.of(TEST_HOSTNAME));
+        startProxy(SUCCEEDED);
+
+        SocketChannel channel = connector
+                .connect(new InetSocketAddress(InetAddress.getByName(TEST_IP), 443), TIMEOUT)
+                .get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+
+        assertThat(echo(channel, "hello")).isEqualTo("hello");
+        assertThat(requestedDestination.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS).getPort())
+                .isEqualTo(443);
+    }
+
+    @Test
+    public void remoteDnsShouldSendServiceNamesUnresolved() throws Exception {
+        startProxy(SUCCEEDED, DockerProxySettings.builder().remoteDnsEnabled(true).build());
+
+        SocketChannel channel = connector
+                .connect(InetSocketAddress.createUnresolved(TEST_HOSTNAME, 80), TIMEOUT)
+                .get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+
+        assertThat(echo(channel, "hello")).isEqualTo("hello");
+        assertThat(requestedDestination.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS))
+                .isEqualTo(InetSocketAddress.createUnresolved(TEST_HOSTNAME, 80));
+        verifyNoInteractions(containerInfo);
+    }
+
+    @Test
+    public void nonDockerAddressesShouldConnectDirectly() throws Exception {
+        server = FakeServer.echo();
+        connector = new SocketChannelConnector(unusedAddress(), containerInfo, DockerProxySettings.defaults());
+
+        SocketChannel channel = connector
+                .connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.port()), TIMEOUT)
+                .get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+
+        assertThat(echo(channel, "direct")).isEqualTo("direct");
+    }
+
+    @Test
+    public void publishedPortsShouldBypassTheProxy() throws Exception {
+        server = FakeServer.echo();
+        when(containerInfo.getIpForHost(TEST_HOSTNAME)).thenReturn(Optional.of(TEST_IP));
+        when(containerInfo.getPublishedPort(TEST_IP, 80)).thenReturn(Optional.of(server.port()));
+        connector = new SocketChannelConnector(
+                unusedAddress(), containerInfo, DockerProxySettings.builder().publishedPortsEnabled(true).build());
+
+        SocketChannel channel = connector
+                .connect(InetSocketAddress.createUnresolved(TEST_HOSTNAME, 80), TIMEOUT)
+                .get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        InetSocketAddress resolved =
+                (InetSocketAddress) connector.resolve(InetSocketAddress.createUnresolved(TEST_HOSTNAME, 80));
+
+        assertThat(echo(channel, "published")).isEqualTo("published");
+        assertThat(resolved.getHostString()).isEqualTo(TEST_HOSTNAME);
+        assertThat(resolved.getAddress().isLoopbackAddress()).isTrue();
+        assertThat(resolved.getPort()).isEqualTo(server.port());
+    }
+
+    @Test
+    public void refusedConnectionsShouldFail() throws Exception {
+        when(containerInfo.getIpForHost(TEST_HOSTNAME)).thenReturn(Optional.of(TEST_IP));
+        startProxy(CONNECTION_REFUSED);
+
+        CompletableFuture<SocketChannel> connection =
+                connector.connect(InetSocketAddress.createUnresolved(TEST_HOSTNAME, 80), TIMEOUT);
+
+        assertThatThrownBy(() -> connection.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IOException.class)
+                .hasMessageContaining("connection refused");
+    }
+
+    @Test
+    public void slowContainerLookupsShouldTimeOut() throws Exception {
+        CountDownLatch lookupBlocked = new CountDownLatch(1);
+        when(containerInfo.getIpForHost(TEST_HOSTNAME)).thenAnswer(_invocation -> {
+            lookupBlocked.await();
+            return Optional.of(TEST_IP);
+        });
+        startProxy(SUCCEEDED);
+
+        try {
+            CompletableFuture<SocketChannel> connection =
+                    connector.connect(InetSocketAddress.createUnresolved(TEST_HOSTNAME, 80), Duration.ofMillis(100));
+
+            assertThatThrownBy(() -> connection.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(TimeoutException.class);
+        } finally {
+            lookupBlocked.countDown();
+        }
+    }
+
+    @Test
+    public void hostnamesThatCantBeSentToTheProxyShouldBeRejected() throws IOException {
+        startProxy(SUCCEEDED, DockerProxySettings.builder().remoteDnsEnabled(true).build());
+
+        assertThatThrownBy(() ->
+                        connector.connect(InetSocketAddress.createUnresolved(Strings.repeat("a", 256), 80), TIMEOUT))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("255");
+        assertThatThrownBy(() -> connector.connect(InetSocketAddress.createUnresolved("bücher.example", 80), TIMEOUT))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("ASCII");
+    }
+
+    @Test
+    public void resolveShouldOnlyResolveContainerHostnames() throws Exception {
+        when(containerInfo.getIpForHost(TEST_HOSTNAME)).thenReturn(Optional.of(TEST_IP));
+        server = FakeServer.echo();
+        connector = new SocketChannelConnector(unusedAddress(), containerInfo, DockerProxySettings.defaults());
+        SocketAddress other = InetSocketAddress.createUnresolved("other-address", 80);
+
+        InetSocketAddress resolved =
+                (InetSocketAddress) connector.resolve(InetSocketAddress.createUnresolved(TEST_HOSTNAME, 80));
+
+        assertThat(resolved.getHostString()).isEqualTo(TEST_HOSTNAME);
+        assertThat(resolved.getAddress().getHostAddress()).isEqualTo(TEST_IP);
+        assertThat(connector.resolve(other)).isSameAs(other);
+    }
+
+    private void startProxy(byte reply) throws IOException {
+        startProxy(reply, DockerProxySettings.defaults());
+    }
+
+    private void startProxy(byte reply, DockerProxySettings settings) throws IOException {
+        server = FakeServer.socks5(reply, requestedDestination);
+        connector = new SocketChannelConnector(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), server.port()), containerInfo, settings);
+    }
+
+    private static InetSocketAddress unusedAddress() {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), 1);
+    }
+
+    private static String echo(SocketChannel channel, String message) throws IOException {
+        try (Socket socket = channel.socket()) {
+            channel.configureBlocking(true);
+            channel.write(ByteBuffer.wrap(message.getBytes(StandardCharsets.UTF_8)));
+            ByteBuffer response = ByteBuffer.allocate(message.length());
+            while (response.hasRemaining() && channel.read(response) >= 0) {
+                // keep reading
+            }
+            return new String(response.array(), 0, response.position(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private interface Handler {
+        void handle(Socket socket) throws IOException;
+    }
+
+    private static final class FakeServer implements AutoCloseable {
+        private final ServerSocket serverSocket;
+
+        private FakeServer(Handler handler) throws IOException {
+            this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread thread = new Thread(() -> {
+                try (Socket socket = serverSocket.accept()) {
+                    handler.handle(socket);
+                } catch (IOException e) {
+                    // closed
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        static FakeServer echo() throws IOException {
+            return new FakeServer(socket -> ByteStreams.copy(socket.getInputStream(), socket.getOutputStream()));
+        }
+
+        static FakeServer socks5(byte reply, CompletableFuture<InetSocketAddress> requestedDestination)
+                throws IOException {
+            return new FakeServer(socket -> {
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                OutputStream out = socket.getOutputStream();
+
+                byte[] greeting = new byte[2];
+                in.readFully(greeting);
+                in.readFully(new byte[greeting[1]]);
+                out.write(new byte[] {5, 0});
+
+                byte[] request = new byte[4];
+                in.readFully(request);
+                if (request[3] == 3) {
+                    byte[] host = new byte[in.readUnsignedByte()];
+                    in.readFully(host);
+                    requestedDestination.complete(InetSocketAddress.createUnresolved(
+                            new String(host, StandardCharsets.US_ASCII), in.readUnsignedShort()));
+                } else {
+                    byte[] address = new byte[request[3] == 1 ? 4 : 16];
+                    in.readFully(address);
+                    requestedDestination.complete(
+                            new InetSocketAddress(InetAddress.getByAddress(address), in.readUnsignedShort()));
+                }
+
+                out.write(new byte[] {5, reply, 0, 1, 0, 0, 0, 0, 0, 0});
+                if (reply == SUCCEEDED) {
+                    ByteStreams.copy(in, out);
+                }
+            });
+        }
+
+        int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.docker.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import org.junit.Test;
+
+public class SocksProxyConfigTest {
+    @Test
+    public void shouldDefaultToTheHistoricalProxy() {
+        SocksProxyConfig config = SocksProxyConfig.defaults();
+
+        assertThat(config.composeCommand()).endsWith("-N 10'");
+        assertThat(config.composeResourceLimits()).isEmpty();
+        assertThat(config.sockdConf())
+                .contains("internal: 0.0.0.0 port = 1080\n")
+                .contains("socksmethod: none\n")
+                .doesNotContain("socket.");
+    }
+
+    @Test
+    public void shouldRenderTuning() {
+        SocksProxyConfig config = SocksProxyConfig.builder()
+                .workers(64)
+                .socketBufferSize(262144)
+                .connectTimeout(Duration.ofSeconds(5))
+                .logLevel(SocksProxyConfig.LogLevel.CONNECT)
+                .build();
+
+        assertThat(config.composeCommand()).endsWith("-N 64'");
+        assertThat(config.sockdConf())
+                .contains("timeout.connect: 5\n")
+                .contains("socket.sendbuffer.tcp: 262144\n")
+                .contains("socket.recvbuffer.tcp: 262144\n")
+                .contains("log: error connect disconnect\n");
+    }
+
+    @Test
+    public void shouldWriteTheGeneratedConfigInsideTheContainer() {
+        SocksProxyConfig config = SocksProxyConfig.defaults();
+        String command = config.composeCommand();
+        String encoded = command.substring("sh -c 'echo ".length(), command.indexOf(" | base64 -d"));
+
+        assertThat(new String(Base64.getDecoder().decode(encoded), StandardCharsets.UTF_8))
+                .isEqualTo(config.sockdConf());
+    }
+
+    @Test
+    public void shouldRenderResourceLimits() {
+        SocksProxyConfig config = SocksProxyConfig.builder()
+                .cpus(1.5)
+                .memoryLimitBytes(256 * 1024 * 1024)
+                .build();
+
+        assertThat(config.composeResourceLimits())
+                .containsExactly("cpu_period: 100000", "cpu_quota: 150000", "mem_limit: 268435456");
+    }
+
+    @Test
+    public void shouldRejectSubSecondTimeouts() {
+        assertThatThrownBy(() -> SocksProxyConfig.builder()
+                        .connectTimeout(Duration.ofMillis(500))
+                        .build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldRejectNonPositiveWorkers() {
+        assertThatThrownBy(() -> SocksProxyConfig.builder().workers(0).build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
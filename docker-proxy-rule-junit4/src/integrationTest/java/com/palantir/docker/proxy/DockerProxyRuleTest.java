@@ -15,12 +15,19 @@
  */
 package com.palantir.docker.proxy;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
 import com.palantir.docker.compose.DockerComposeRule;
 import com.palantir.docker.compose.connection.Container;
 import com.palantir.docker.compose.logging.LogDirectory;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.ProxySelector;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import org.junit.ClassRule;
 import org.junit.Test;
 
@@ -130,4 +137,78 @@ public class DockerProxyRuleTest {
         DockerProxyRule.fromNetworkName("doesnotexist", DockerProxyRuleTest.class)
                 .before();
     }
+
+    @Test
+    public void failingToStartLeavesNothingRunning() {
+        ProxySelector originalProxySelector = ProxySelector.getDefault();
+        DockerProxyRule dockerProxyRule = DockerProxyRule.fromNetworkName("doesnotexist", DockerProxyRuleTest.class);
+
+        assertThatThrownBy(dockerProxyRule::before).isInstanceOf(IllegalStateException.class);
+        assertThat(ProxySelector.getDefault()).isSameAs(originalProxySelector);
+        assertThatThrownBy(dockerProxyRule::childJvmArgs).isInstanceOf(IllegalStateException.class);
+        // the rule calls after() too, which must not undo anything twice
+        dockerProxyRule.after();
+        assertThat(ProxySelector.getDefault()).isSameAs(originalProxySelector);
+    }
+
+    @Test
+    public void restartsTheProxyAfterItIsKilled() throws IOException, InterruptedException {
+        DockerProxyRule dockerProxyRule = DockerProxyRule.fromProjectName(
+                DOCKER_COMPOSE_RULE.projectName(),
+                DockerProxyRuleTest.class,
+                DockerProxySettings.builder()
+                        .proxyHealthPolicy(ProxyHealthPolicy.builder()
+                                .checkInterval(Duration.ofMillis(200))
+                                .failureThreshold(2)
+                                .build())
+                        .build());
+        try {
+            dockerProxyRule.before();
+            // the proxy joins the network of the project it serves
+            String proxyContainerId = docker(
+                    "ps",
+                    "--filter",
+                    "label=com.docker.compose.service=" + DockerProxySelector.PROXY_CONTAINER_NAME,
+                    "--filter",
+                    "network=" + DOCKER_COMPOSE_RULE.projectName().asString() + "_default",
+                    "--format",
+                    "{{ .ID }}");
+
+            docker("kill", proxyContainerId);
+
+            connectWithin(new URL("http://webserver"), Duration.ofMinutes(1));
+            assertThat(docker("inspect", "--format", "{{ .State.Running }}", proxyContainerId))
+                    .isEqualTo("true");
+        } finally {
+            dockerProxyRule.after();
+        }
+    }
+
+    private static void connectWithin(URL url, Duration timeout) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            try {
+                url.openConnection().connect();
+                return;
+            } catch (IOException e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(200);
+            }
+        }
+    }
+
+    private static String docker(String... args) throws IOException, InterruptedException {
+        String[] command = new String[args.length + 1];
+        command[0] = "docker";
+        System.arraycopy(args, 0, command, 1, args.length);
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output;
+        try (InputStream stdout = process.getInputStream()) {
+            output = new String(stdout.readAllBytes(), StandardCharsets.UTF_8).trim();
+        }
+        assertThat(process.waitFor()).as("docker %s: %s", String.join(" ", args), output).isZero();
+        return output;
+    }
 }
@@ -34,12 +34,28 @@ public final class DockerProxyRule extends DockerProxyManager<DockerComposeRule.
      */
     DockerProxyRule(
             Function<DockerExecutable, DockerContainerInfo> dockerContainerInfoCreator, Class<?> classToLogFor) {
+        this(dockerContainerInfoCreator, classToLogFor, DockerProxySettings.defaults());
+    }
+
+    /**
+     * Creates a {@link DockerProxyRule} which will create a proxy and DNS so that tests can interface with docker
+     * containers directly.
+     *
+     * @param dockerContainerInfoCreator A {@link Function} that creates the DockerContainerInfo to use
+     * @param classToLogFor The class using {@link DockerProxyRule}
+     * @param settings How the proxy behaves
+     */
+    DockerProxyRule(
+            Function<DockerExecutable, DockerContainerInfo> dockerContainerInfoCreator,
+            Class<?> classToLogFor,
+            DockerProxySettings settings) {
         super(
                 customizer -> customizer
                         .apply(DockerComposeRule.builder().retryAttempts(0))
                         .build(),
                 dockerContainerInfoCreator,
-                classToLogFor);
+                classToLogFor,
+                settings);
     }
 
     /**
@@ -52,6 +68,21 @@ public final class DockerProxyRule extends DockerProxyManager<DockerComposeRule.
         return new DockerProxyRule(docker -> new ProjectBasedDockerContainerInfo(docker, projectName), classToLogFor);
     }
 
+    /**
+     * Creates a {@link DockerProxyRule} using a {@link ProjectBasedDockerContainerInfo}.
+     *
+     * @param projectName The docker-compose-rule ProjectName to use to find the containers
+     * @param classToLogFor The class using {@link DockerProxyRule}
+     * @param settings How the proxy behaves
+     */
+    public static DockerProxyRule fromProjectName(
+            ProjectName projectName, Class<?> classToLogFor, DockerProxySettings settings) {
+        return new DockerProxyRule(
+                docker -> new ProjectBasedDockerContainerInfo(docker, projectName, settings.getHostnameUniverse()),
+                classToLogFor,
+                settings);
+    }
+
     /**
      * Creates a {@link DockerProxyRule} using a {@link NetworkBasedDockerContainerInfo}.
      *
@@ -62,6 +93,19 @@ public final class DockerProxyRule extends DockerProxyManager<DockerComposeRule.
         return new DockerProxyRule(docker -> new NetworkBasedDockerContainerInfo(docker, networkName), classToLogFor);
     }
 
+    /**
+     * Creates a {@link DockerProxyRule} using a {@link NetworkBasedDockerContainerInfo}.
+     *
+     * @param networkName The network name to use to find the containers
+     * @param classToLogFor The class using {@link DockerProxyRule}
+     * @param settings How the proxy behaves
+     */
+    public static DockerProxyRule fromNetworkName(
+            String networkName, Class<?> classToLogFor, DockerProxySettings settings) {
+        return new DockerProxyRule(
+                docker -> new NetworkBasedDockerContainerInfo(docker, networkName), classToLogFor, settings);
+    }
+
     @Override
     public Statement apply(Statement base, Description _description) {
         return new Statement() {